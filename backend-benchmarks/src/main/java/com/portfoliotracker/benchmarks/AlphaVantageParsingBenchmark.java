@@ -0,0 +1,50 @@
+package com.portfoliotracker.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.entity.PriceBar;
+import com.portfoliotracker.service.AlphaVantageService;
+import com.portfoliotracker.service.PriceHistoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of upstream response bodies: a GLOBAL_QUOTE and a TIME_SERIES_DAILY payload of
+ * {@code bars} days (100 is a compact refresh, 5000 roughly a full 20-year history).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlphaVantageParsingBenchmark {
+    
+    @Param({"100", "5000"})
+    public int bars;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String quoteBody;
+    private String timeSeriesBody;
+    
+    @Setup
+    public void setUp() {
+        quoteBody = Fixtures.globalQuoteJson("IBM", new BigDecimal("171.2300"));
+        timeSeriesBody = Fixtures.timeSeriesJson("IBM", bars);
+    }
+    
+    @Benchmark
+    public Map<String, Object> globalQuote() throws Exception {
+        return AlphaVantageService.parseQuote(objectMapper.readTree(quoteBody).get("Global Quote"));
+    }
+    
+    @Benchmark
+    public List<PriceBar> timeSeriesDaily() throws Exception {
+        JsonNode series = objectMapper.readTree(timeSeriesBody).get("Time Series (Daily)");
+        return PriceHistoryService.parseBars("IBM", series, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.portfoliotracker.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of requests that each spend {@code blockMillis} waiting on upstream (the shape of a quote
+ * lookup or a backtest's history fetch), run in a fork with a fixed heap. "platform-pool" is Tomcat's
+ * default 200-thread pool, "platform-per-task" a platform thread per request and "virtual" a virtual
+ * thread per request, which is what the {@code virtual} Spring profile gives request handling.
+ * <p>
+ * The virtual case needs a Java 21 runtime; on older JVMs its setup fails and JMH reports it as errored
+ * while the other models still run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class BlockingConcurrencyBenchmark {
+    
+    private static final int TOMCAT_DEFAULT_THREADS = 200;
+    
+    @Param({"platform-pool", "platform-per-task", "virtual"})
+    public String threadModel;
+    
+    @Param({"1000", "10000"})
+    public int inFlight;
+    
+    @Param({"50"})
+    public long blockMillis;
+    
+    private ExecutorService executor;
+    
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        executor = switch (threadModel) {
+            case "platform-pool" -> Executors.newFixedThreadPool(TOMCAT_DEFAULT_THREADS);
+            case "platform-per-task" -> Executors.newCachedThreadPool();
+            case "virtual" -> newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown thread model: " + threadModel);
+        };
+    }
+    
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    
+    @Benchmark
+    public long burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(inFlight);
+        long start = System.nanoTime();
+        for (int i = 0; i < inFlight; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return System.nanoTime() - start;
+    }
+    
+    // Looked up reflectively so the module still compiles for the Java 17 baseline
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime, running on "
+                    + Runtime.version(), e);
+        }
+    }
+}
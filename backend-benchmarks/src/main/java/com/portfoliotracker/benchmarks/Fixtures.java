@@ -0,0 +1,109 @@
+package com.portfoliotracker.benchmarks;
+
+import com.portfoliotracker.entity.Portfolio;
+import com.portfoliotracker.entity.PortfolioAsset;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Deterministic test data and hand wiring for benchmarks, so they measure application code without
+ * starting a Spring context or touching a database.
+ */
+final class Fixtures {
+    
+    static final long PORTFOLIO_ID = 1L;
+    static final long USER_ID = 1L;
+    
+    private Fixtures() {}
+    
+    static String ticker(int i) {
+        return "T" + i;
+    }
+    
+    static Portfolio portfolio(int holdings) {
+        Random random = new Random(42);
+        Portfolio portfolio = new Portfolio("Benchmark", "Generated", null);
+        portfolio.setId(PORTFOLIO_ID);
+        List<PortfolioAsset> assets = new ArrayList<>(holdings);
+        for (int i = 0; i < holdings; i++) {
+            PortfolioAsset asset = new PortfolioAsset(
+                    ticker(i),
+                    BigDecimal.valueOf(1 + random.nextInt(500)),
+                    price(random),
+                    portfolio);
+            asset.setId((long) i + 1);
+            asset.setCurrentPrice(price(random));
+            assets.add(asset);
+        }
+        portfolio.setAssets(assets);
+        return portfolio;
+    }
+    
+    static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(5 + random.nextDouble() * 500).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    /** Sets a private (typically {@code @Autowired}) field, as the container would. */
+    static <T> T inject(T target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+        return target;
+    }
+    
+    /**
+     * Repository stand-in answering the named methods; anything else fails loudly so a benchmark never
+     * silently measures a code path it did not set up.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> answers) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+    
+    static String globalQuoteJson(String symbol, BigDecimal price) {
+        return "{\"Global Quote\": {"
+                + "\"01. symbol\": \"" + symbol + "\", \"02. open\": \"" + price + "\", \"03. high\": \"" + price
+                + "\", \"04. low\": \"" + price + "\", \"05. price\": \"" + price + "\", \"06. volume\": \"1234567\","
+                + " \"07. latest trading day\": \"2024-06-28\", \"08. previous close\": \"" + price
+                + "\", \"09. change\": \"0.0000\", \"10. change percent\": \"0.0000%\"}}";
+    }
+    
+    static String timeSeriesJson(String symbol, int bars) {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder(bars * 160);
+        json.append("{\"Meta Data\": {\"1. Information\": \"Daily Prices\", \"2. Symbol\": \"").append(symbol)
+                .append("\"}, \"Time Series (Daily)\": {");
+        LocalDate date = LocalDate.of(2024, 6, 28);
+        for (int i = 0; i < bars; i++) {
+            String close = price(random).toPlainString();
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append('"').append(date).append("\": {\"1. open\": \"").append(close)
+                    .append("\", \"2. high\": \"").append(close).append("\", \"3. low\": \"").append(close)
+                    .append("\", \"4. close\": \"").append(close).append("\", \"5. volume\": \"")
+                    .append(100_000 + random.nextInt(1_000_000)).append("\"}");
+            date = date.minusDays(1);
+        }
+        return json.append("}}").toString();
+    }
+}
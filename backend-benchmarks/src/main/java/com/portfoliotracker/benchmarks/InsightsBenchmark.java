@@ -0,0 +1,61 @@
+package com.portfoliotracker.benchmarks;
+
+import com.portfoliotracker.analytics.ClassificationIndex;
+import com.portfoliotracker.entity.PortfolioAsset;
+import com.portfoliotracker.service.AISimulationService;
+import com.portfoliotracker.service.ClassificationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diversification scoring and the Monte Carlo simulation, both over holdings already in memory.
+ * Nine in ten tickers are classified, so the unclassified fallback is exercised as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsightsBenchmark {
+    
+    private static final String[] SECTORS = {"Technology", "Healthcare", "Financials", "Energy", "Utilities",
+            "Industrials", "Materials", "Real Estate", "Consumer Staples", "Communication Services"};
+    
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int holdings;
+    
+    private List<PortfolioAsset> assets;
+    private AISimulationService aiSimulationService;
+    
+    @Setup
+    public void setUp() {
+        assets = Fixtures.portfolio(holdings).getAssets();
+        
+        ClassificationIndex.Builder builder = new ClassificationIndex.Builder();
+        for (int i = 0; i < holdings; i++) {
+            if (i % 10 != 9) {
+                String sector = SECTORS[i % SECTORS.length];
+                builder.put(Fixtures.ticker(i), sector, sector + " " + (i % 7), i % 5 == 0 ? "ETF" : "Common Stock");
+            }
+        }
+        ClassificationService classificationService = new ClassificationService();
+        Fixtures.inject(classificationService, "index", builder.build());
+        
+        aiSimulationService = new AISimulationService();
+        Fixtures.inject(aiSimulationService, "classificationService", classificationService);
+    }
+    
+    @Benchmark
+    public Map<String, Object> diversificationScore() {
+        return aiSimulationService.calculateDiversificationScore(assets);
+    }
+    
+    @Benchmark
+    public Map<String, Object> simulation() {
+        return aiSimulationService.simulatePortfolioPerformance(Fixtures.PORTFOLIO_ID, assets, 30);
+    }
+}
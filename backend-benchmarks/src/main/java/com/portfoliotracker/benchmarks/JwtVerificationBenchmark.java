@@ -0,0 +1,53 @@
+package com.portfoliotracker.benchmarks;
+
+import com.portfoliotracker.entity.User;
+import com.portfoliotracker.security.JwtTokenProvider;
+import com.portfoliotracker.security.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token handling per request: a full signature check and claims decode, against a repeat
+ * request served from the {@link JwtVerifier} cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    
+    private JwtTokenProvider tokenProvider;
+    private JwtVerifier verifier;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        Fixtures.inject(tokenProvider, "jwtSecret", "benchmarkSecretThatIsLongEnoughForHmacSha512SigningKeysAndThenSome");
+        Fixtures.inject(tokenProvider, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        tokenProvider.init();
+        
+        verifier = new JwtVerifier();
+        Fixtures.inject(verifier, "tokenProvider", tokenProvider);
+        Fixtures.inject(verifier, "maxEntries", 10_000);
+        
+        User user = new User("benchmark", "benchmark@example.com", "unused");
+        user.setId(Fixtures.USER_ID);
+        token = tokenProvider.generateToken(user);
+    }
+    
+    @Benchmark
+    public Claims parseAndVerify() {
+        return tokenProvider.parseClaims(token);
+    }
+    
+    @Benchmark
+    public Authentication cachedAuthenticate() {
+        return verifier.authenticate(token);
+    }
+}
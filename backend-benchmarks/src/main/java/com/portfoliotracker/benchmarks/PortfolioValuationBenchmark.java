@@ -0,0 +1,79 @@
+package com.portfoliotracker.benchmarks;
+
+import com.portfoliotracker.config.ReplicaProperties;
+import com.portfoliotracker.dto.PortfolioResponse;
+import com.portfoliotracker.entity.Portfolio;
+import com.portfoliotracker.entity.PortfolioAsset;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.repository.PortfolioAssetRepository;
+import com.portfoliotracker.repository.PortfolioRepository;
+import com.portfoliotracker.service.AlphaVantageService;
+import com.portfoliotracker.service.PortfolioService;
+import com.portfoliotracker.service.QuoteCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-holding valuation helpers and the full {@code getPortfolioWithDetails} aggregation, with every
+ * quote served from a warm {@link QuoteCache} so no upstream or database work is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+    
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int holdings;
+    
+    private Portfolio portfolio;
+    private PortfolioService portfolioService;
+    
+    @Setup
+    public void setUp() {
+        portfolio = Fixtures.portfolio(holdings);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        
+        CacheInvalidationBus invalidationBus = new CacheInvalidationBus(new DataSourceProperties(),
+                new ReplicaProperties(), false, 50, 10000, meterRegistry);
+        QuoteCache quoteCache = new QuoteCache(TimeUnit.DAYS.toSeconds(1), holdings + 1, meterRegistry, invalidationBus);
+        for (PortfolioAsset asset : portfolio.getAssets()) {
+            quoteCache.put(asset.getTickerSymbol(), Map.of("price", asset.getCurrentPrice()));
+        }
+        AlphaVantageService alphaVantageService = new AlphaVantageService();
+        Fixtures.inject(alphaVantageService, "quoteCache", quoteCache);
+        Fixtures.inject(alphaVantageService, "meterRegistry", meterRegistry);
+        
+        portfolioService = new PortfolioService();
+        Fixtures.inject(portfolioService, "portfolioRepository", Fixtures.repository(PortfolioRepository.class,
+                Map.of("findWithAssetsByIdAndUserId", args -> Optional.of(portfolio))));
+        Fixtures.inject(portfolioService, "portfolioAssetRepository", Fixtures.repository(PortfolioAssetRepository.class,
+                Map.of("save", args -> args[0])));
+        Fixtures.inject(portfolioService, "alphaVantageService", alphaVantageService);
+        Fixtures.inject(portfolioService, "meterRegistry", meterRegistry);
+        Fixtures.inject(portfolioService, "invalidationBus", invalidationBus);
+    }
+    
+    @Benchmark
+    public void assetHelpers(Blackhole blackhole) {
+        for (PortfolioAsset asset : portfolio.getAssets()) {
+            blackhole.consume(asset.getTotalValue());
+            blackhole.consume(asset.getTotalCost());
+            blackhole.consume(asset.getGainLoss());
+            blackhole.consume(asset.getGainLossPercentage());
+        }
+    }
+    
+    @Benchmark
+    public PortfolioResponse portfolioWithDetails() {
+        return portfolioService.getPortfolioWithDetails(Fixtures.PORTFOLIO_ID, Fixtures.USER_ID);
+    }
+}
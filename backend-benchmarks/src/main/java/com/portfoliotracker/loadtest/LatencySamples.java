@@ -0,0 +1,51 @@
+package com.portfoliotracker.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of latencies in microseconds. Each worker owns its own instance, so recording is
+ * allocation- and contention-free; instances are merged once the run is over.
+ */
+final class LatencySamples {
+    
+    private long[] values = new long[1024];
+    private int size;
+    private int errors;
+    
+    void record(long micros, boolean success) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = micros;
+        if (!success) {
+            errors++;
+        }
+    }
+    
+    void addAll(LatencySamples other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+    
+    int count() {
+        return size;
+    }
+    
+    int errors() {
+        return errors;
+    }
+    
+    /** Sorts in place; call after all samples are merged. */
+    long percentileMicros(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(values, 0, size);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return values[Math.max(0, Math.min(size - 1, rank))];
+    }
+}
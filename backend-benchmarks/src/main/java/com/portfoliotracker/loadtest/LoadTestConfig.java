@@ -0,0 +1,55 @@
+package com.portfoliotracker.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code -Dloadtest.*} system properties.
+ */
+record LoadTestConfig(
+        int users,
+        int portfoliosPerUser,
+        int holdingsPerPortfolio,
+        int tickerUniverse,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        int stubLatencyMillis,
+        int stubJitterMillis,
+        int stubHistoryBars,
+        String jdbcUrl,
+        String jdbcUsername,
+        String jdbcPassword,
+        String replicaJdbcUrl,
+        double maxErrorRate,
+        Map<Operation, Long> p50SloMillis,
+        Map<Operation, Long> p99SloMillis) {
+    
+    static LoadTestConfig fromSystemProperties() {
+        Map<Operation, Long> p50 = new EnumMap<>(Operation.class);
+        Map<Operation, Long> p99 = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            String prefix = "loadtest.slo." + operation.key() + ".";
+            p50.put(operation, Long.getLong(prefix + "p50-ms", operation.defaultP50Millis()));
+            p99.put(operation, Long.getLong(prefix + "p99-ms", operation.defaultP99Millis()));
+        }
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.portfolios-per-user", 2),
+                Integer.getInteger("loadtest.holdings-per-portfolio", 20),
+                Integer.getInteger("loadtest.ticker-universe", 60),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Integer.getInteger("loadtest.warmup-seconds", 15),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                Integer.getInteger("loadtest.stub.latency-ms", 40),
+                Integer.getInteger("loadtest.stub.jitter-ms", 20),
+                Integer.getInteger("loadtest.stub.history-bars", 600),
+                System.getProperty("loadtest.jdbc-url"),
+                System.getProperty("loadtest.jdbc-username", "postgres"),
+                System.getProperty("loadtest.jdbc-password", "password"),
+                System.getProperty("loadtest.replica-jdbc-url"),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                p50,
+                p99);
+    }
+}
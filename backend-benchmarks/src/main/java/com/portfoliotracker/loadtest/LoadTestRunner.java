@@ -0,0 +1,275 @@
+package com.portfoliotracker.loadtest;
+
+import com.portfoliotracker.PortfolioTrackerBackendApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test: boots the real application against an embedded H2 database in PostgreSQL
+ * mode (or the database given by {@code -Dloadtest.jdbc-url}) with Alpha Vantage pointed at
+ * {@link StubAlphaVantageServer}, seeds data, drives a closed-loop request mix over HTTP and checks the
+ * observed p50/p99 per operation against the configured objectives. With {@code -Dloadtest.replica-jdbc-url}
+ * (a standby of that database) it routes read-only work there and prints where transactions went. Fails on
+ * any breach. Index coverage of the repository queries is checked by the backend's
+ * {@code RepositoryQueryPlanIT}, which the same {@code verify} run executes.
+ * <p>
+ * Run from the repository root with {@code mvn -B -Ploadtest -pl backend-benchmarks -am verify}.
+ */
+public final class LoadTestRunner {
+    
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] INSIGHTS = {"diversification", "simulation", "recommendations"};
+    
+    private LoadTestRunner() {}
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        boolean passed;
+        try (StubAlphaVantageServer stub = StubAlphaVantageServer.start(
+                config.stubLatencyMillis(), config.stubJitterMillis(), config.stubHistoryBars());
+             ConfigurableApplicationContext context = SpringApplication.run(
+                     PortfolioTrackerBackendApplication.class, applicationArguments(config, stub.url()))) {
+            
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<LoadTestSeeder.SeededUser> users = new LoadTestSeeder(context).seed(config);
+            System.out.printf(Locale.ROOT, "Seeded %d users x %d portfolios x %d holdings; upstream stub at %s%n",
+                    config.users(), config.portfoliosPerUser(), config.holdingsPerPortfolio(), stub.url());
+            
+            Map<Operation, LatencySamples> results = new Run(config, "http://127.0.0.1:" + port, users).execute();
+            passed = report(config, results);
+            if (config.replicaJdbcUrl() != null) {
+                reportRouting(context);
+            }
+        }
+        if (!passed) {
+            throw new IllegalStateException("Load test breached its latency or error objectives");
+        }
+    }
+    
+    /**
+     * Command-line style overrides, which take precedence over application.properties.
+     */
+    private static String[] applicationArguments(LoadTestConfig config, String stubUrl) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--alpha.vantage.base.url=" + stubUrl,
+                "--alpha.vantage.api.key=loadtest",
+                // The harness itself is one client hammering from one address
+                "--ratelimit.enabled=false",
+                "--auth.login.throttle.ip.max-attempts=100000000",
+                "--auth.password-hash.queue-capacity=" + Math.max(64, config.concurrency() * 2),
+                "--insights.batch.cron=-",
+                "--logging.level.root=WARN",
+                "--logging.level.com.zaxxer.hikari=WARN",
+                "--logging.level.org.springframework.boot.autoconfigure.jdbc=WARN"));
+        if (config.jdbcUrl() == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    // The migrations are PostgreSQL SQL; H2 gets its schema from the entity mappings
+                    "--spring.flyway.enabled=false",
+                    "--spring.jpa.hibernate.ddl-auto=update"));
+        } else {
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + config.jdbcUrl(),
+                    "--spring.datasource.username=" + config.jdbcUsername(),
+                    "--spring.datasource.password=" + config.jdbcPassword()));
+            if (config.replicaJdbcUrl() != null) {
+                args.add("--datasource.replica.pools[0].url=" + config.replicaJdbcUrl());
+            }
+        }
+        return args.toArray(String[]::new);
+    }
+    
+    private static boolean report(LoadTestConfig config, Map<Operation, LatencySamples> results) {
+        boolean passed = true;
+        long total = 0;
+        long errors = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-10s %8s %7s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "slo p50/p99 ms");
+        for (Operation operation : Operation.values()) {
+            LatencySamples samples = results.get(operation);
+            double p50 = samples.percentileMicros(50) / 1000.0;
+            double p90 = samples.percentileMicros(90) / 1000.0;
+            double p99 = samples.percentileMicros(99) / 1000.0;
+            double max = samples.percentileMicros(100) / 1000.0;
+            long sloP50 = config.p50SloMillis().get(operation);
+            long sloP99 = config.p99SloMillis().get(operation);
+            boolean ok = samples.count() > 0 && p50 <= sloP50 && p99 <= sloP99;
+            passed &= ok;
+            total += samples.count();
+            errors += samples.errors();
+            System.out.printf(Locale.ROOT, "%-10s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f  %d/%d %s%n",
+                    operation.key(), samples.count(), samples.errors(),
+                    samples.count() / (double) config.durationSeconds(), p50, p90, p99, max,
+                    sloP50, sloP99, ok ? "ok" : "BREACH");
+        }
+        double errorRate = total == 0 ? 1.0 : errors / (double) total;
+        boolean errorsOk = errorRate <= config.maxErrorRate();
+        passed &= errorsOk;
+        System.out.printf(Locale.ROOT, "%nthroughput %.1f req/s, error rate %.2f%% (max %.2f%%) %s%n",
+                total / (double) config.durationSeconds(), errorRate * 100, config.maxErrorRate() * 100,
+                errorsOk ? "ok" : "BREACH");
+        System.out.println(passed ? "LOAD TEST PASSED" : "LOAD TEST FAILED");
+        return passed;
+    }
+    
+    /** Transactions per target pool and routing reason over the whole run, seeding included. */
+    private static void reportRouting(ConfigurableApplicationContext context) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %-18s %10s%n", "target", "reason", "count");
+        context.getBean(MeterRegistry.class).find("datasource.routing").counters().stream()
+                .filter(counter -> counter.count() > 0)
+                .sorted(Comparator.comparing((Counter counter) -> counter.getId().getTag("target"))
+                        .thenComparing(counter -> counter.getId().getTag("reason")))
+                .forEach(counter -> System.out.printf(Locale.ROOT, "%-12s %-18s %10.0f%n",
+                        counter.getId().getTag("target"), counter.getId().getTag("reason"), counter.count()));
+    }
+    
+    /**
+     * One closed-loop run: each worker logs in as its own user, then issues requests back to back,
+     * recording only once the warm-up period is over.
+     */
+    private static final class Run {
+        
+        private final LoadTestConfig config;
+        private final String baseUrl;
+        private final List<LoadTestSeeder.SeededUser> users;
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        Run(LoadTestConfig config, String baseUrl, List<LoadTestSeeder.SeededUser> users) {
+            this.config = config;
+            this.baseUrl = baseUrl;
+            this.users = users;
+        }
+        
+        Map<Operation, LatencySamples> execute() throws InterruptedException {
+            long start = System.nanoTime();
+            long measureFrom = start + Duration.ofSeconds(config.warmupSeconds()).toNanos();
+            long stopAt = measureFrom + Duration.ofSeconds(config.durationSeconds()).toNanos();
+            
+            List<Map<Operation, LatencySamples>> perWorker = new ArrayList<>();
+            CountDownLatch done = new CountDownLatch(config.concurrency());
+            for (int w = 0; w < config.concurrency(); w++) {
+                Map<Operation, LatencySamples> samples = emptySamples();
+                perWorker.add(samples);
+                LoadTestSeeder.SeededUser user = users.get(w % users.size());
+                Thread worker = new Thread(() -> {
+                    try {
+                        work(user, samples, measureFrom, stopAt);
+                    } finally {
+                        done.countDown();
+                    }
+                }, "loadtest-" + w);
+                worker.start();
+            }
+            done.await();
+            
+            Map<Operation, LatencySamples> merged = emptySamples();
+            for (Map<Operation, LatencySamples> samples : perWorker) {
+                samples.forEach((operation, s) -> merged.get(operation).addAll(s));
+            }
+            return merged;
+        }
+        
+        private void work(LoadTestSeeder.SeededUser user, Map<Operation, LatencySamples> samples,
+                          long measureFrom, long stopAt) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String token = login(user.username()).token();
+            int totalWeight = Operation.totalWeight();
+            while (true) {
+                long begin = System.nanoTime();
+                if (begin >= stopAt) {
+                    return;
+                }
+                Operation operation = Operation.pick(random.nextInt(totalWeight));
+                Long portfolioId = user.portfolioIds().get(random.nextInt(user.portfolioIds().size()));
+                boolean success;
+                switch (operation) {
+                    case LOGIN -> {
+                        Login login = login(user.username());
+                        success = login.token() != null;
+                        if (success) {
+                            token = login.token();
+                        }
+                    }
+                    case DASHBOARD -> success = get("/api/portfolios", token);
+                    case DETAIL -> success = get("/api/portfolios/" + portfolioId, token);
+                    case QUOTE -> success = get("/api/stocks/quote/"
+                            + LoadTestSeeder.ticker(random.nextInt(config.tickerUniverse())), token);
+                    default -> success = get("/api/insights/" + INSIGHTS[random.nextInt(INSIGHTS.length)]
+                            + "/" + portfolioId, token);
+                }
+                if (begin >= measureFrom) {
+                    samples.get(operation).record((System.nanoTime() - begin) / 1000, success);
+                }
+            }
+        }
+        
+        private record Login(String token) {}
+        
+        private Login login(String username) {
+            String body = "{\"username\":\"" + username + "\",\"password\":\"" + LoadTestSeeder.PASSWORD + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = TOKEN.matcher(response.body());
+                return new Login(response.statusCode() == 200 && matcher.find() ? matcher.group(1) : null);
+            } catch (Exception e) {
+                return new Login(null);
+            }
+        }
+        
+        private boolean get(String path, String token) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() / 100 == 2;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        
+        private static Map<Operation, LatencySamples> emptySamples() {
+            Map<Operation, LatencySamples> samples = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                samples.put(operation, new LatencySamples());
+            }
+            return samples;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.portfoliotracker.loadtest;
+
+import com.portfoliotracker.entity.Portfolio;
+import com.portfoliotracker.entity.PortfolioAsset;
+import com.portfoliotracker.entity.User;
+import com.portfoliotracker.repository.PortfolioAssetRepository;
+import com.portfoliotracker.repository.PortfolioRepository;
+import com.portfoliotracker.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds users, portfolios and holdings through the application's own repositories, so the data goes
+ * through the same mappings the API reads.
+ */
+final class LoadTestSeeder {
+    
+    static final String PASSWORD = "loadtest-password";
+    
+    record SeededUser(String username, List<Long> portfolioIds) {}
+    
+    private final UserRepository userRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final PortfolioAssetRepository portfolioAssetRepository;
+    private final PasswordEncoder passwordEncoder;
+    
+    LoadTestSeeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.portfolioRepository = context.getBean(PortfolioRepository.class);
+        this.portfolioAssetRepository = context.getBean(PortfolioAssetRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+    }
+    
+    static String ticker(int i) {
+        return "LT" + i;
+    }
+    
+    List<SeededUser> seed(LoadTestConfig config) {
+        Random random = new Random(1234);
+        // One hash for everyone: seeding should not spend minutes in BCrypt
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        
+        List<User> users = new ArrayList<>(config.users());
+        for (int u = 0; u < config.users(); u++) {
+            String username = "lt" + runId + "u" + u;
+            users.add(new User(username, username + "@loadtest.local", passwordHash));
+        }
+        users = userRepository.saveAll(users);
+        
+        List<Portfolio> portfolios = new ArrayList<>();
+        for (User user : users) {
+            for (int p = 0; p < config.portfoliosPerUser(); p++) {
+                portfolios.add(new Portfolio("Portfolio " + p, "Load test portfolio", user));
+            }
+        }
+        portfolios = portfolioRepository.saveAll(portfolios);
+        
+        List<PortfolioAsset> assets = new ArrayList<>();
+        for (Portfolio portfolio : portfolios) {
+            int first = random.nextInt(config.tickerUniverse());
+            int holdings = Math.min(config.holdingsPerPortfolio(), config.tickerUniverse());
+            for (int h = 0; h < holdings; h++) {
+                String ticker = ticker((first + h) % config.tickerUniverse());
+                BigDecimal purchasePrice = BigDecimal.valueOf(StubAlphaVantageServer.basePrice(ticker) * (0.8 + random.nextDouble() * 0.4));
+                assets.add(new PortfolioAsset(ticker, BigDecimal.valueOf(1 + random.nextInt(200)), purchasePrice, portfolio));
+            }
+        }
+        portfolioAssetRepository.saveAll(assets);
+        
+        List<SeededUser> seeded = new ArrayList<>(users.size());
+        int index = 0;
+        for (User user : users) {
+            List<Long> ids = new ArrayList<>();
+            for (int p = 0; p < config.portfoliosPerUser(); p++) {
+                ids.add(portfolios.get(index++).getId());
+            }
+            seeded.add(new SeededUser(user.getUsername(), ids));
+        }
+        return seeded;
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfoliotracker.loadtest;
+
+/**
+ * The request types in the load mix, with their share of traffic and default latency objectives.
+ * Login is dominated by BCrypt, so its objectives are looser than the read paths.
+ */
+enum Operation {
+    
+    LOGIN("login", 5, 400, 1500),
+    DASHBOARD("dashboard", 35, 30, 200),
+    DETAIL("detail", 30, 60, 400),
+    QUOTE("quote", 15, 30, 250),
+    INSIGHTS("insights", 15, 80, 1000);
+    
+    private final String key;
+    private final int weight;
+    private final long defaultP50Millis;
+    private final long defaultP99Millis;
+    
+    Operation(String key, int weight, long defaultP50Millis, long defaultP99Millis) {
+        this.key = key;
+        this.weight = weight;
+        this.defaultP50Millis = defaultP50Millis;
+        this.defaultP99Millis = defaultP99Millis;
+    }
+    
+    String key() {
+        return key;
+    }
+    
+    int weight() {
+        return weight;
+    }
+    
+    long defaultP50Millis() {
+        return defaultP50Millis;
+    }
+    
+    long defaultP99Millis() {
+        return defaultP99Millis;
+    }
+    
+    static Operation pick(int roll) {
+        for (Operation operation : values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return DASHBOARD;
+    }
+    
+    static int totalWeight() {
+        int total = 0;
+        for (Operation operation : values()) {
+            total += operation.weight;
+        }
+        return total;
+    }
+}
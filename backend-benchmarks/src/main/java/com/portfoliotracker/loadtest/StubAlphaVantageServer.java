@@ -0,0 +1,155 @@
+package com.portfoliotracker.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the Alpha Vantage query endpoint. Answers GLOBAL_QUOTE, OVERVIEW and
+ * TIME_SERIES_DAILY with deterministic per-symbol data after a configurable delay, so the load test
+ * sees realistic upstream latency without spending real API quota.
+ */
+final class StubAlphaVantageServer implements AutoCloseable {
+    
+    private static final String[] SECTORS = {"Technology", "Healthcare", "Financials", "Energy", "Utilities",
+            "Industrials", "Materials", "Real Estate", "Consumer Staples", "Communication Services"};
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final int historyBars;
+    
+    private StubAlphaVantageServer(int latencyMillis, int jitterMillis, int historyBars) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.historyBars = historyBars;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Unbounded so simulated latency overlaps across requests the way a remote API's would
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/query", this::handle);
+    }
+    
+    static StubAlphaVantageServer start(int latencyMillis, int jitterMillis, int historyBars) throws IOException {
+        StubAlphaVantageServer stub = new StubAlphaVantageServer(latencyMillis, jitterMillis, historyBars);
+        stub.server.start();
+        return stub;
+    }
+    
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/query";
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> params = query(exchange.getRequestURI());
+            String symbol = params.getOrDefault("symbol", "UNKNOWN").toUpperCase(Locale.ROOT);
+            String body = switch (params.getOrDefault("function", "")) {
+                case "GLOBAL_QUOTE" -> quote(symbol);
+                case "OVERVIEW" -> overview(symbol);
+                case "TIME_SERIES_DAILY" -> timeSeries(symbol, "full".equals(params.get("outputsize")) ? historyBars : 100);
+                default -> "{\"Error Message\": \"Invalid API call.\"}";
+            };
+            sleep();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void sleep() {
+        int delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextInt(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+    
+    static double basePrice(String symbol) {
+        return 20 + Math.floorMod(symbol.hashCode(), 480);
+    }
+    
+    private static String quote(String symbol) {
+        String price = String.format(Locale.ROOT, "%.4f", basePrice(symbol));
+        return "{\"Global Quote\": {\"01. symbol\": \"" + symbol + "\", \"02. open\": \"" + price
+                + "\", \"03. high\": \"" + price + "\", \"04. low\": \"" + price + "\", \"05. price\": \"" + price
+                + "\", \"06. volume\": \"1000000\", \"07. latest trading day\": \"" + LocalDate.now().minusDays(1)
+                + "\", \"08. previous close\": \"" + price + "\", \"09. change\": \"0.0000\","
+                + " \"10. change percent\": \"0.0000%\"}}";
+    }
+    
+    private static String overview(String symbol) {
+        String sector = SECTORS[Math.floorMod(symbol.hashCode(), SECTORS.length)];
+        return "{\"Symbol\": \"" + symbol + "\", \"AssetType\": \"Common Stock\", \"Name\": \"" + symbol + " Inc\","
+                + " \"Description\": \"Load test fixture\", \"Sector\": \"" + sector + "\", \"Industry\": \"" + sector
+                + " Services\", \"MarketCapitalization\": \"1000000000\", \"PERatio\": \"20\", \"DividendYield\": \"0.01\"}";
+    }
+    
+    private static String timeSeries(String symbol, int bars) {
+        Random random = new Random(symbol.hashCode());
+        // Walk backwards from the last weekday so the newest bar is always "yesterday's close"
+        LocalDate date = LocalDate.now().minusDays(1);
+        double close = basePrice(symbol);
+        StringBuilder json = new StringBuilder(bars * 150);
+        json.append("{\"Meta Data\": {\"1. Information\": \"Daily Prices\", \"2. Symbol\": \"").append(symbol)
+                .append("\"}, \"Time Series (Daily)\": {");
+        for (int i = 0; i < bars; i++) {
+            while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                date = date.minusDays(1);
+            }
+            String price = String.format(Locale.ROOT, "%.4f", close);
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append('"').append(date).append("\": {\"1. open\": \"").append(price).append("\", \"2. high\": \"")
+                    .append(price).append("\", \"3. low\": \"").append(price).append("\", \"4. close\": \"")
+                    .append(price).append("\", \"5. volume\": \"1000000\"}");
+            close = Math.max(1.0, close / (1 + random.nextGaussian() * 0.015));
+            date = date.minusDays(1);
+        }
+        return json.append("}}").toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.portfoliotracker.analytics;
+
+/**
+ * Replays a weight vector over a {@link ReturnMatrix}, advancing every ticker one day at a time over the
+ * day-major return array. Holdings drift with prices between rebalances; with a rebalance interval of zero
+ * the initial allocation is simply held (buy and hold).
+ * <p>
+ * Stateless and allocation-light, so any number of backtests can run concurrently on a shared matrix.
+ */
+public final class BacktestEngine {
+    
+    private BacktestEngine() {}
+    
+    public record Result(int tradingDays, double totalReturn, double annualizedReturn, double annualizedVolatility,
+                         double maxDrawdown, double turnover, int rebalances) {}
+    
+    /**
+     * @param initialWeights starting allocation, aligned with the matrix tickers (normalised to sum to one)
+     * @param targetWeights  allocation restored at each rebalance, or {@code null} to reuse the initial one
+     * @param rebalanceEvery rebalance interval in trading days; zero or negative disables rebalancing
+     * @param fromDay        first day (inclusive) whose return is applied
+     * @param toDay          last day (exclusive)
+     */
+    public static Result run(ReturnMatrix matrix, double[] initialWeights, double[] targetWeights,
+                             int rebalanceEvery, int fromDay, int toDay) {
+        int n = matrix.tickerCount();
+        double[] returns = matrix.dayMajor();
+        double[] values = normalized(initialWeights);
+        double[] target = targetWeights != null ? normalized(targetWeights) : values.clone();
+        
+        double nav = 1.0;
+        double peak = 1.0;
+        double maxDrawdown = 0.0;
+        double turnover = 0.0;
+        int rebalances = 0;
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        int days = Math.max(0, toDay - fromDay);
+        
+        for (int t = fromDay; t < toDay; t++) {
+            int base = t * n;
+            double next = 0.0;
+            for (int i = 0; i < n; i++) {
+                double value = values[i] * (1.0 + returns[base + i]);
+                values[i] = value;
+                next += value;
+            }
+            double daily = next / nav - 1.0;
+            sum += daily;
+            sumSquares += daily * daily;
+            nav = next;
+            if (nav > peak) {
+                peak = nav;
+            } else {
+                double drawdown = 1.0 - nav / peak;
+                if (drawdown > maxDrawdown) {
+                    maxDrawdown = drawdown;
+                }
+            }
+            
+            if (rebalanceEvery > 0 && (t - fromDay + 1) % rebalanceEvery == 0 && t + 1 < toDay) {
+                double traded = 0.0;
+                for (int i = 0; i < n; i++) {
+                    double desired = target[i] * nav;
+                    traded += Math.abs(desired - values[i]);
+                    values[i] = desired;
+                }
+                // One-way turnover: half the gross amount traded, as a fraction of NAV
+                turnover += traded / (2.0 * nav);
+                rebalances++;
+            }
+        }
+        
+        double totalReturn = nav - 1.0;
+        double years = days / (double) MeanVarianceOptimizer.TRADING_DAYS;
+        double annualizedReturn = years > 0.0 && nav > 0.0 ? Math.pow(nav, 1.0 / years) - 1.0 : 0.0;
+        double volatility = 0.0;
+        if (days > 1) {
+            double mean = sum / days;
+            double variance = (sumSquares - days * mean * mean) / (days - 1);
+            volatility = Math.sqrt(Math.max(variance, 0.0) * MeanVarianceOptimizer.TRADING_DAYS);
+        }
+        return new Result(days, totalReturn, annualizedReturn, volatility, maxDrawdown, turnover, rebalances);
+    }
+    
+    private static double[] normalized(double[] weights) {
+        double total = 0.0;
+        for (double w : weights) {
+            total += w;
+        }
+        double[] result = new double[weights.length];
+        if (total <= 0.0) {
+            return result;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            result[i] = weights[i] / total;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+package com.portfoliotracker.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable ticker → (sector, industry, asset class) lookup with every label interned to a small int id.
+ * Grouping a portfolio is then one map lookup per holding followed by array arithmetic on group ids,
+ * with no string comparison or per-request hashing of labels.
+ * <p>
+ * New classifications are added with {@link #with}, which returns a new index (copy-on-write) so readers
+ * never lock.
+ */
+public final class ClassificationIndex {
+    
+    public static final int UNCLASSIFIED = -1;
+    
+    public static final int SECTOR = 0;
+    public static final int INDUSTRY = 1;
+    public static final int ASSET_CLASS = 2;
+    
+    private static final int DIMENSIONS = 3;
+    
+    private final Map<String, Integer> tickerIds;
+    /** groups[dimension][tickerId] → label id */
+    private final int[][] groups;
+    /** labels[dimension][labelId] → label */
+    private final String[][] labels;
+    
+    private ClassificationIndex(Map<String, Integer> tickerIds, int[][] groups, String[][] labels) {
+        this.tickerIds = tickerIds;
+        this.groups = groups;
+        this.labels = labels;
+    }
+    
+    public static ClassificationIndex empty() {
+        return new ClassificationIndex(Map.of(), new int[DIMENSIONS][0], new String[DIMENSIONS][0]);
+    }
+    
+    /** Id of a classified ticker, or {@link #UNCLASSIFIED}. */
+    public int tickerId(String ticker) {
+        Integer id = tickerIds.get(ticker);
+        return id != null ? id : UNCLASSIFIED;
+    }
+    
+    public int size() {
+        return tickerIds.size();
+    }
+    
+    /** Label id of a ticker for one dimension, or {@link #UNCLASSIFIED} for blank labels. */
+    public int group(int dimension, int tickerId) {
+        return tickerId == UNCLASSIFIED ? UNCLASSIFIED : groups[dimension][tickerId];
+    }
+    
+    public int labelCount(int dimension) {
+        return labels[dimension].length;
+    }
+    
+    public String label(int dimension, int labelId) {
+        return labels[dimension][labelId];
+    }
+    
+    /**
+     * Returns a copy of this index with the given ticker (re)classified. O(size); meant for the occasional
+     * newly fetched ticker, use {@link Builder} for bulk loads.
+     */
+    public ClassificationIndex with(String ticker, String sector, String industry, String assetClass) {
+        Builder builder = new Builder(this);
+        builder.put(ticker, sector, industry, assetClass);
+        return builder.build();
+    }
+    
+    /** Mutable accumulator used to load or extend an index; label interning only happens here. */
+    public static final class Builder {
+        
+        private final Map<String, Integer> tickerIds;
+        private final int[][] groups;
+        private int count;
+        private final List<Map<String, Integer>> labelIds = new ArrayList<>();
+        private final List<List<String>> labels = new ArrayList<>();
+        
+        public Builder() {
+            this(empty());
+        }
+        
+        private Builder(ClassificationIndex base) {
+            tickerIds = new HashMap<>(base.tickerIds);
+            groups = new int[DIMENSIONS][];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                groups[d] = Arrays.copyOf(base.groups[d], Math.max(16, base.groups[d].length));
+                Map<String, Integer> ids = new HashMap<>();
+                List<String> names = new ArrayList<>(Arrays.asList(base.labels[d]));
+                for (int l = 0; l < names.size(); l++) {
+                    ids.put(names.get(l), l);
+                }
+                labelIds.add(ids);
+                labels.add(names);
+            }
+            count = base.tickerIds.size();
+        }
+        
+        public Builder put(String ticker, String sector, String industry, String assetClass) {
+            String[] values = {sector, industry, assetClass};
+            Integer existing = tickerIds.get(ticker);
+            int id = existing != null ? existing : count++;
+            tickerIds.put(ticker, id);
+            for (int d = 0; d < DIMENSIONS; d++) {
+                if (groups[d].length <= id) {
+                    groups[d] = Arrays.copyOf(groups[d], groups[d].length * 2);
+                }
+                String value = normalize(values[d]);
+                int labelId = UNCLASSIFIED;
+                if (value != null) {
+                    List<String> names = labels.get(d);
+                    labelId = labelIds.get(d).computeIfAbsent(value, v -> {
+                        names.add(v);
+                        return names.size() - 1;
+                    });
+                }
+                groups[d][id] = labelId;
+            }
+            return this;
+        }
+        
+        public ClassificationIndex build() {
+            int[][] trimmed = new int[DIMENSIONS][];
+            String[][] names = new String[DIMENSIONS][];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                trimmed[d] = Arrays.copyOf(groups[d], count);
+                names[d] = labels.get(d).toArray(new String[0]);
+            }
+            return new ClassificationIndex(Map.copyOf(tickerIds), trimmed, names);
+        }
+    }
+    
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() || "None".equalsIgnoreCase(trimmed) || "-".equals(trimmed)
+                ? null
+                : trimmed.toUpperCase();
+    }
+}
@@ -0,0 +1,57 @@
+package com.portfoliotracker.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily return covariance and mean for an ordered set of tickers, as served to risk, simulation and
+ * optimisation code. Arrays are owned by this instance and must not be modified by callers.
+ */
+public record CovarianceMatrix(String[] tickers, double[] means, double[][] covariance, LocalDate asOf) {
+    
+    public int size() {
+        return tickers.length;
+    }
+    
+    public List<String> tickerList() {
+        return List.of(tickers);
+    }
+    
+    /** w' Σ w */
+    public double portfolioVariance(double[] weights) {
+        double variance = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            double[] row = covariance[i];
+            double sum = 0.0;
+            for (int j = 0; j < weights.length; j++) {
+                sum += row[j] * weights[j];
+            }
+            variance += weights[i] * sum;
+        }
+        return variance;
+    }
+    
+    public double portfolioMean(double[] weights) {
+        double mean = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            mean += weights[i] * means[i];
+        }
+        return mean;
+    }
+    
+    public double[][] correlation() {
+        int n = tickers.length;
+        double[] vol = new double[n];
+        for (int i = 0; i < n; i++) {
+            vol[i] = Math.sqrt(covariance[i][i]);
+        }
+        double[][] correlation = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double denominator = vol[i] * vol[j];
+                correlation[i][j] = i == j ? 1.0 : denominator > 0.0 ? covariance[i][j] / denominator : 0.0;
+            }
+        }
+        return correlation;
+    }
+}
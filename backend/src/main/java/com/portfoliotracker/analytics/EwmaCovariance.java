@@ -0,0 +1,282 @@
+package com.portfoliotracker.analytics;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exponentially weighted (RiskMetrics-style) covariance of daily returns over a universe of tickers:
+ * {@code Σ_t = λ Σ_{t-1} + (1 - λ) r_t r_t'} and {@code μ_t = λ μ_{t-1} + (1 - λ) r_t}.
+ * <p>
+ * Returns may be NaN on days a ticker did not trade. Every mean and every pair is then updated only on the
+ * days it was observed, with its own running weight {@code W = λ W + (1 - λ)} dividing the sum, so one ticker
+ * with a short or patchy history neither shortens nor biases the window of the others. Because pairs see
+ * different days, {@link #subMatrix} repairs the (rare) result that is not positive semi-definite.
+ * <p>
+ * Snapshots are immutable; {@link #update} returns a new snapshot so readers never need a lock.
+ * Pair state is kept as flat row-major {@code n × n} arrays.
+ */
+public final class EwmaCovariance {
+    
+    /** Tickers with fewer observed days than this are left out of sub-matrices. */
+    public static final int MIN_OBSERVATIONS = 20;
+    
+    private static final int MAX_JACOBI_SWEEPS = 100;
+    
+    private final double lambda;
+    private final String[] tickers;
+    private final Map<String, Integer> index;
+    private final double[] meanSums;
+    private final double[] pairSums;
+    private final double[] pairWeights;
+    private final int[] observations;
+    private final LocalDate asOf;
+    
+    private EwmaCovariance(double lambda, String[] tickers, Map<String, Integer> index, double[] meanSums,
+                           double[] pairSums, double[] pairWeights, int[] observations, LocalDate asOf) {
+        this.lambda = lambda;
+        this.tickers = tickers;
+        this.index = index;
+        this.meanSums = meanSums;
+        this.pairSums = pairSums;
+        this.pairWeights = pairWeights;
+        this.observations = observations;
+        this.asOf = asOf;
+    }
+    
+    /**
+     * Runs the recursion over every day of the matrix, which may contain NaN for days a ticker has no return.
+     */
+    public static EwmaCovariance seed(ReturnMatrix matrix, double lambda) {
+        int n = matrix.tickerCount();
+        int days = matrix.dayCount();
+        String[] tickers = matrix.tickers().toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(tickers[i], i);
+        }
+        double[] meanSums = new double[n];
+        double[] pairSums = new double[n * n];
+        double[] pairWeights = new double[n * n];
+        int[] observations = new int[n];
+        
+        double[] r = new double[n];
+        for (int t = 0; t < days; t++) {
+            for (int i = 0; i < n; i++) {
+                r[i] = matrix.row(i)[t];
+            }
+            apply(lambda, n, meanSums, pairSums, pairWeights, observations, r);
+        }
+        return new EwmaCovariance(lambda, tickers, index, meanSums, pairSums, pairWeights, observations, matrix.lastDate());
+    }
+    
+    /**
+     * Folds one new day of returns (aligned with {@link #tickers()}, NaN where a ticker did not trade) into a
+     * copy of this estimate.
+     */
+    public EwmaCovariance update(double[] returns, LocalDate date) {
+        int n = tickers.length;
+        double[] nextMeanSums = meanSums.clone();
+        double[] nextPairSums = pairSums.clone();
+        double[] nextPairWeights = pairWeights.clone();
+        int[] nextObservations = observations.clone();
+        apply(lambda, n, nextMeanSums, nextPairSums, nextPairWeights, nextObservations, returns);
+        return new EwmaCovariance(lambda, tickers, index, nextMeanSums, nextPairSums, nextPairWeights, nextObservations, date);
+    }
+    
+    private static void apply(double lambda, int n, double[] meanSums, double[] pairSums, double[] pairWeights,
+                              int[] observations, double[] r) {
+        double alpha = 1.0 - lambda;
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(r[i])) {
+                continue;
+            }
+            observations[i]++;
+            meanSums[i] = lambda * meanSums[i] + alpha * r[i];
+            double ri = alpha * r[i];
+            int row = i * n;
+            for (int j = 0; j <= i; j++) {
+                if (Double.isNaN(r[j])) {
+                    continue;
+                }
+                double value = lambda * pairSums[row + j] + ri * r[j];
+                double weight = lambda * pairWeights[row + j] + alpha;
+                pairSums[row + j] = value;
+                pairSums[j * n + i] = value;
+                pairWeights[row + j] = weight;
+                pairWeights[j * n + i] = weight;
+            }
+        }
+    }
+    
+    /** True when every requested ticker has enough observed days to be served. */
+    public boolean covers(Collection<String> requested) {
+        for (String ticker : requested) {
+            Integer position = index.get(ticker);
+            if (position == null || observations[position] < MIN_OBSERVATIONS) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public String[] tickers() {
+        return tickers.clone();
+    }
+    
+    public LocalDate asOf() {
+        return asOf;
+    }
+    
+    public double lambda() {
+        return lambda;
+    }
+    
+    /**
+     * Extracts the covariance of the requested tickers, in the requested order. Unknown tickers and tickers with
+     * fewer than {@link #MIN_OBSERVATIONS} observed days are skipped.
+     */
+    public CovarianceMatrix subMatrix(Collection<String> requested) {
+        int[] positions = new int[requested.size()];
+        String[] subTickers = new String[requested.size()];
+        int k = 0;
+        for (String ticker : requested) {
+            Integer position = index.get(ticker);
+            if (position != null && observations[position] >= MIN_OBSERVATIONS) {
+                positions[k] = position;
+                subTickers[k] = ticker;
+                k++;
+            }
+        }
+        int n = tickers.length;
+        String[] resultTickers = new String[k];
+        double[] resultMeans = new double[k];
+        double[][] result = new double[k][k];
+        for (int a = 0; a < k; a++) {
+            resultTickers[a] = subTickers[a];
+            int diagonal = positions[a] * n + positions[a];
+            resultMeans[a] = meanSums[positions[a]] / pairWeights[diagonal];
+            int row = positions[a] * n;
+            for (int b = 0; b < k; b++) {
+                double weight = pairWeights[row + positions[b]];
+                result[a][b] = weight > 0.0 ? pairSums[row + positions[b]] / weight : 0.0;
+            }
+        }
+        if (!isPositiveSemidefinite(result)) {
+            repairPositiveSemidefinite(result);
+        }
+        return new CovarianceMatrix(resultTickers, resultMeans, result, asOf);
+    }
+    
+    /** Cholesky attempt with a small relative tolerance on the pivots. */
+    static boolean isPositiveSemidefinite(double[][] matrix) {
+        int n = matrix.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            double tolerance = 1e-12 * Math.max(Math.abs(matrix[i][i]), Double.MIN_NORMAL);
+            for (int j = 0; j <= i; j++) {
+                double sum = matrix[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    if (sum < -tolerance) {
+                        return false;
+                    }
+                    l[i][i] = Math.sqrt(Math.max(sum, 0.0));
+                } else {
+                    l[i][j] = l[j][j] > 0.0 ? sum / l[j][j] : 0.0;
+                    if (l[j][j] == 0.0 && Math.abs(sum) > tolerance) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Replaces the matrix in place with its eigenvalue-clipped projection (negative eigenvalues set to zero,
+     * via cyclic Jacobi), rescaled so every variance keeps its original value.
+     */
+    static void repairPositiveSemidefinite(double[][] matrix) {
+        int n = matrix.length;
+        double[] variances = new double[n];
+        double[][] a = new double[n][];
+        double[][] v = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            variances[i] = matrix[i][i];
+            a[i] = matrix[i].clone();
+            v[i][i] = 1.0;
+        }
+        
+        for (int sweep = 0; sweep < MAX_JACOBI_SWEEPS; sweep++) {
+            double offDiagonal = 0.0;
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    offDiagonal += a[p][q] * a[p][q];
+                }
+            }
+            if (offDiagonal < 1e-30) {
+                break;
+            }
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    if (a[p][q] == 0.0) {
+                        continue;
+                    }
+                    double theta = (a[q][q] - a[p][p]) / (2.0 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+                    if (theta == 0.0) {
+                        t = 1.0;
+                    }
+                    double c = 1.0 / Math.sqrt(t * t + 1.0);
+                    double s = t * c;
+                    for (int k = 0; k < n; k++) {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double vkp = v[k][p];
+                        double vkq = v[k][q];
+                        v[k][p] = c * vkp - s * vkq;
+                        v[k][q] = s * vkp + c * vkq;
+                    }
+                }
+            }
+        }
+        
+        double[] eigenvalues = new double[n];
+        for (int k = 0; k < n; k++) {
+            eigenvalues[k] = Math.max(a[k][k], 0.0);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < n; k++) {
+                    sum += v[i][k] * eigenvalues[k] * v[j][k];
+                }
+                matrix[i][j] = sum;
+                matrix[j][i] = sum;
+            }
+        }
+        double[] scale = new double[n];
+        for (int i = 0; i < n; i++) {
+            scale[i] = matrix[i][i] > 0.0 ? Math.sqrt(Math.max(variances[i], 0.0) / matrix[i][i]) : 0.0;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] *= scale[i] * scale[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.portfoliotracker.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Long-only mean-variance optimiser with per-asset weight bounds and a fully-invested constraint.
+ * <p>
+ * Solves {@code min ½ w'Σw - τ μ'w} subject to {@code Σw = 1, lower ≤ w ≤ upper} with accelerated projected
+ * gradient descent (FISTA). The projection onto the bounded simplex is a one-dimensional bisection on the
+ * budget multiplier, so every iteration is O(n²) on primitive arrays with no allocation. The risk-aversion
+ * trade-off {@code τ} traces the efficient frontier: {@code τ = 0} is the minimum-variance portfolio.
+ * <p>
+ * Inputs are daily moments; reported figures are annualised with 252 trading days. Instances are not
+ * thread-safe (they reuse scratch buffers) but are cheap to create.
+ */
+public final class MeanVarianceOptimizer {
+    
+    public static final int TRADING_DAYS = 252;
+    
+    private static final int MAX_ITERATIONS = 20000;
+    private static final double TOLERANCE = 1e-9;
+    private static final int FRONTIER_POINTS = 25;
+    private static final int SHARPE_SCAN_POINTS = 13;
+    
+    private final int n;
+    private final double[] mu;
+    private final double[][] sigma;
+    private final double[] lower;
+    private final double[] upper;
+    private final double step;
+    private final double tauScale;
+    
+    private final double[] gradient;
+    private final double[] momentum;
+    private final double[] previous;
+    
+    /** A solved portfolio with annualised expected return and volatility. */
+    public record Solution(double[] weights, double expectedReturn, double volatility, double sharpe) {}
+    
+    public MeanVarianceOptimizer(double[] mu, double[][] sigma, double[] lower, double[] upper) {
+        this.n = mu.length;
+        this.mu = mu;
+        this.sigma = sigma;
+        this.lower = lower;
+        this.upper = upper;
+        
+        double lowerSum = 0.0;
+        double upperSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            // Written so that NaN fails too
+            if (!(lower[i] >= 0.0 && lower[i] <= upper[i] && upper[i] <= 1.0)) {
+                throw new IllegalArgumentException("Weight bounds must satisfy 0 <= lower <= upper <= 1");
+            }
+            lowerSum += lower[i];
+            upperSum += upper[i];
+        }
+        if (n == 0 || lowerSum > 1.0 + 1e-12 || upperSum < 1.0 - 1e-12) {
+            throw new IllegalArgumentException("Weight constraints are infeasible for a fully invested portfolio");
+        }
+        
+        double lipschitz = largestEigenvalue(sigma);
+        this.step = lipschitz > 0.0 ? 1.0 / lipschitz : 1.0;
+        double maxMu = 0.0;
+        for (double m : mu) {
+            maxMu = Math.max(maxMu, Math.abs(m));
+        }
+        this.tauScale = maxMu > 0.0 ? Math.max(lipschitz, 1e-12) / maxMu : 0.0;
+        
+        this.gradient = new double[n];
+        this.momentum = new double[n];
+        this.previous = new double[n];
+    }
+    
+    public Solution minimumVariance() {
+        return solve(0.0);
+    }
+    
+    /**
+     * Frontier portfolio for the given risk-aversion trade-off.
+     */
+    public Solution solve(double tau) {
+        return solve(tau, null);
+    }
+    
+    /**
+     * Frontier portfolio for the given trade-off, warm-started from {@code start} (e.g. a neighbouring
+     * frontier point) when given.
+     */
+    public Solution solve(double tau, double[] start) {
+        double[] w = new double[n];
+        if (start != null) {
+            System.arraycopy(start, 0, w, 0, n);
+        } else {
+            Arrays.fill(w, 1.0 / n);
+        }
+        project(w);
+        System.arraycopy(w, 0, momentum, 0, n);
+        double t = 1.0;
+        
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            // gradient = Σ y - τ μ at the momentum point y
+            for (int i = 0; i < n; i++) {
+                double[] row = sigma[i];
+                double sum = 0.0;
+                for (int j = 0; j < n; j++) {
+                    sum += row[j] * momentum[j];
+                }
+                gradient[i] = sum - tau * mu[i];
+            }
+            System.arraycopy(w, 0, previous, 0, n);
+            for (int i = 0; i < n; i++) {
+                w[i] = momentum[i] - step * gradient[i];
+            }
+            project(w);
+            
+            // Adaptive restart: drop the momentum once it points uphill, which keeps FISTA linear on this
+            // strongly convex problem instead of oscillating
+            double uphill = 0.0;
+            double change = 0.0;
+            for (int i = 0; i < n; i++) {
+                double delta = w[i] - previous[i];
+                uphill += (momentum[i] - w[i]) * delta;
+                change = Math.max(change, Math.abs(delta));
+            }
+            if (change < TOLERANCE) {
+                break;
+            }
+            if (uphill > 0.0) {
+                t = 1.0;
+            }
+            double tNext = (1.0 + Math.sqrt(1.0 + 4.0 * t * t)) / 2.0;
+            double beta = (t - 1.0) / tNext;
+            for (int i = 0; i < n; i++) {
+                momentum[i] = w[i] + beta * (w[i] - previous[i]);
+            }
+            t = tNext;
+        }
+        return describe(w, 0.0);
+    }
+    
+    /**
+     * Samples the efficient frontier from the minimum-variance portfolio towards the maximum-return corner.
+     */
+    public List<Solution> frontier() {
+        List<Solution> points = new ArrayList<>();
+        points.add(minimumVariance());
+        if (tauScale == 0.0) {
+            return points;
+        }
+        for (int k = 0; k < FRONTIER_POINTS - 1; k++) {
+            double tau = tauScale * Math.pow(10.0, -3.0 + 5.0 * k / (FRONTIER_POINTS - 2));
+            Solution last = points.get(points.size() - 1);
+            Solution solution = solve(tau, last.weights());
+            if (Math.abs(solution.volatility() - last.volatility()) > 1e-6
+                    || Math.abs(solution.expectedReturn() - last.expectedReturn()) > 1e-6) {
+                points.add(solution);
+            }
+        }
+        return points;
+    }
+    
+    /**
+     * Tangency portfolio: the frontier point with the highest Sharpe ratio against an annual risk-free rate.
+     */
+    public Solution maximumSharpe(double riskFreeRate) {
+        if (tauScale == 0.0) {
+            return describe(minimumVariance().weights(), riskFreeRate);
+        }
+        // Coarse scan over log τ, then golden-section refinement between the best point's neighbours
+        double best = Double.NEGATIVE_INFINITY;
+        int bestIndex = 0;
+        int steps = SHARPE_SCAN_POINTS;
+        double[] logTaus = new double[steps];
+        double[][] weights = new double[steps][];
+        for (int k = 0; k < steps; k++) {
+            logTaus[k] = Math.log10(tauScale) - 3.0 + 5.0 * k / (steps - 1);
+            weights[k] = solve(Math.pow(10.0, logTaus[k]), k > 0 ? weights[k - 1] : null).weights();
+            double sharpe = describe(weights[k], riskFreeRate).sharpe();
+            if (sharpe > best) {
+                best = sharpe;
+                bestIndex = k;
+            }
+        }
+        double[] seed = weights[bestIndex];
+        double a = logTaus[Math.max(0, bestIndex - 1)];
+        double b = logTaus[Math.min(steps - 1, bestIndex + 1)];
+        final double ratio = (Math.sqrt(5.0) - 1.0) / 2.0;
+        double c = b - ratio * (b - a);
+        double d = a + ratio * (b - a);
+        double sharpeC = describe(solve(Math.pow(10.0, c), seed).weights(), riskFreeRate).sharpe();
+        double sharpeD = describe(solve(Math.pow(10.0, d), seed).weights(), riskFreeRate).sharpe();
+        while (b - a > 0.01) {
+            if (sharpeC >= sharpeD) {
+                b = d;
+                d = c;
+                sharpeD = sharpeC;
+                c = b - ratio * (b - a);
+                sharpeC = describe(solve(Math.pow(10.0, c), seed).weights(), riskFreeRate).sharpe();
+            } else {
+                a = c;
+                c = d;
+                sharpeC = sharpeD;
+                d = a + ratio * (b - a);
+                sharpeD = describe(solve(Math.pow(10.0, d), seed).weights(), riskFreeRate).sharpe();
+            }
+        }
+        Solution refined = describe(solve(Math.pow(10.0, (a + b) / 2.0), seed).weights(), riskFreeRate);
+        Solution minVariance = describe(minimumVariance().weights(), riskFreeRate);
+        return refined.sharpe() >= minVariance.sharpe() ? refined : minVariance;
+    }
+    
+    /**
+     * Highest-return frontier portfolio whose annualised volatility does not exceed {@code targetVolatility}.
+     */
+    public Solution targetRisk(double targetVolatility) {
+        Solution minVariance = minimumVariance();
+        if (tauScale == 0.0 || targetVolatility <= minVariance.volatility()) {
+            return minVariance;
+        }
+        double lo = 0.0;
+        double hi = tauScale;
+        Solution candidate = solve(hi);
+        for (int expansion = 0; expansion < 12 && candidate.volatility() < targetVolatility; expansion++) {
+            lo = hi;
+            hi *= 10.0;
+            candidate = solve(hi);
+        }
+        if (candidate.volatility() <= targetVolatility) {
+            return candidate;
+        }
+        Solution best = minVariance;
+        for (int iteration = 0; iteration < 40; iteration++) {
+            double mid = (lo + hi) / 2.0;
+            Solution solution = solve(mid, best.weights());
+            if (solution.volatility() <= targetVolatility) {
+                best = solution;
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+            if (Math.abs(solution.volatility() - targetVolatility) < 1e-6) {
+                break;
+            }
+        }
+        return best;
+    }
+    
+    public Solution describe(double[] weights, double riskFreeRate) {
+        double dailyReturn = 0.0;
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            dailyReturn += weights[i] * mu[i];
+            double[] row = sigma[i];
+            double sum = 0.0;
+            for (int j = 0; j < n; j++) {
+                sum += row[j] * weights[j];
+            }
+            variance += weights[i] * sum;
+        }
+        double annualReturn = dailyReturn * TRADING_DAYS;
+        double annualVolatility = Math.sqrt(Math.max(variance, 0.0) * TRADING_DAYS);
+        double sharpe = annualVolatility > 0.0 ? (annualReturn - riskFreeRate) / annualVolatility : 0.0;
+        return new Solution(weights, annualReturn, annualVolatility, sharpe);
+    }
+    
+    /**
+     * Euclidean projection onto {Σw = 1, lower ≤ w ≤ upper}: w_i = clip(v_i - ν) with ν found by bisection.
+     */
+    private void project(double[] v) {
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            lo = Math.min(lo, v[i] - upper[i]);
+            hi = Math.max(hi, v[i] - lower[i]);
+        }
+        double nu = 0.0;
+        for (int iteration = 0; iteration < 100; iteration++) {
+            nu = (lo + hi) / 2.0;
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                sum += Math.min(upper[i], Math.max(lower[i], v[i] - nu));
+            }
+            if (Math.abs(sum - 1.0) < 1e-14) {
+                break;
+            }
+            if (sum > 1.0) {
+                lo = nu;
+            } else {
+                hi = nu;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            v[i] = Math.min(upper[i], Math.max(lower[i], v[i] - nu));
+        }
+    }
+    
+    private static double largestEigenvalue(double[][] matrix) {
+        int size = matrix.length;
+        if (size == 0) {
+            return 0.0;
+        }
+        double[] x = new double[size];
+        double[] y = new double[size];
+        Arrays.fill(x, 1.0 / Math.sqrt(size));
+        double eigenvalue = 0.0;
+        for (int iteration = 0; iteration < 100; iteration++) {
+            double norm = 0.0;
+            for (int i = 0; i < size; i++) {
+                double sum = 0.0;
+                for (int j = 0; j < size; j++) {
+                    sum += matrix[i][j] * x[j];
+                }
+                y[i] = sum;
+                norm += sum * sum;
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0.0) {
+                return 0.0;
+            }
+            for (int i = 0; i < size; i++) {
+                x[i] = y[i] / norm;
+            }
+            if (Math.abs(norm - eigenvalue) < 1e-12 * norm) {
+                eigenvalue = norm;
+                break;
+            }
+            eigenvalue = norm;
+        }
+        // Power iteration under-estimates slightly before convergence; pad so the step stays stable
+        return eigenvalue * 1.01;
+    }
+}
@@ -0,0 +1,84 @@
+package com.portfoliotracker.analytics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Active price alerts, kept per ticker in two skip lists sorted by threshold: one for alerts that fire
+ * at or above their threshold and one for those that fire at or below it. The alerts a quote fires are
+ * then a prefix of one list and a suffix of the other, found in O(log n + k) for k fired alerts instead
+ * of checking every alert on the ticker.
+ * <p>
+ * Safe for concurrent use; {@link #crossed} does not remove anything, so an alert stays indexed until
+ * whoever fires it has recorded that and calls {@link #remove}.
+ */
+public final class PriceAlertIndex {
+    
+    /** Ordered by threshold, then id, so equal thresholds coexist and range bounds can be exact. */
+    private record Threshold(BigDecimal price, long alertId) implements Comparable<Threshold> {
+        @Override
+        public int compareTo(Threshold other) {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : Long.compare(alertId, other.alertId);
+        }
+    }
+    
+    private record Entry(String ticker, boolean above, Threshold threshold) {}
+    
+    private static final class TickerAlerts {
+        private final NavigableSet<Threshold> above = new ConcurrentSkipListSet<>();
+        private final NavigableSet<Threshold> below = new ConcurrentSkipListSet<>();
+    }
+    
+    private final Map<String, TickerAlerts> tickers = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    
+    /** Adds an alert, or moves it if it is already indexed. */
+    public void add(long alertId, String ticker, boolean above, BigDecimal threshold) {
+        remove(alertId);
+        Entry entry = new Entry(ticker, above, new Threshold(threshold, alertId));
+        TickerAlerts alerts = tickers.computeIfAbsent(ticker, t -> new TickerAlerts());
+        (above ? alerts.above : alerts.below).add(entry.threshold());
+        entries.put(alertId, entry);
+    }
+    
+    public void remove(long alertId) {
+        Entry entry = entries.remove(alertId);
+        if (entry != null) {
+            TickerAlerts alerts = tickers.get(entry.ticker());
+            if (alerts != null) {
+                (entry.above() ? alerts.above : alerts.below).remove(entry.threshold());
+            }
+        }
+    }
+    
+    /** Ids of the alerts on {@code ticker} that a quote at {@code price} fires. */
+    public List<Long> crossed(String ticker, BigDecimal price) {
+        TickerAlerts alerts = tickers.get(ticker);
+        if (alerts == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Threshold threshold : alerts.above.headSet(new Threshold(price, Long.MAX_VALUE), true)) {
+            ids.add(threshold.alertId());
+        }
+        for (Threshold threshold : alerts.below.tailSet(new Threshold(price, Long.MIN_VALUE), true)) {
+            ids.add(threshold.alertId());
+        }
+        return ids;
+    }
+    
+    public void clear() {
+        entries.clear();
+        tickers.clear();
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,159 @@
+package com.portfoliotracker.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily simple returns for a fixed set of tickers, aligned on the trading dates every ticker has a close for
+ * (or, when built with {@link #fromUnalignedCloses}, on every date any ticker has a close for, with NaN marking
+ * the days a ticker did not trade). Stored ticker-major ({@code returns[ticker][day]}) so per-ticker passes walk contiguous memory.
+ * Instances are immutable once built and safe to share between requests.
+ */
+public final class ReturnMatrix {
+    
+    private final String[] tickers;
+    private final LocalDate[] dates;
+    private final double[][] returns;
+    private final double[] lastCloses;
+    private volatile double[] dayMajor;
+    
+    public ReturnMatrix(String[] tickers, LocalDate[] dates, double[][] returns, double[] lastCloses) {
+        this.tickers = tickers;
+        this.dates = dates;
+        this.returns = returns;
+        this.lastCloses = lastCloses;
+    }
+    
+    /**
+     * Builds a matrix from aligned closing prices ({@code closes[ticker][day]}, one more day than the result).
+     */
+    public static ReturnMatrix fromCloses(String[] tickers, LocalDate[] closeDates, double[][] closes) {
+        int days = Math.max(0, closeDates.length - 1);
+        double[][] returns = new double[tickers.length][days];
+        double[] lastCloses = new double[tickers.length];
+        for (int i = 0; i < tickers.length; i++) {
+            double[] c = closes[i];
+            double[] r = returns[i];
+            for (int t = 0; t < days; t++) {
+                r[t] = c[t + 1] / c[t] - 1.0;
+            }
+            lastCloses[i] = closeDates.length > 0 ? c[closeDates.length - 1] : Double.NaN;
+        }
+        LocalDate[] dates = days > 0 ? Arrays.copyOfRange(closeDates, 1, closeDates.length) : new LocalDate[0];
+        return new ReturnMatrix(tickers, dates, returns, lastCloses);
+    }
+    
+    /**
+     * Builds a matrix over the union of dates from closes that may be NaN where a ticker has no bar. A return is
+     * taken against the ticker's previous available close, so a gap folds into the next traded day; days without
+     * a close (and a ticker's first close) give NaN.
+     */
+    public static ReturnMatrix fromUnalignedCloses(String[] tickers, LocalDate[] closeDates, double[][] closes) {
+        int days = Math.max(0, closeDates.length - 1);
+        double[][] returns = new double[tickers.length][days];
+        double[] lastCloses = new double[tickers.length];
+        for (int i = 0; i < tickers.length; i++) {
+            double[] c = closes[i];
+            double[] r = returns[i];
+            double previous = closeDates.length > 0 ? c[0] : Double.NaN;
+            for (int t = 0; t < days; t++) {
+                double close = c[t + 1];
+                r[t] = Double.isNaN(close) || Double.isNaN(previous) ? Double.NaN : close / previous - 1.0;
+                if (!Double.isNaN(close)) {
+                    previous = close;
+                }
+            }
+            lastCloses[i] = previous;
+        }
+        LocalDate[] dates = days > 0 ? Arrays.copyOfRange(closeDates, 1, closeDates.length) : new LocalDate[0];
+        return new ReturnMatrix(tickers, dates, returns, lastCloses);
+    }
+    
+    public int tickerCount() {
+        return tickers.length;
+    }
+    
+    public int dayCount() {
+        return dates.length;
+    }
+    
+    public int indexOf(String ticker) {
+        for (int i = 0; i < tickers.length; i++) {
+            if (tickers[i].equals(ticker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public String ticker(int index) {
+        return tickers[index];
+    }
+    
+    public List<String> tickers() {
+        return List.of(tickers);
+    }
+    
+    public LocalDate date(int day) {
+        return dates[day];
+    }
+    
+    public LocalDate lastDate() {
+        return dates.length == 0 ? null : dates[dates.length - 1];
+    }
+    
+    /** Returns the backing row for a ticker; callers must not modify it. */
+    public double[] row(int index) {
+        return returns[index];
+    }
+    
+    /**
+     * The same returns laid out day-major in one flat array ({@code [day * tickerCount + ticker]}), for
+     * engines that advance every ticker one day at a time. Built on first use and shared afterwards.
+     */
+    public double[] dayMajor() {
+        double[] result = dayMajor;
+        if (result == null) {
+            int n = tickers.length;
+            result = new double[dates.length * n];
+            for (int i = 0; i < n; i++) {
+                double[] r = returns[i];
+                for (int t = 0; t < r.length; t++) {
+                    result[t * n + i] = r[t];
+                }
+            }
+            dayMajor = result;
+        }
+        return result;
+    }
+    
+    /** Index of the first day on or after {@code date}, or {@link #dayCount()} if there is none. */
+    public int firstDayOnOrAfter(LocalDate date) {
+        int index = Arrays.binarySearch(dates, date);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    public double lastClose(int index) {
+        return lastCloses[index];
+    }
+    
+    /**
+     * Weighted sum of ticker returns for every day, i.e. the daily return series of a portfolio
+     * holding {@code weights} (aligned with the matrix tickers) rebalanced daily.
+     */
+    public double[] portfolioReturns(double[] weights) {
+        double[] result = new double[dates.length];
+        for (int i = 0; i < tickers.length; i++) {
+            double w = weights[i];
+            if (w == 0.0) {
+                continue;
+            }
+            double[] r = returns[i];
+            for (int t = 0; t < result.length; t++) {
+                result[t] += w * r[t];
+            }
+        }
+        return result;
+    }
+}
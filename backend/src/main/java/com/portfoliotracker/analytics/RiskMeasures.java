@@ -0,0 +1,130 @@
+package com.portfoliotracker.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Value-at-Risk and Expected Shortfall on return series. All figures are loss fractions of portfolio value
+ * for a one-day horizon; {@link Estimate#scaledTo} projects them to longer horizons, scaling the dispersion
+ * with the square root of time and the drift linearly.
+ */
+public final class RiskMeasures {
+    
+    private RiskMeasures() {}
+    
+    /**
+     * Result of a single VaR/ES evaluation at one confidence level. Daily figures are kept unfloored (a negative
+     * value means the quantile is still a gain) so that scaling stays exact; {@link #scaledTo} floors at zero.
+     */
+    public record Estimate(double confidence, double valueAtRisk, double expectedShortfall, double meanReturn) {
+        
+        /**
+         * Projects the daily estimate to {@code horizonDays} assuming i.i.d. returns: the loss quantile is
+         * {@code q - mean}, where the mean-free part {@code q} grows with sqrt(h) and the mean with h.
+         */
+        public Estimate scaledTo(int horizonDays) {
+            double scale = Math.sqrt(horizonDays);
+            double drift = meanReturn * horizonDays;
+            double var = (valueAtRisk + meanReturn) * scale - drift;
+            double es = (expectedShortfall + meanReturn) * scale - drift;
+            return new Estimate(confidence, Math.max(var, 0.0), Math.max(es, 0.0), drift);
+        }
+    }
+    
+    /**
+     * Historical simulation. {@code sortedReturns} must be sorted ascending (worst day first) so several
+     * confidence levels can share one sort. {@code mean} is the sample mean of the same returns.
+     */
+    public static Estimate historical(double[] sortedReturns, double mean, double confidence) {
+        int n = sortedReturns.length;
+        if (n == 0) {
+            return new Estimate(confidence, 0.0, 0.0, 0.0);
+        }
+        int tail = Math.max(1, (int) Math.floor((1.0 - confidence) * n));
+        double var = -sortedReturns[tail - 1];
+        double sum = 0.0;
+        for (int t = 0; t < tail; t++) {
+            sum += sortedReturns[t];
+        }
+        double es = -sum / tail;
+        return new Estimate(confidence, var, es, mean);
+    }
+    
+    public static double[] sortedCopy(double[] returns) {
+        double[] sorted = returns.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    /**
+     * Variance-covariance method assuming normally distributed returns with the given daily mean and
+     * standard deviation.
+     */
+    public static Estimate parametric(double mean, double stdDev, double confidence) {
+        double z = inverseNormalCdf(confidence);
+        double var = z * stdDev - mean;
+        double es = stdDev * normalPdf(z) / (1.0 - confidence) - mean;
+        return new Estimate(confidence, var, es, mean);
+    }
+    
+    public static double mean(double[] values) {
+        if (values.length == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (double v : values) {
+            sum += v;
+        }
+        return sum / values.length;
+    }
+    
+    /** Sample standard deviation (n - 1 denominator). */
+    public static double stdDev(double[] values, double mean) {
+        if (values.length < 2) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (double v : values) {
+            double d = v - mean;
+            sum += d * d;
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+    
+    public static double normalPdf(double x) {
+        return Math.exp(-0.5 * x * x) / Math.sqrt(2.0 * Math.PI);
+    }
+    
+    /**
+     * Acklam's rational approximation of the standard normal quantile function (relative error below 1.2e-9).
+     */
+    public static double inverseNormalCdf(double p) {
+        if (p <= 0.0 || p >= 1.0) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double low = 0.02425;
+        final double high = 1.0 - low;
+        
+        if (p < low) {
+            double q = Math.sqrt(-2.0 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1.0);
+        }
+        if (p > high) {
+            double q = Math.sqrt(-2.0 * Math.log(1.0 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1.0);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1.0);
+    }
+}
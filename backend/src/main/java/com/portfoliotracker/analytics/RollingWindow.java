@@ -0,0 +1,149 @@
+package com.portfoliotracker.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass sliding-window statistics over a daily return series: trailing return, annualised
+ * volatility, maximum drawdown and beta against a benchmark. Every statistic is updated in amortised O(1) per
+ * day as the window advances (Welford-style running moments with removal, and a two-stack queue aggregating
+ * peak, trough and worst drop of the log level for drawdowns), so a full series costs O(days) regardless of
+ * the window length.
+ * <p>
+ * Values before the first full window are {@code NaN}.
+ */
+public final class RollingWindow {
+    
+    private RollingWindow() {}
+    
+    public record Series(int window, double[] trailingReturn, double[] volatility, double[] maxDrawdown, double[] beta) {
+        
+        public int lastIndex() {
+            return volatility.length - 1;
+        }
+    }
+    
+    /**
+     * @param returns   daily simple returns
+     * @param benchmark benchmark returns aligned with {@code returns}, or {@code null} to skip beta
+     */
+    public static Series compute(double[] returns, double[] benchmark, int window) {
+        int days = returns.length;
+        double[] trailingReturn = nanArray(days);
+        double[] volatility = nanArray(days);
+        double[] maxDrawdown = nanArray(days);
+        double[] beta = nanArray(days);
+        if (window < 2 || days < window) {
+            return new Series(window, trailingReturn, volatility, maxDrawdown, beta);
+        }
+        
+        // Log-price index so trailing returns and drawdowns are differences, immune to drift in the product
+        double[] logLevel = new double[days + 1];
+        for (int t = 0; t < days; t++) {
+            logLevel[t + 1] = logLevel[t] + Math.log1p(returns[t]);
+        }
+        
+        double mean = 0.0;
+        double m2 = 0.0;
+        double benchmarkMean = 0.0;
+        double benchmarkM2 = 0.0;
+        double coMoment = 0.0;
+        int count = 0;
+        
+        // Drawdown over the window's levels as a two-stack queue. Each stack aggregates (peak, trough, worst
+        // peak-before-trough drop); two adjacent runs A then B combine to max(A.drop, B.drop, A.peak - B.trough).
+        // The front holds levels [head, frontEnd] with suffix aggregates, the back holds [backStart, level].
+        double[] frontPeak = new double[days + 1];
+        double[] frontTrough = new double[days + 1];
+        double[] frontDrop = new double[days + 1];
+        int head = 0;
+        int frontEnd = -1;
+        int backStart = 0;
+        double backPeak = logLevel[0];
+        double backTrough = logLevel[0];
+        double backDrop = 0.0;
+        
+        for (int t = 0; t < days; t++) {
+            // Add day t
+            double x = returns[t];
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+            if (benchmark != null) {
+                double y = benchmark[t];
+                double deltaY = y - benchmarkMean;
+                benchmarkMean += deltaY / count;
+                benchmarkM2 += deltaY * (y - benchmarkMean);
+                coMoment += delta * (y - benchmarkMean);
+            }
+            
+            // Remove day t - window once the window is full
+            if (count > window) {
+                int old = t - window;
+                double ox = returns[old];
+                double previousMean = mean;
+                mean = (count * mean - ox) / (count - 1);
+                m2 -= (ox - previousMean) * (ox - mean);
+                if (benchmark != null) {
+                    double oy = benchmark[old];
+                    double previousBenchmarkMean = benchmarkMean;
+                    benchmarkMean = (count * benchmarkMean - oy) / (count - 1);
+                    benchmarkM2 -= (oy - previousBenchmarkMean) * (oy - benchmarkMean);
+                    coMoment -= (ox - previousMean) * (oy - benchmarkMean);
+                }
+                count--;
+            }
+            
+            // Push level t + 1, then drop levels that fell out of [t + 1 - window, t + 1]
+            int level = t + 1;
+            double value = logLevel[level];
+            backDrop = Math.max(backDrop, backPeak - value);
+            backPeak = Math.max(backPeak, value);
+            backTrough = Math.min(backTrough, value);
+            while (head < level - window) {
+                if (head > frontEnd) {
+                    // Front is empty: move the back over, building suffix aggregates newest to oldest
+                    frontPeak[level] = value;
+                    frontTrough[level] = value;
+                    frontDrop[level] = 0.0;
+                    for (int k = level - 1; k >= backStart; k--) {
+                        double v = logLevel[k];
+                        frontDrop[k] = Math.max(frontDrop[k + 1], v - frontTrough[k + 1]);
+                        frontPeak[k] = Math.max(v, frontPeak[k + 1]);
+                        frontTrough[k] = Math.min(v, frontTrough[k + 1]);
+                    }
+                    frontEnd = level;
+                    backStart = level + 1;
+                    backPeak = Double.NEGATIVE_INFINITY;
+                    backTrough = Double.POSITIVE_INFINITY;
+                    backDrop = 0.0;
+                }
+                head++;
+            }
+            
+            if (t >= window - 1) {
+                trailingReturn[t] = Math.expm1(logLevel[level] - logLevel[level - window]);
+                volatility[t] = Math.sqrt(Math.max(m2, 0.0) / (count - 1) * MeanVarianceOptimizer.TRADING_DAYS);
+                double drop;
+                if (head > frontEnd) {
+                    drop = backDrop;
+                } else if (backStart > level) {
+                    drop = frontDrop[head];
+                } else {
+                    drop = Math.max(Math.max(frontDrop[head], backDrop), frontPeak[head] - backTrough);
+                }
+                maxDrawdown[t] = -Math.expm1(-drop);
+                if (benchmark != null && benchmarkM2 > 0.0) {
+                    beta[t] = coMoment / benchmarkM2;
+                }
+            }
+        }
+        return new Series(window, trailingReturn, volatility, maxDrawdown, beta);
+    }
+    
+    private static double[] nanArray(int length) {
+        double[] values = new double[length];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+}
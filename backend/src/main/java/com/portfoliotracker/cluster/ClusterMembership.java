@@ -0,0 +1,143 @@
+package com.portfoliotracker.cluster;
+
+import com.portfoliotracker.entity.ClusterNode;
+import com.portfoliotracker.repository.ClusterNodeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Which backend instances are alive, and which of them owns a given key. Every instance heartbeats its
+ * row in {@code cluster_nodes} and, on the same schedule, deletes rows that have missed
+ * {@code node-timeout-ms} of heartbeats and rebuilds a {@link HashRing} from the rest. Keys of an instance
+ * that dies therefore move to the survivors within one timeout, and keys move back onto a new instance
+ * as soon as the others see its first heartbeat.
+ * <p>
+ * An instance that cannot heartbeat for a whole timeout owns nothing, since the others will have written
+ * it off by then. Ownership is only a hint, though: while membership changes two instances can briefly
+ * disagree, so work that must not be done twice needs a lease as well (see
+ * {@code TickerQuoteRepository.claim}). Timestamps come from each instance's clock, which is assumed to
+ * be NTP-synchronised to well within the timeout.
+ */
+@Component
+public class ClusterMembership {
+    
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+    
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final long nodeTimeoutMillis;
+    private final String nodeId;
+    private final String host;
+    
+    private volatile HashRing ring = HashRing.of(List.of());
+    private volatile long lastHeartbeatMillis;
+    private volatile boolean joined;
+    private final AtomicBoolean heartbeating = new AtomicBoolean();
+    
+    public ClusterMembership(ClusterNodeRepository clusterNodeRepository,
+                             @Value("${cluster.node-timeout-ms:15000}") long nodeTimeoutMillis,
+                             MeterRegistry meterRegistry) {
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+        byte[] id = new byte[8];
+        ThreadLocalRandom.current().nextBytes(id);
+        this.nodeId = HexFormat.of().formatHex(id);
+        this.host = hostName();
+        Gauge.builder("cluster.nodes", this, membership -> membership.ring.nodes().size())
+                .description("Live instances in this instance's view of the cluster")
+                .register(meterRegistry);
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void join() {
+        joined = true;
+        heartbeat();
+    }
+    
+    // Single-flight: the first heartbeat from join() can overlap a scheduled one, and both would insert the
+    // row. The overlapping call is skipped rather than blocked (no monitor held across JDBC, which would pin
+    // a virtual thread's carrier).
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!joined || !heartbeating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            beat();
+        } finally {
+            heartbeating.set(false);
+        }
+    }
+    
+    private void beat() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime cutoff = now.minus(nodeTimeoutMillis, ChronoUnit.MILLIS);
+        try {
+            if (clusterNodeRepository.heartbeat(nodeId, now) == 0) {
+                clusterNodeRepository.save(new ClusterNode(nodeId, host, now));
+                log.info("cluster node joined node={} host={}", nodeId, host);
+            }
+            int reaped = clusterNodeRepository.deleteExpired(cutoff);
+            HashRing current = HashRing.of(clusterNodeRepository.findLiveNodeIds(cutoff));
+            lastHeartbeatMillis = System.currentTimeMillis();
+            if (!current.nodes().equals(ring.nodes())) {
+                log.info("cluster membership changed node={} nodes={} reaped={}", nodeId, current.nodes(), reaped);
+                ring = current;
+            }
+        } catch (DataAccessException e) {
+            log.warn("cluster heartbeat failed node={} error={}", nodeId, e.toString());
+        }
+    }
+    
+    /** Whether this instance is the one to work on {@code key}. */
+    public boolean owns(String key) {
+        if (System.currentTimeMillis() - lastHeartbeatMillis > nodeTimeoutMillis) {
+            return false;
+        }
+        return nodeId.equals(ring.owner(key));
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    /** Hands this instance's keys to the others right away instead of after the timeout. */
+    @PreDestroy
+    public void leave() {
+        if (!joined) {
+            return;
+        }
+        joined = false;
+        try {
+            clusterNodeRepository.deleteById(nodeId);
+        } catch (DataAccessException e) {
+            log.warn("cluster leave failed node={} error={}", nodeId, e.toString());
+        }
+    }
+}
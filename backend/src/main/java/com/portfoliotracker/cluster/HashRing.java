@@ -0,0 +1,85 @@
+package com.portfoliotracker.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring. Each node is placed at {@link #VIRTUAL_NODES} points and a key belongs
+ * to the first point at or after its own hash, so the share of each node is even and a node joining or
+ * leaving only moves the keys on its own points. Every instance that sees the same members builds the
+ * same ring and agrees on every owner without talking to the others.
+ */
+final class HashRing {
+    
+    static final int VIRTUAL_NODES = 128;
+    
+    private final List<String> nodes;
+    /** Sorted hashes of every virtual node */
+    private final long[] points;
+    /** owners[i] is the node at points[i] */
+    private final String[] owners;
+    
+    private HashRing(List<String> nodes, long[] points, String[] owners) {
+        this.nodes = nodes;
+        this.points = points;
+        this.owners = owners;
+    }
+    
+    static HashRing of(Collection<String> nodeIds) {
+        List<String> nodes = nodeIds.stream().distinct().sorted().toList();
+        long[][] placed = new long[nodes.size() * VIRTUAL_NODES][];
+        int p = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                placed[p++] = new long[]{hash(nodes.get(n) + "#" + v), n};
+            }
+        }
+        // Ties between nodes are broken by node order, so every instance resolves them alike
+        Arrays.sort(placed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long[] points = new long[placed.length];
+        String[] owners = new String[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners[i] = nodes.get((int) placed[i][1]);
+        }
+        return new HashRing(nodes, points, owners);
+    }
+    
+    List<String> nodes() {
+        return nodes;
+    }
+    
+    /** The node owning a key, or {@code null} on an empty ring. */
+    String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        } else {
+            // binarySearch may land on any of several equal points; ownership goes to the first
+            while (i > 0 && points[i - 1] == points[i]) {
+                i--;
+            }
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+    
+    /** 64-bit FNV-1a, finished with the MurmurHash3 mixer so nearby keys spread over the whole ring. */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,30 @@
+package com.portfoliotracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AnalyticsConfig {
+    
+    /**
+     * CPU-bound pool for backtests and other batch analytics, sized to the core count by default so
+     * parallel runs never oversubscribe the request threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService analyticsExecutor(@Value("${analytics.executor.threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "analytics-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(size, factory);
+    }
+}
@@ -0,0 +1,36 @@
+package com.portfoliotracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AuthConfig {
+    
+    /**
+     * Bounded pool for BCrypt hashing and verification. Password checks cost tens of milliseconds of
+     * CPU each, so they run here rather than on request threads; once the queue is full further
+     * submissions are rejected immediately and the caller answers 429.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashExecutor(
+            @Value("${auth.password-hash.threads:0}") int threads,
+            @Value("${auth.password-hash.queue-capacity:64}") int queueCapacity) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
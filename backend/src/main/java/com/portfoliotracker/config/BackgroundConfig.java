@@ -0,0 +1,29 @@
+package com.portfoliotracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class BackgroundConfig {
+    
+    /**
+     * Small pool for the blocking follow-up work of invalidation callbacks (database lookups, event replays,
+     * server-sent event writes), so the single cache invalidation thread only ever drops entries.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService backgroundExecutor(@Value("${background.executor.threads:4}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "background-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, threads), factory);
+    }
+}
@@ -0,0 +1,94 @@
+package com.portfoliotracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pools: the primary, bound from {@code spring.datasource.*} exactly as Boot would build it,
+ * plus one Hikari pool per configured read replica. The application sees a single data source that
+ * routes each transaction (see {@link ReplicaRoutingDataSource}). Every pool is named, so the
+ * {@code hikaricp.connections.*} meters carry a {@code pool} tag of "primary" or "replica-N".
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+    
+    /** Migrations always run against the primary. */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (ReplicaProperties.Pool pool : properties.getPools()) {
+            if (StringUtils.hasText(pool.getUrl())) {
+                String name = "replica-" + (replicas.size() + 1);
+                replicas.put(name, replicaPool(name, pool, properties, primaryDataSource, meterRegistry));
+            }
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties, meterRegistry);
+    }
+    
+    /**
+     * Sized like the primary unless the replica overrides it, but with a short connection timeout: a read
+     * that cannot get a replica connection quickly is better served by the primary. Like Boot's own pool
+     * it connects on first use, so a replica that is down does not stop the application from starting.
+     */
+    private static HikariDataSource replicaPool(String name, ReplicaProperties.Pool pool, ReplicaProperties properties,
+                                                HikariDataSource primary, MeterRegistry meterRegistry) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(name);
+        replica.setJdbcUrl(pool.getUrl());
+        replica.setUsername(StringUtils.hasText(pool.getUsername()) ? pool.getUsername() : primary.getUsername());
+        replica.setPassword(StringUtils.hasText(pool.getPassword()) ? pool.getPassword() : primary.getPassword());
+        replica.setDriverClassName(primary.getDriverClassName());
+        replica.setMaximumPoolSize(pool.getMaximumPoolSize() != null
+                ? pool.getMaximumPoolSize() : primary.getMaximumPoolSize());
+        replica.setMinimumIdle(primary.getMinimumIdle() < 0
+                ? replica.getMaximumPoolSize() : Math.min(primary.getMinimumIdle(), replica.getMaximumPoolSize()));
+        replica.setIdleTimeout(primary.getIdleTimeout());
+        replica.setMaxLifetime(primary.getMaxLifetime());
+        replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return replica;
+    }
+    
+    /**
+     * What JPA and everything else gets. The lazy proxy holds off fetching a physical connection until the
+     * first statement, by which point the transaction's read-only flag is set and the router can see it.
+     * The defaults it reports for connections not yet fetched match the pools' (auto-commit on, read
+     * committed), so it never has to open one just to ask.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
@@ -0,0 +1,58 @@
+package com.portfoliotracker.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes the variables of a local {@code .env} file available as properties. Real environment variables
+ * and system properties still win; the file only beats {@code application.properties}.
+ * <p>
+ * Runs before the context is created, so it works regardless of bean initialization order or lazy
+ * initialization, and it stops at the first directory that actually contains a {@code .env} file.
+ */
+public class DotEnvEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    
+    static final String PROPERTY_SOURCE_NAME = "dotenv";
+    
+    private static final String[] SEARCH_DIRECTORIES = {"./", "../", "../../", "./backend/", "../backend/"};
+    
+    private final Log log;
+    
+    public DotEnvEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(DotEnvEnvironmentPostProcessor.class);
+    }
+    
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        for (String directory : SEARCH_DIRECTORIES) {
+            if (!Files.isRegularFile(Path.of(directory, ".env"))) {
+                continue;
+            }
+            Dotenv dotenv = Dotenv.configure()
+                    .directory(directory)
+                    .ignoreIfMalformed()
+                    .load();
+            Map<String, Object> variables = new HashMap<>();
+            for (DotenvEntry entry : dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)) {
+                variables.put(entry.getKey(), entry.getValue());
+            }
+            environment.getPropertySources().addAfter(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                    new MapPropertySource(PROPERTY_SOURCE_NAME, variables));
+            log.info("Loaded " + variables.size() + " variables from " + Path.of(directory, ".env").normalize());
+            return;
+        }
+        log.debug("No .env file found");
+    }
+}
@@ -0,0 +1,35 @@
+package com.portfoliotracker.config;
+
+import com.portfoliotracker.security.JwtVerifier;
+import com.portfoliotracker.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+    
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, JwtVerifier jwtVerifier,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, jwtVerifier, meterRegistry);
+    }
+    
+    /**
+     * Registers the limiter just ahead of the Spring Security chain, so rejected requests never pay
+     * for authentication or reach a controller.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter,
+                                                                               RateLimitProperties properties) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(properties.isEnabled());
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
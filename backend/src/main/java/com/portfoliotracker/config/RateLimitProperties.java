@@ -0,0 +1,87 @@
+package com.portfoliotracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request rate limits, bound from {@code ratelimit.*}. Each group covers one or more path prefixes; a
+ * request is charged to the first group whose prefix matches, per principal (or per IP when anonymous).
+ */
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    /** Keys whose bucket has been full for this long are dropped. */
+    private long idleEvictionSeconds = 300;
+    
+    private List<Group> groups = new ArrayList<>();
+    
+    public static class Group {
+        
+        private String name;
+        private List<String> pathPrefixes = new ArrayList<>();
+        private double requestsPerSecond;
+        private int burst = 1;
+        
+        // Getters and Setters
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public List<String> getPathPrefixes() {
+            return pathPrefixes;
+        }
+        
+        public void setPathPrefixes(List<String> pathPrefixes) {
+            this.pathPrefixes = pathPrefixes;
+        }
+        
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+        
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+        
+        public int getBurst() {
+            return burst;
+        }
+        
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getIdleEvictionSeconds() {
+        return idleEvictionSeconds;
+    }
+    
+    public void setIdleEvictionSeconds(long idleEvictionSeconds) {
+        this.idleEvictionSeconds = idleEvictionSeconds;
+    }
+    
+    public List<Group> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+}
@@ -0,0 +1,116 @@
+package com.portfoliotracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, bound from {@code datasource.replica.*}. Read-only transactions are spread over the
+ * healthy pools; with none configured everything runs on the primary ({@code spring.datasource.*}).
+ */
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+    
+    /**
+     * After a user's own write commits, their reads stay on the primary for this long. Keep it above
+     * {@link #maxLagMs} plus {@link #lagCheckIntervalMs} so a replica that is about to be dropped for lag
+     * cannot serve a read that misses the write.
+     */
+    private long readYourWritesMs = 5000;
+    
+    /** A replica whose replay is further behind than this is taken out of rotation until it catches up. */
+    private long maxLagMs = 2000;
+    
+    private long lagCheckIntervalMs = 1000;
+    
+    /** How long a read waits for a replica connection before it falls back to the primary. */
+    private long connectionTimeoutMs = 1000;
+    
+    private List<Pool> pools = new ArrayList<>();
+    
+    public static class Pool {
+        
+        /** JDBC URL of the replica; entries left blank are ignored, so the slot can be filled from the environment. */
+        private String url;
+        private String username;
+        private String password;
+        
+        /** Defaults to the primary's {@code spring.datasource.hikari.maximum-pool-size}. */
+        private Integer maximumPoolSize;
+        
+        // Getters and Setters
+        public String getUrl() {
+            return url;
+        }
+        
+        public void setUrl(String url) {
+            this.url = url;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public void setUsername(String username) {
+            this.username = username;
+        }
+        
+        public String getPassword() {
+            return password;
+        }
+        
+        public void setPassword(String password) {
+            this.password = password;
+        }
+        
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+        
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+    
+    // Getters and Setters
+    public long getReadYourWritesMs() {
+        return readYourWritesMs;
+    }
+    
+    public void setReadYourWritesMs(long readYourWritesMs) {
+        this.readYourWritesMs = readYourWritesMs;
+    }
+    
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+    
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+    
+    public long getLagCheckIntervalMs() {
+        return lagCheckIntervalMs;
+    }
+    
+    public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+        this.lagCheckIntervalMs = lagCheckIntervalMs;
+    }
+    
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+    
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+    
+    public List<Pool> getPools() {
+        return pools;
+    }
+    
+    public void setPools(List<Pool> pools) {
+        this.pools = pools;
+    }
+}
@@ -0,0 +1,371 @@
+package com.portfoliotracker.config;
+
+import com.portfoliotracker.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary. A read stays on
+ * the primary when no replica is in rotation or when the replicas may not have replayed the caller's own
+ * last write yet. Replicas are probed for replay lag and position and taken out of rotation while they
+ * are too far behind or down.
+ * <p>
+ * Read-your-writes works across instances without sticky sessions: after a user's write commits, the
+ * response carries the primary's WAL position in {@value #READ_AFTER_HEADER}, which the client sends back
+ * on later requests, and a read only goes to a replica whose last probe saw it replayed past that
+ * position. Clients that do not echo the header are still covered by the instance that took their write,
+ * for the read-your-writes window. Background work has no request and should read the primary itself
+ * (a read-write transaction) when it acts on a change it was just told about.
+ * <p>
+ * The target is picked when a transaction first touches the database. Only the
+ * {@code LazyConnectionDataSourceProxy} in front of this (see {@link DataSourceConfig}) makes that late
+ * enough for the transaction's read-only flag to be known. Decisions are counted as
+ * {@code datasource.routing}, tagged with the target pool and the reason.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    static final String PRIMARY = "primary";
+    
+    /** Response and request header carrying the WAL position of the caller's last write, e.g. "16/B374D848". */
+    public static final String READ_AFTER_HEADER = "X-Read-After";
+    
+    // Milliseconds of replay lag; 0 on a server that is not a standby or has replayed all it received (a
+    // restarted standby reports its receive position from the start of the segment, hence >=). Otherwise
+    // the age of the last replayed commit, which overstates lag after a quiet spell on the primary.
+    // Second column: the replayed WAL position, null on a server that is not a standby.
+    private static final String LAG_QUERY = "select case when not pg_is_in_recovery() "
+            + "or pg_last_wal_replay_lsn() >= pg_last_wal_receive_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end, "
+            + "case when pg_is_in_recovery() then pg_last_wal_replay_lsn()::text end";
+    
+    private static final String WRITE_POSITION_QUERY = "select pg_current_wal_lsn()::text";
+    
+    private static final class Replica {
+        
+        private final String name;
+        private final HikariDataSource pool;
+        private final Counter routed;
+        private volatile boolean inRotation;
+        private volatile double lagMillis = Double.NaN;
+        // Numeric WAL position replayed as of the last probe; Long.MAX_VALUE when it is not a standby
+        private volatile long replayedLsn = -1;
+        
+        private Replica(String name, HikariDataSource pool, Counter routed) {
+            this.name = name;
+            this.pool = pool;
+            this.routed = routed;
+        }
+    }
+    
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long readYourWritesMillis;
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    
+    /** User id to the time their last write committed; entries older than the window are swept. */
+    private final Map<Long, Long> lastWriteAt = new ConcurrentHashMap<>();
+    
+    private final Counter primaryNonTransactional;
+    private final Counter primaryReadWrite;
+    private final Counter primaryRecentWrite;
+    private final Counter primaryNoReplica;
+    private final Counter primaryReplicaFailed;
+    private final DataSource primary;
+    
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicaPools,
+                                    ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.readYourWritesMillis = properties.getReadYourWritesMs();
+        this.maxLagMillis = properties.getMaxLagMs();
+        this.primaryNonTransactional = routingCounter(meterRegistry, PRIMARY, "non_transactional");
+        this.primaryReadWrite = routingCounter(meterRegistry, PRIMARY, "read_write");
+        this.primaryRecentWrite = routingCounter(meterRegistry, PRIMARY, "recent_write");
+        this.primaryNoReplica = routingCounter(meterRegistry, PRIMARY, "no_replica");
+        this.primaryReplicaFailed = routingCounter(meterRegistry, PRIMARY, "replica_failed");
+        this.primary = primary;
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaPools.forEach((name, pool) -> {
+            Replica replica = new Replica(name, pool, routingCounter(meterRegistry, name, "read_only"));
+            replicas.add(replica);
+            targets.put(name, pool);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis)
+                    .tag("pool", name)
+                    .baseUnit("milliseconds")
+                    .description("Replay lag seen by the last probe; NaN while the replica is unreachable")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.in.rotation", replica, r -> r.inRotation ? 1 : 0)
+                    .tag("pool", name)
+                    .register(meterRegistry);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+    
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * A replica that cannot hand out a connection within its (short) timeout is down or saturated; the
+     * read then goes to the primary and the replica leaves rotation until the next probe succeeds.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            Connection connection = target.getConnection();
+            return target == primary ? trackWritePosition(connection) : connection;
+        } catch (SQLException e) {
+            Replica replica = replicaFor(target);
+            if (replica == null) {
+                throw e;
+            }
+            takeOutOfRotation(replica, e);
+            primaryReplicaFailed.increment();
+            return primary.getConnection();
+        }
+    }
+    
+    private Replica replicaFor(DataSource target) {
+        for (Replica replica : replicas) {
+            if (replica.pool == target) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    private static void takeOutOfRotation(Replica replica, SQLException cause) {
+        boolean wasInRotation = replica.inRotation;
+        replica.lagMillis = Double.NaN;
+        replica.replayedLsn = -1;
+        replica.inRotation = false;
+        if (wasInRotation) {
+            log.warn("read replica {} out of rotation error={}", replica.name, cause.toString());
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryNonTransactional.increment();
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryReadWrite.increment();
+            return PRIMARY;
+        }
+        Long userId = currentUserId();
+        if (userId != null && wroteRecently(userId)) {
+            primaryRecentWrite.increment();
+            return PRIMARY;
+        }
+        if (replicas.isEmpty()) {
+            primaryNoReplica.increment();
+            return PRIMARY;
+        }
+        long readAfter = requestedReadAfter();
+        Replica replica = pickReplica(readAfter);
+        if (replica == null) {
+            if (readAfter > 0 && pickReplica(0) != null) {
+                primaryRecentWrite.increment();
+            } else {
+                primaryNoReplica.increment();
+            }
+            return PRIMARY;
+        }
+        replica.routed.increment();
+        return replica.name;
+    }
+    
+    // Background work (the insight batch, refreshers) has no user and freely reads replicas
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+    
+    private boolean wroteRecently(Long userId) {
+        Long writtenAt = lastWriteAt.get(userId);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < readYourWritesMillis;
+    }
+    
+    /**
+     * For a user's read-write transaction, returns the primary connection wrapped so that its commit also
+     * reads the WAL position, now past the commit record, on the same connection; once the transaction has
+     * committed, the position goes to the client of the current request and the user's write is timed.
+     * Other connections are returned as they are.
+     */
+    private Connection trackWritePosition(Connection connection) {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return connection;
+        }
+        WritePosition position = new WritePosition(userId);
+        TransactionSynchronizationManager.registerSynchronization(position);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("commit")) {
+                        position.read(connection);
+                    }
+                    return result;
+                });
+    }
+    
+    private final class WritePosition implements TransactionSynchronization {
+        
+        private final Long userId;
+        private String lsn;
+        
+        private WritePosition(Long userId) {
+            this.userId = userId;
+        }
+        
+        private void read(Connection connection) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(WRITE_POSITION_QUERY)) {
+                rs.next();
+                lsn = rs.getString(1);
+            } catch (SQLException e) {
+                log.debug("write position lookup failed error={}", e.toString());
+            }
+        }
+        
+        /**
+         * Best effort: outside a request, once the response is committed or when the lookup failed, the
+         * local read-your-writes window is all there is.
+         */
+        @Override
+        public void afterCommit() {
+            lastWriteAt.put(userId, System.currentTimeMillis());
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (lsn == null || !(attributes instanceof ServletRequestAttributes servlet)
+                    || servlet.getResponse() == null || servlet.getResponse().isCommitted()) {
+                return;
+            }
+            servlet.getResponse().setHeader(READ_AFTER_HEADER, lsn);
+        }
+    }
+    
+    /** The WAL position the current request asked to read after, or 0 when there is none. */
+    private static long requestedReadAfter() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) {
+            return 0;
+        }
+        String header = servlet.getRequest().getHeader(READ_AFTER_HEADER);
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return parseLsn(header);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+    
+    /** PostgreSQL's "hi/lo" hexadecimal pg_lsn text as one unsigned-ordered number. */
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash).trim(), 16) << 32)
+                | Long.parseLong(lsn.substring(slash + 1).trim(), 16);
+    }
+    
+    /**
+     * Round-robin over the replicas currently in rotation that have replayed at least {@code readAfter},
+     * or null if there are none.
+     */
+    private Replica pickReplica(long readAfter) {
+        int count = replicas.size();
+        if (count == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.inRotation && replica.replayedLsn >= readAfter) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Measures each replica's replay lag and puts it in or takes it out of rotation. Replicas start out of
+     * rotation, so reads only move off the primary once a probe has seen the replica healthy.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasInRotation = replica.inRotation;
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                replica.lagMillis = rs.getDouble(1);
+                String replayed = rs.getString(2);
+                replica.replayedLsn = replayed == null ? Long.MAX_VALUE : parseLsn(replayed);
+                replica.inRotation = replica.lagMillis <= maxLagMillis;
+                if (wasInRotation != replica.inRotation) {
+                    log.info("read replica {} {} lagMs={}", replica.name,
+                            replica.inRotation ? "in rotation" : "out of rotation", (long) replica.lagMillis);
+                }
+            } catch (SQLException e) {
+                takeOutOfRotation(replica, e);
+            }
+        }
+        long cutoff = System.currentTimeMillis() - readYourWritesMillis;
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+    
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfoliotracker.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Settings for the {@code startup} profile, which turns on lazy bean initialization to shorten cold
+ * starts. Controllers and the analytics services are then built on first use, but a few beans have to
+ * stay eager: anything with {@code @Scheduled} or {@code @EventListener} methods (a lazy bean is never
+ * registered with the scheduler and misses the events fired before first use), and the data source and
+ * entity manager factory, so the first request does not pay for Hibernate's bootstrap.
+ */
+@Configuration
+@Profile("startup")
+public class StartupConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInfrastructure() {
+        LazyInitializationExcludeFilter byType = LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class, EntityManagerFactory.class);
+        return (beanName, definition, beanType) -> byType.isExcluded(beanName, definition, beanType)
+                || hasLifecycleMethods(beanType);
+    }
+    
+    /**
+     * The Docker image trains its class data sharing archive with a run that exits right after the context
+     * is refreshed ({@code spring.context.exit=onRefresh}) and has no database to talk to. Migrations are
+     * skipped for that run only; the migration bean itself has to stay, as AOT fixes the bean set at build
+     * time.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (!"onRefresh".equals(environment.getProperty("spring.context.exit"))) {
+                flyway.migrate();
+            }
+        };
+    }
+    
+    private static boolean hasLifecycleMethods(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> found.set(true),
+                method -> !found.get() && (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)));
+        return found.get();
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfoliotracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * When the application was started with a startup timeline (see
+ * {@code PortfolioTrackerBackendApplication}), logs the slowest steps once it is ready. The full
+ * timeline stays available from {@code /actuator/startup}.
+ */
+@Component
+public class StartupTimelineReporter {
+    
+    private static final Logger log = LoggerFactory.getLogger(StartupTimelineReporter.class);
+    private static final int REPORTED_STEPS = 15;
+    
+    @Autowired
+    private ApplicationStartup applicationStartup;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(REPORTED_STEPS)
+                .toList();
+        StringBuilder report = new StringBuilder("Startup ready in ")
+                .append(event.getTimeTaken().toMillis()).append(" ms; slowest steps:");
+        for (StartupTimeline.TimelineEvent step : slowest) {
+            report.append(String.format("%n  %6d ms  %s%s", step.getDuration().toMillis(),
+                    step.getStartupStep().getName(), describe(step.getStartupStep())));
+        }
+        log.info(report.toString());
+    }
+    
+    private static String describe(StartupStep step) {
+        StringBuilder tags = new StringBuilder();
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName") || tag.getKey().equals("postProcessor")) {
+                tags.append(' ').append(tag.getValue());
+            }
+        }
+        return tags.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.portfoliotracker.controller;
+
+import com.portfoliotracker.dto.PriceAlertRequest;
+import com.portfoliotracker.entity.AlertTrigger;
+import com.portfoliotracker.entity.PriceAlert;
+import com.portfoliotracker.security.AuthenticatedUser;
+import com.portfoliotracker.service.PriceAlertService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*")
+public class AlertController {
+
+    @Autowired
+    private PriceAlertService priceAlertService;
+
+    @PostMapping
+    public ResponseEntity<?> createAlert(@Valid @RequestBody PriceAlertRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            PriceAlert alert = priceAlertService.createAlert(user.getId(), request);
+            return ResponseEntity.ok(Map.of(
+                    "id", alert.getId(),
+                    "message", "Alert created successfully"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PriceAlert>> getAlerts(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(priceAlertService.getAlerts(user.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteAlert(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            priceAlertService.deleteAlert(id, user.getId());
+            return ResponseEntity.ok(Map.of("message", "Alert deleted successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Fired alerts after the given trigger id, oldest first, up to 100 at a time.
+     */
+    @GetMapping("/triggers")
+    public ResponseEntity<List<AlertTrigger>> getTriggers(@RequestParam(defaultValue = "0") Long after,
+                                                          @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(priceAlertService.getTriggers(user.getId(), after));
+    }
+
+    /**
+     * Server-sent "alert" events, one per fired alert, with the trigger id as event id so a reconnecting
+     * client resumes where it left off.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTriggers(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                     @AuthenticationPrincipal AuthenticatedUser user) {
+        return priceAlertService.openStream(user.getId(), lastEventId);
+    }
+}
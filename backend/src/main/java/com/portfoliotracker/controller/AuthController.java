@@ -4,25 +4,40 @@ import com.portfoliotracker.dto.AuthRequest;
 import com.portfoliotracker.dto.AuthResponse;
 import com.portfoliotracker.dto.LoginRequest;
 import com.portfoliotracker.entity.User;
+import com.portfoliotracker.logging.RequestId;
+import com.portfoliotracker.security.AuthenticatedUser;
 import com.portfoliotracker.security.JwtTokenProvider;
+import com.portfoliotracker.security.LoginThrottle;
 import com.portfoliotracker.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+    
     @Autowired
     private AuthenticationManager authenticationManager;
     
@@ -32,19 +47,29 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ExecutorService passwordHashExecutor;
+    
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody AuthRequest authRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody AuthRequest authRequest) {
+        // createUser hashes the password, so registration runs on the bounded hashing pool too
+        return submitPasswordWork(() -> registerUser(authRequest));
+    }
+    
+    private ResponseEntity<?> registerUser(AuthRequest authRequest) {
         try {
-            System.out.println("Received registration request: " + authRequest.getUsername() + ", " + authRequest.getEmail());
-            
             if (userService.existsByUsername(authRequest.getUsername())) {
-                System.out.println("Username already exists: " + authRequest.getUsername());
+                log.debug("registration rejected reason=username_taken username={}", authRequest.getUsername());
                 return ResponseEntity.badRequest()
                         .body(Map.of("message", "Username is already taken!"));
             }
             
             if (userService.existsByEmail(authRequest.getEmail())) {
-                System.out.println("Email already exists: " + authRequest.getEmail());
+                log.debug("registration rejected reason=email_taken username={}", authRequest.getUsername());
                 return ResponseEntity.badRequest()
                         .body(Map.of("message", "Email is already in use!"));
             }
@@ -52,82 +77,100 @@ public class AuthController {
             User user = new User(authRequest.getUsername(), authRequest.getEmail(), authRequest.getPassword());
             userService.createUser(user);
             
-            System.out.println("User registered successfully: " + authRequest.getUsername());
+            log.debug("registration succeeded username={}", authRequest.getUsername());
             return ResponseEntity.ok(Map.of("message", "User registered successfully"));
         } catch (Exception e) {
-            System.out.println("Registration error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("registration failed username={}", authRequest.getUsername(), e);
             return ResponseEntity.badRequest()
                     .body(Map.of("message", "Registration failed: " + e.getMessage()));
         }
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        System.out.println("=== LOGIN REQUEST RECEIVED ===");
-        System.out.println("Username: " + (loginRequest != null ? loginRequest.getUsername() : "null"));
-        System.out.println("Password length: " + (loginRequest != null && loginRequest.getPassword() != null ? loginRequest.getPassword().length() : "null"));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        if (loginRequest == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "Request body is required")));
+        }
+        
+        if (loginRequest.getUsername() == null || loginRequest.getUsername().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "Username is required")));
+        }
+        
+        if (loginRequest.getPassword() == null || loginRequest.getPassword().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("message", "Password is required")));
+        }
+        
+        String username = loginRequest.getUsername().trim();
+        // Already the forwarded client address when behind the load balancer (server.forward-headers-strategy)
+        String clientAddress = request.getRemoteAddr();
+        long retryAfter = loginThrottle.tryAttempt(username, clientAddress);
+        if (retryAfter > 0) {
+            log.debug("login throttled username={} ip={} retryAfterSeconds={}", username, clientAddress, retryAfter);
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfter, "Too many login attempts, please try again later"));
+        }
         
+        return submitPasswordWork(() -> authenticate(username, loginRequest.getPassword()),
+                () -> loginThrottle.release(username));
+    }
+    
+    private ResponseEntity<?> authenticate(String username, String password) {
         try {
-            if (loginRequest == null) {
-                System.out.println("LoginRequest is null");
-                return ResponseEntity.badRequest().body(Map.of("message", "Request body is required"));
-            }
-            
-            if (loginRequest.getUsername() == null || loginRequest.getUsername().trim().isEmpty()) {
-                System.out.println("Username is null or empty");
-                return ResponseEntity.badRequest().body(Map.of("message", "Username is required"));
-            }
-            
-            if (loginRequest.getPassword() == null || loginRequest.getPassword().trim().isEmpty()) {
-                System.out.println("Password is null or empty");
-                return ResponseEntity.badRequest().body(Map.of("message", "Password is required"));
-            }
-            
-            System.out.println("Attempting authentication for: " + loginRequest.getUsername());
-            
             Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername().trim(),
-                            loginRequest.getPassword()
-                    )
+                    new UsernamePasswordAuthenticationToken(username, password)
             );
+            loginThrottle.recordSuccess(username);
             
-            System.out.println("Authentication successful for: " + loginRequest.getUsername());
-            
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication.getName());
-            
-            System.out.println("JWT token generated successfully");
-            
-            User user = userService.findByUsername(loginRequest.getUsername().trim());
-            
-            if (user == null) {
-                System.out.println("User not found after authentication: " + loginRequest.getUsername());
-                return ResponseEntity.badRequest()
-                        .body(Map.of("message", "User not found"));
-            }
+            // The principal is the User loaded by UserService during authentication
+            User user = (User) authentication.getPrincipal();
+            String jwt = tokenProvider.generateToken(user);
             
-            System.out.println("Login successful for user: " + user.getUsername());
+            log.debug("login succeeded username={} userId={}", user.getUsername(), user.getId());
             AuthResponse response = new AuthResponse(jwt, user.getId(), user.getUsername(), user.getEmail());
-            System.out.println("Returning AuthResponse with token length: " + jwt.length());
             return ResponseEntity.ok(response);
             
         } catch (org.springframework.security.core.AuthenticationException e) {
-            System.out.println("Authentication failed: " + e.getMessage());
+            // The throttle counted the attempt as failed when it admitted it
+            log.debug("login failed username={} reason={}", username, e.getClass().getSimpleName());
             return ResponseEntity.badRequest()
                     .body(Map.of("message", "Invalid username or password"));
         } catch (Exception e) {
-            System.out.println("Unexpected error during login: " + e.getMessage());
-            e.printStackTrace();
+            log.error("login error username={}", username, e);
+            loginThrottle.release(username);
             return ResponseEntity.badRequest()
                     .body(Map.of("message", "Login failed: " + e.getMessage()));
         }
     }
     
+    /**
+     * Runs BCrypt-bound work off the request thread. A full queue means the pool is saturated, so the
+     * request is shed straight away instead of waiting behind it (running {@code onShed} first).
+     */
+    private CompletableFuture<ResponseEntity<?>> submitPasswordWork(Supplier<ResponseEntity<?>> work, Runnable onShed) {
+        try {
+            return CompletableFuture.supplyAsync(RequestId.propagate(work), passwordHashExecutor);
+        } catch (RejectedExecutionException e) {
+            log.debug("password hashing pool saturated, shedding request");
+            onShed.run();
+            return CompletableFuture.completedFuture(tooManyRequests(1, "Server is busy, please try again shortly"));
+        }
+    }
+    
+    private CompletableFuture<ResponseEntity<?>> submitPasswordWork(Supplier<ResponseEntity<?>> work) {
+        return submitPasswordWork(work, () -> {});
+    }
+    
+    private static ResponseEntity<?> tooManyRequests(long retryAfterSeconds, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of("message", message));
+    }
+    
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = userService.findById(principal.getId());
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
         
         Map<String, Object> userInfo = new HashMap<>();
         userInfo.put("id", user.getId());
@@ -1,11 +1,27 @@
 package com.portfoliotracker.controller;
 
+import com.portfoliotracker.dto.BacktestRequest;
+import com.portfoliotracker.dto.OptimizationRequest;
+import com.portfoliotracker.exception.PortfolioNotFoundException;
+import com.portfoliotracker.security.AuthenticatedUser;
 import com.portfoliotracker.service.AISimulationService;
+import com.portfoliotracker.service.BacktestService;
+import com.portfoliotracker.service.CovarianceService;
+import com.portfoliotracker.service.InsightBatchService;
+import com.portfoliotracker.service.RiskService;
+import com.portfoliotracker.service.RollingAnalyticsService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,21 +32,53 @@ public class InsightsController {
     @Autowired
     private AISimulationService aiSimulationService;
     
+    @Autowired
+    private InsightBatchService insightBatchService;
+    
+    @Autowired
+    private RiskService riskService;
+    
+    @Autowired
+    private CovarianceService covarianceService;
+    
+    @Autowired
+    private BacktestService backtestService;
+    
+    @Autowired
+    private RollingAnalyticsService rollingAnalyticsService;
+    
     @GetMapping("/diversification/{portfolioId}")
-    public ResponseEntity<?> getDiversificationScore(@PathVariable Long portfolioId, Authentication authentication) {
+    public ResponseEntity<?> getDiversificationScore(@PathVariable Long portfolioId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Map<String, Object> diversification = aiSimulationService.calculateDiversificationScore(portfolioId);
+            Map<String, Object> diversification = insightBatchService.getDiversification(portfolioId, user.getId());
             return ResponseEntity.ok(diversification);
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
     
     @GetMapping("/recommendations/{portfolioId}")
-    public ResponseEntity<?> getRecommendations(@PathVariable Long portfolioId, Authentication authentication) {
+    public ResponseEntity<?> getRecommendations(
+            @PathVariable Long portfolioId,
+            @RequestParam(defaultValue = OptimizationRequest.MAX_SHARPE) String objective,
+            @RequestParam(required = false) Double targetVolatility,
+            @RequestParam(required = false) List<String> candidates,
+            @RequestParam(defaultValue = "0") @DecimalMin("0") @DecimalMax("1") double minWeight,
+            @RequestParam(defaultValue = "1") @DecimalMin("0") @DecimalMax("1") double maxWeight,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Map<String, Object> recommendations = aiSimulationService.generateRecommendation(portfolioId);
+            OptimizationRequest request = new OptimizationRequest(objective, targetVolatility, candidates, minWeight, maxWeight);
+            // Only the default request shape is precomputed; anything else is optimised on demand
+            boolean defaults = OptimizationRequest.MAX_SHARPE.equals(objective) && targetVolatility == null
+                    && (candidates == null || candidates.isEmpty()) && minWeight == 0 && maxWeight == 1;
+            Map<String, Object> recommendations = defaults
+                    ? insightBatchService.getRecommendation(portfolioId, user.getId())
+                    : aiSimulationService.generateRecommendation(portfolioId, user.getId(), request);
             return ResponseEntity.ok(recommendations);
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -40,17 +88,83 @@ public class InsightsController {
     public ResponseEntity<?> simulatePortfolioPerformance(
             @PathVariable Long portfolioId,
             @RequestParam(defaultValue = "30") int days,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Map<String, Object> simulation = aiSimulationService.simulatePortfolioPerformance(portfolioId, days);
+            Map<String, Object> simulation = days == InsightBatchService.DEFAULT_SIMULATION_DAYS
+                    ? insightBatchService.getSimulation(portfolioId, user.getId())
+                    : aiSimulationService.simulatePortfolioPerformance(portfolioId, user.getId(), days);
             return ResponseEntity.ok(simulation);
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/risk/{portfolioId}")
+    public ResponseEntity<?> getRisk(
+            @PathVariable Long portfolioId,
+            @RequestParam(defaultValue = RiskService.METHOD_HISTORICAL) String method,
+            @RequestParam(defaultValue = "0.95,0.99") List<Double> confidence,
+            @RequestParam(defaultValue = "1260") @Min(2) @Max(5040) int lookbackDays,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Map<String, Object> risk = riskService.calculateRisk(portfolioId, user.getId(), method, confidence, lookbackDays);
+            return ResponseEntity.ok(risk);
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/correlation/{portfolioId}")
+    public ResponseEntity<?> getCorrelationHeatmap(@PathVariable Long portfolioId, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Map<String, Object> heatmap = covarianceService.getCorrelationHeatmap(portfolioId, user.getId());
+            return ResponseEntity.ok(heatmap);
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/backtest/{portfolioId}")
+    public ResponseEntity<?> backtest(@PathVariable Long portfolioId, @Valid @RequestBody BacktestRequest request,
+                                      @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(backtestService.backtest(portfolioId, user.getId(), request));
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/backtest/{portfolioId}/batch")
+    public ResponseEntity<?> backtestBatch(@PathVariable Long portfolioId, @RequestBody @Size(max = BacktestRequest.MAX_BATCH_SIZE) List<@Valid BacktestRequest> requests,
+                                           @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(backtestService.backtestBatch(portfolioId, user.getId(), requests));
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/rolling/{portfolioId}")
+    public ResponseEntity<?> getRollingAnalytics(
+            @PathVariable Long portfolioId,
+            @RequestParam(defaultValue = "30,90,252") List<Integer> windows,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(rollingAnalyticsService.getRollingAnalytics(portfolioId, user.getId(), windows));
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
 }
-
-
-
-
-
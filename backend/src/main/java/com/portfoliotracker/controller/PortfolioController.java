@@ -4,14 +4,13 @@ import com.portfoliotracker.dto.AssetRequest;
 import com.portfoliotracker.dto.PortfolioRequest;
 import com.portfoliotracker.dto.PortfolioResponse;
 import com.portfoliotracker.entity.Portfolio;
-import com.portfoliotracker.entity.User;
 import com.portfoliotracker.exception.PortfolioNotFoundException;
+import com.portfoliotracker.security.AuthenticatedUser;
 import com.portfoliotracker.service.PortfolioService;
-import com.portfoliotracker.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,13 +24,9 @@ public class PortfolioController {
     @Autowired
     private PortfolioService portfolioService;
     
-    @Autowired
-    private UserService userService;
-    
     @PostMapping
-    public ResponseEntity<?> createPortfolio(@Valid @RequestBody PortfolioRequest request, Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
-        Portfolio portfolio = portfolioService.createPortfolio(request, user);
+    public ResponseEntity<?> createPortfolio(@Valid @RequestBody PortfolioRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        Portfolio portfolio = portfolioService.createPortfolio(request, user.getId());
         
         return ResponseEntity.ok(Map.of(
                 "id", portfolio.getId(),
@@ -41,17 +36,15 @@ public class PortfolioController {
     }
     
     @GetMapping
-    public ResponseEntity<List<Portfolio>> getUserPortfolios(Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
-        List<Portfolio> portfolios = portfolioService.getUserPortfolios(user);
+    public ResponseEntity<List<Portfolio>> getUserPortfolios(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<Portfolio> portfolios = portfolioService.getUserPortfolios(user.getId());
         return ResponseEntity.ok(portfolios);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPortfolio(@PathVariable Long id, Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
+    public ResponseEntity<?> getPortfolio(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            PortfolioResponse portfolio = portfolioService.getPortfolioWithDetails(id, user);
+            PortfolioResponse portfolio = portfolioService.getPortfolioWithDetails(id, user.getId());
             return ResponseEntity.ok(portfolio);
         } catch (PortfolioNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -59,10 +52,9 @@ public class PortfolioController {
     }
     
     @PostMapping("/{id}/assets")
-    public ResponseEntity<?> addAsset(@PathVariable Long id, @Valid @RequestBody AssetRequest request, Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
+    public ResponseEntity<?> addAsset(@PathVariable Long id, @Valid @RequestBody AssetRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            portfolioService.addAssetToPortfolio(id, request, user);
+            portfolioService.addAssetToPortfolio(id, request, user.getId());
             return ResponseEntity.ok(Map.of("message", "Asset added successfully"));
         } catch (PortfolioNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -72,11 +64,12 @@ public class PortfolioController {
     }
     
     @DeleteMapping("/{portfolioId}/assets/{assetId}")
-    public ResponseEntity<?> removeAsset(@PathVariable Long portfolioId, @PathVariable Long assetId, Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName());
+    public ResponseEntity<?> removeAsset(@PathVariable Long portfolioId, @PathVariable Long assetId, @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            portfolioService.removeAssetFromPortfolio(portfolioId, assetId, user);
+            portfolioService.removeAssetFromPortfolio(portfolioId, assetId, user.getId());
             return ResponseEntity.ok(Map.of("message", "Asset removed successfully"));
+        } catch (PortfolioNotFoundException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -0,0 +1,93 @@
+package com.portfoliotracker.controller;
+
+import com.portfoliotracker.dto.WatchlistItemRequest;
+import com.portfoliotracker.dto.WatchlistRequest;
+import com.portfoliotracker.entity.Watchlist;
+import com.portfoliotracker.security.AuthenticatedUser;
+import com.portfoliotracker.service.WatchlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/watchlists")
+@CrossOrigin(origins = "*")
+public class WatchlistController {
+
+    @Autowired
+    private WatchlistService watchlistService;
+
+    @PostMapping
+    public ResponseEntity<?> createWatchlist(@Valid @RequestBody WatchlistRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Watchlist watchlist = watchlistService.createWatchlist(user.getId(), request);
+            return ResponseEntity.ok(Map.of(
+                    "id", watchlist.getId(),
+                    "name", watchlist.getName(),
+                    "message", "Watchlist created successfully"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Watchlist>> getWatchlists(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(watchlistService.getWatchlists(user.getId()));
+    }
+
+    /**
+     * The watchlist with its tickers and their latest quotes, which the background refresh keeps current.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getWatchlist(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Watchlist watchlist = watchlistService.getWatchlist(id, user.getId());
+            return ResponseEntity.ok(Map.of(
+                    "id", watchlist.getId(),
+                    "name", watchlist.getName(),
+                    "createdAt", watchlist.getCreatedAt(),
+                    "items", watchlistService.getItemsWithQuotes(id, user.getId())
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteWatchlist(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            watchlistService.deleteWatchlist(id, user.getId());
+            return ResponseEntity.ok(Map.of("message", "Watchlist deleted successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/items")
+    public ResponseEntity<?> addTicker(@PathVariable Long id, @Valid @RequestBody WatchlistItemRequest request,
+                                       @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            watchlistService.addTicker(id, request.getTickerSymbol(), user.getId());
+            return ResponseEntity.ok(Map.of("message", "Ticker added successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}/items/{symbol}")
+    public ResponseEntity<?> removeTicker(@PathVariable Long id, @PathVariable String symbol,
+                                          @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            watchlistService.removeTicker(id, symbol, user.getId());
+            return ResponseEntity.ok(Map.of("message", "Ticker removed successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
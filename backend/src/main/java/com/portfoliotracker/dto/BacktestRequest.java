@@ -0,0 +1,95 @@
+package com.portfoliotracker.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+public class BacktestRequest {
+    
+    /** Upper bound on the number of backtests in one batch request. */
+    public static final int MAX_BATCH_SIZE = 20;
+    
+    /**
+     * Target allocation by ticker. When empty, the portfolio's current holdings are replayed at their
+     * present market-value weights.
+     */
+    @Size(max = 100)
+    private Map<String, BigDecimal> targetWeights;
+    
+    /** Rebalance interval in trading days; 0 means buy and hold. */
+    @Min(0)
+    private int rebalanceDays = 0;
+    
+    private LocalDate startDate;
+    
+    private LocalDate endDate;
+    
+    @Min(2)
+    @Max(5040)
+    private int lookbackDays = 2520;
+    
+    // Constructors
+    public BacktestRequest() {}
+    
+    // Getters and Setters
+    public Map<String, BigDecimal> getTargetWeights() {
+        return targetWeights;
+    }
+    
+    public void setTargetWeights(Map<String, BigDecimal> targetWeights) {
+        this.targetWeights = targetWeights;
+    }
+    
+    public int getRebalanceDays() {
+        return rebalanceDays;
+    }
+    
+    public void setRebalanceDays(int rebalanceDays) {
+        this.rebalanceDays = rebalanceDays;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    
+    public int getLookbackDays() {
+        return lookbackDays;
+    }
+    
+    public void setLookbackDays(int lookbackDays) {
+        this.lookbackDays = lookbackDays;
+    }
+    
+    /** Weights are normalised by their sum, so it has to be positive (and every weight present). */
+    @AssertTrue(message = "target weights must be non-null and sum to more than zero")
+    public boolean isTargetWeightsValid() {
+        if (targetWeights == null || targetWeights.isEmpty()) {
+            return true;
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal weight : targetWeights.values()) {
+            if (weight == null) {
+                return false;
+            }
+            sum = sum.add(weight);
+        }
+        return sum.signum() > 0;
+    }
+}
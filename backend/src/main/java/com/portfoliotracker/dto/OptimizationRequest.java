@@ -0,0 +1,86 @@
+package com.portfoliotracker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OptimizationRequest {
+    
+    public static final String MIN_VARIANCE = "min-variance";
+    public static final String MAX_SHARPE = "max-sharpe";
+    public static final String TARGET_RISK = "target-risk";
+    
+    private String objective = MAX_SHARPE;
+    private Double targetVolatility;
+    private List<String> candidates = new ArrayList<>();
+    private double minWeight = 0.0;
+    private double maxWeight = 1.0;
+    private boolean includeFrontier = true;
+    
+    // Constructors
+    public OptimizationRequest() {}
+    
+    public OptimizationRequest(String objective, Double targetVolatility, List<String> candidates,
+                               double minWeight, double maxWeight) {
+        this.objective = objective;
+        this.targetVolatility = targetVolatility;
+        this.candidates = candidates != null ? candidates : new ArrayList<>();
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+    }
+    
+    // Getters and Setters
+    public String getObjective() {
+        return objective;
+    }
+    
+    public void setObjective(String objective) {
+        this.objective = objective;
+    }
+    
+    public Double getTargetVolatility() {
+        return targetVolatility;
+    }
+    
+    public void setTargetVolatility(Double targetVolatility) {
+        this.targetVolatility = targetVolatility;
+    }
+    
+    public List<String> getCandidates() {
+        return candidates;
+    }
+    
+    public void setCandidates(List<String> candidates) {
+        this.candidates = candidates;
+    }
+    
+    public double getMinWeight() {
+        return minWeight;
+    }
+    
+    public void setMinWeight(double minWeight) {
+        this.minWeight = minWeight;
+    }
+    
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+    
+    public void setMaxWeight(double maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+    
+    /** Long-only and ordered; written so that NaN fails too. */
+    public void checkWeightBounds() {
+        if (!(minWeight >= 0.0 && minWeight <= maxWeight && maxWeight <= 1.0)) {
+            throw new IllegalArgumentException("Weight bounds must satisfy 0 <= minWeight <= maxWeight <= 1");
+        }
+    }
+    
+    public boolean isIncludeFrontier() {
+        return includeFrontier;
+    }
+    
+    public void setIncludeFrontier(boolean includeFrontier) {
+        this.includeFrontier = includeFrontier;
+    }
+}
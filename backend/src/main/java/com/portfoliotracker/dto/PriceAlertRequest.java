@@ -0,0 +1,56 @@
+package com.portfoliotracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public class PriceAlertRequest {
+    
+    @NotBlank
+    private String tickerSymbol;
+    
+    @NotNull
+    @Pattern(regexp = "ABOVE|BELOW", message = "must be ABOVE or BELOW")
+    private String direction;
+    
+    @NotNull
+    @Positive
+    private BigDecimal threshold;
+    
+    // Constructors
+    public PriceAlertRequest() {}
+    
+    public PriceAlertRequest(String tickerSymbol, String direction, BigDecimal threshold) {
+        this.tickerSymbol = tickerSymbol;
+        this.direction = direction;
+        this.threshold = threshold;
+    }
+    
+    // Getters and Setters
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public String getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+    
+    public BigDecimal getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(BigDecimal threshold) {
+        this.threshold = threshold;
+    }
+}
@@ -0,0 +1,27 @@
+package com.portfoliotracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class WatchlistItemRequest {
+    
+    @NotBlank
+    @Size(max = 20)
+    private String tickerSymbol;
+    
+    // Constructors
+    public WatchlistItemRequest() {}
+    
+    public WatchlistItemRequest(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    // Getters and Setters
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+}
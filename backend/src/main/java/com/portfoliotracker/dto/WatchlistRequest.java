@@ -0,0 +1,27 @@
+package com.portfoliotracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class WatchlistRequest {
+    
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+    
+    // Constructors
+    public WatchlistRequest() {}
+    
+    public WatchlistRequest(String name) {
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+}
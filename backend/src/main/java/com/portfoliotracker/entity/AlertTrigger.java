@@ -0,0 +1,118 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A fired {@link PriceAlert}, as delivered to its owner. Ids increase, so they double as the position
+ * of a client reading the stream.
+ */
+@Entity
+@Table(name = "alert_triggers")
+public class AlertTrigger {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "alert_id", nullable = false)
+    private Long alertId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "ticker_symbol", nullable = false)
+    private String tickerSymbol;
+    
+    @Column(nullable = false, length = 8)
+    private String direction;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal threshold;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;
+    
+    @Column(name = "triggered_at")
+    private LocalDateTime triggeredAt;
+    
+    // Constructors
+    public AlertTrigger() {}
+    
+    public AlertTrigger(PriceAlert alert, BigDecimal price) {
+        this.alertId = alert.getId();
+        this.userId = alert.getUserId();
+        this.tickerSymbol = alert.getTickerSymbol();
+        this.direction = alert.getDirection();
+        this.threshold = alert.getThreshold();
+        this.price = price;
+        this.triggeredAt = alert.getTriggeredAt();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAlertId() {
+        return alertId;
+    }
+    
+    public void setAlertId(Long alertId) {
+        this.alertId = alertId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public String getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+    
+    public BigDecimal getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(BigDecimal threshold) {
+        this.threshold = threshold;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public LocalDateTime getTriggeredAt() {
+        return triggeredAt;
+    }
+    
+    public void setTriggeredAt(LocalDateTime triggeredAt) {
+        this.triggeredAt = triggeredAt;
+    }
+}
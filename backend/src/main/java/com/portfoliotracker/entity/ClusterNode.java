@@ -0,0 +1,68 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A running backend instance. Times are UTC from the instance's own clock.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+public class ClusterNode {
+    
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+    
+    private String host;
+    
+    @Column(name = "joined_at")
+    private LocalDateTime joinedAt;
+    
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+    
+    // Constructors
+    public ClusterNode() {}
+    
+    public ClusterNode(String nodeId, String host, LocalDateTime now) {
+        this.nodeId = nodeId;
+        this.host = host;
+        this.joinedAt = now;
+        this.heartbeatAt = now;
+    }
+    
+    // Getters and Setters
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    
+    public String getHost() {
+        return host;
+    }
+    
+    public void setHost(String host) {
+        this.host = host;
+    }
+    
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+    
+    public void setJoinedAt(LocalDateTime joinedAt) {
+        this.joinedAt = joinedAt;
+    }
+    
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+    
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+}
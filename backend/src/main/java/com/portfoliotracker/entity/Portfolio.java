@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "portfolios")
+@Table(name = "portfolios", indexes = @Index(name = "idx_portfolios_user_id", columnList = "user_id"))
 public class Portfolio {
     
     @Id
@@ -29,6 +29,12 @@ public class Portfolio {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * Bumped whenever the holdings change; derived results (precomputed insights) are keyed by it.
+     */
+    @Column(name = "revision")
+    private Long revision = 0L;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
@@ -99,6 +105,14 @@ public class Portfolio {
         this.updatedAt = updatedAt;
     }
     
+    public long getRevision() {
+        return revision != null ? revision : 0L;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
     public User getUser() {
         return user;
     }
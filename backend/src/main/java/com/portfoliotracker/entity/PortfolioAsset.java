@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "portfolio_assets")
+@Table(name = "portfolio_assets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_portfolio_assets_portfolio_ticker", columnNames = {"portfolio_id", "ticker_symbol"}),
+        indexes = @Index(name = "idx_portfolio_assets_ticker_symbol", columnList = "ticker_symbol"))
 public class PortfolioAsset {
     
     @Id
@@ -79,6 +81,13 @@ public class PortfolioAsset {
         return BigDecimal.ZERO;
     }
     
+    /**
+     * Current market value, falling back to cost basis while no price has been fetched yet.
+     */
+    public BigDecimal getMarketValue() {
+        return currentPrice != null ? getTotalValue() : getTotalCost();
+    }
+    
     public BigDecimal getGainLoss() {
         return getTotalValue().subtract(getTotalCost());
     }
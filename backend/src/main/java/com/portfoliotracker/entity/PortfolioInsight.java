@@ -0,0 +1,107 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed insight set for one portfolio, valid for as long as the portfolio's revision matches
+ * {@link #portfolioRevision}. Payloads are the JSON bodies served by the insights endpoints.
+ */
+@Entity
+@Table(name = "portfolio_insights")
+public class PortfolioInsight {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "portfolio_id", nullable = false, unique = true)
+    private Long portfolioId;
+    
+    @Column(name = "portfolio_revision", nullable = false)
+    private Long portfolioRevision;
+    
+    @Column(name = "diversification", columnDefinition = "TEXT")
+    private String diversification;
+    
+    @Column(name = "recommendation", columnDefinition = "TEXT")
+    private String recommendation;
+    
+    @Column(name = "simulation", columnDefinition = "TEXT")
+    private String simulation;
+    
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        computedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public PortfolioInsight() {}
+    
+    public PortfolioInsight(Long portfolioId, Long portfolioRevision) {
+        this.portfolioId = portfolioId;
+        this.portfolioRevision = portfolioRevision;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+    
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+    
+    public Long getPortfolioRevision() {
+        return portfolioRevision;
+    }
+    
+    public void setPortfolioRevision(Long portfolioRevision) {
+        this.portfolioRevision = portfolioRevision;
+    }
+    
+    public String getDiversification() {
+        return diversification;
+    }
+    
+    public void setDiversification(String diversification) {
+        this.diversification = diversification;
+    }
+    
+    public String getRecommendation() {
+        return recommendation;
+    }
+    
+    public void setRecommendation(String recommendation) {
+        this.recommendation = recommendation;
+    }
+    
+    public String getSimulation() {
+        return simulation;
+    }
+    
+    public void setSimulation(String simulation) {
+        this.simulation = simulation;
+    }
+    
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+    
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
@@ -0,0 +1,113 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * "Notify me when the price of a ticker reaches a threshold". Fires once, on the first quote at or
+ * above ({@link #ABOVE}) or at or below ({@link #BELOW}) the threshold, and stays for the record with
+ * {@link #triggeredAt} set.
+ */
+@Entity
+@Table(name = "price_alerts")
+public class PriceAlert {
+    
+    public static final String ABOVE = "ABOVE";
+    public static final String BELOW = "BELOW";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "ticker_symbol", nullable = false)
+    private String tickerSymbol;
+    
+    @Column(nullable = false, length = 8)
+    private String direction;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal threshold;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "triggered_at")
+    private LocalDateTime triggeredAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public PriceAlert() {}
+    
+    public PriceAlert(Long userId, String tickerSymbol, String direction, BigDecimal threshold) {
+        this.userId = userId;
+        this.tickerSymbol = tickerSymbol;
+        this.direction = direction;
+        this.threshold = threshold;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public String getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+    
+    public BigDecimal getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(BigDecimal threshold) {
+        this.threshold = threshold;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getTriggeredAt() {
+        return triggeredAt;
+    }
+    
+    public void setTriggeredAt(LocalDateTime triggeredAt) {
+        this.triggeredAt = triggeredAt;
+    }
+}
@@ -0,0 +1,132 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_bars",
+        uniqueConstraints = @UniqueConstraint(name = "uk_price_bars_ticker_date", columnNames = {"ticker_symbol", "trade_date"}))
+public class PriceBar {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotBlank
+    @Column(name = "ticker_symbol", nullable = false)
+    private String tickerSymbol;
+    
+    @NotNull
+    @Column(name = "trade_date", nullable = false)
+    private LocalDate tradeDate;
+    
+    @Column(name = "open_price")
+    private BigDecimal openPrice;
+    
+    @Column(name = "high_price")
+    private BigDecimal highPrice;
+    
+    @Column(name = "low_price")
+    private BigDecimal lowPrice;
+    
+    @NotNull
+    @Column(name = "close_price", nullable = false)
+    private BigDecimal closePrice;
+    
+    private Long volume;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public PriceBar() {}
+    
+    public PriceBar(String tickerSymbol, LocalDate tradeDate, BigDecimal closePrice) {
+        this.tickerSymbol = tickerSymbol;
+        this.tradeDate = tradeDate;
+        this.closePrice = closePrice;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+    
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+    
+    public BigDecimal getOpenPrice() {
+        return openPrice;
+    }
+    
+    public void setOpenPrice(BigDecimal openPrice) {
+        this.openPrice = openPrice;
+    }
+    
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+    
+    public void setHighPrice(BigDecimal highPrice) {
+        this.highPrice = highPrice;
+    }
+    
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+    
+    public void setLowPrice(BigDecimal lowPrice) {
+        this.lowPrice = lowPrice;
+    }
+    
+    public BigDecimal getClosePrice() {
+        return closePrice;
+    }
+    
+    public void setClosePrice(BigDecimal closePrice) {
+        this.closePrice = closePrice;
+    }
+    
+    public Long getVolume() {
+        return volume;
+    }
+    
+    public void setVolume(Long volume) {
+        this.volume = volume;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
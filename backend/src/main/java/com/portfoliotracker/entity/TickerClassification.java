@@ -0,0 +1,95 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sector, industry and asset class of a ticker, cached from the upstream company overview.
+ */
+@Entity
+@Table(name = "ticker_classifications")
+public class TickerClassification {
+    
+    @Id
+    @Column(name = "ticker_symbol")
+    private String tickerSymbol;
+    
+    private String name;
+    
+    private String sector;
+    
+    private String industry;
+    
+    @Column(name = "asset_class")
+    private String assetClass;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public TickerClassification() {}
+    
+    public TickerClassification(String tickerSymbol, String name, String sector, String industry, String assetClass) {
+        this.tickerSymbol = tickerSymbol;
+        this.name = name;
+        this.sector = sector;
+        this.industry = industry;
+        this.assetClass = assetClass;
+    }
+    
+    // Getters and Setters
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getSector() {
+        return sector;
+    }
+    
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+    
+    public String getIndustry() {
+        return industry;
+    }
+    
+    public void setIndustry(String industry) {
+        this.industry = industry;
+    }
+    
+    public String getAssetClass() {
+        return assetClass;
+    }
+    
+    public void setAssetClass(String assetClass) {
+        this.assetClass = assetClass;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,81 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest upstream quote of a ticker, shared by all instances, together with the lease of the
+ * instance allowed to refresh it. Times are UTC.
+ */
+@Entity
+@Table(name = "ticker_quotes")
+public class TickerQuote {
+    
+    @Id
+    @Column(name = "ticker_symbol")
+    private String tickerSymbol;
+    
+    /** The "Global Quote" object of the GLOBAL_QUOTE response, as received. */
+    @Column(length = 2000)
+    private String quote;
+    
+    @Column(name = "quoted_at")
+    private LocalDateTime quotedAt;
+    
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+    
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+    
+    // Constructors
+    public TickerQuote() {}
+    
+    public TickerQuote(String tickerSymbol, String claimedBy, LocalDateTime claimedAt) {
+        this.tickerSymbol = tickerSymbol;
+        this.claimedBy = claimedBy;
+        this.claimedAt = claimedAt;
+    }
+    
+    // Getters and Setters
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public String getQuote() {
+        return quote;
+    }
+    
+    public void setQuote(String quote) {
+        this.quote = quote;
+    }
+    
+    public LocalDateTime getQuotedAt() {
+        return quotedAt;
+    }
+    
+    public void setQuotedAt(LocalDateTime quotedAt) {
+        this.quotedAt = quotedAt;
+    }
+    
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+    
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+    
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.portfoliotracker.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * How many holdings and watchlist entries, across all users, refer to a ticker. The background price
+ * refresh covers every ticker with a positive count, once, however high the count.
+ */
+@Entity
+@Table(name = "ticker_subscriptions")
+public class TickerSubscription {
+    
+    @Id
+    @Column(name = "ticker_symbol")
+    private String tickerSymbol;
+    
+    @Column(nullable = false)
+    private long subscribers;
+    
+    // Constructors
+    public TickerSubscription() {}
+    
+    public TickerSubscription(String tickerSymbol, long subscribers) {
+        this.tickerSymbol = tickerSymbol;
+        this.subscribers = subscribers;
+    }
+    
+    // Getters and Setters
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public long getSubscribers() {
+        return subscribers;
+    }
+    
+    public void setSubscribers(long subscribers) {
+        this.subscribers = subscribers;
+    }
+}
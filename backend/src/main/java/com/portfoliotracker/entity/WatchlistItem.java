@@ -0,0 +1,72 @@
+package com.portfoliotracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "watchlist_items")
+public class WatchlistItem {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "watchlist_id", nullable = false)
+    @JsonIgnore
+    private Watchlist watchlist;
+    
+    @Column(name = "ticker_symbol", nullable = false)
+    private String tickerSymbol;
+    
+    @Column(name = "added_at")
+    private LocalDateTime addedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        addedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public WatchlistItem() {}
+    
+    public WatchlistItem(Watchlist watchlist, String tickerSymbol) {
+        this.watchlist = watchlist;
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Watchlist getWatchlist() {
+        return watchlist;
+    }
+    
+    public void setWatchlist(Watchlist watchlist) {
+        this.watchlist = watchlist;
+    }
+    
+    public String getTickerSymbol() {
+        return tickerSymbol;
+    }
+    
+    public void setTickerSymbol(String tickerSymbol) {
+        this.tickerSymbol = tickerSymbol;
+    }
+    
+    public LocalDateTime getAddedAt() {
+        return addedAt;
+    }
+    
+    public void setAddedAt(LocalDateTime addedAt) {
+        this.addedAt = addedAt;
+    }
+}
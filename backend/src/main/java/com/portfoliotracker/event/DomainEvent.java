@@ -0,0 +1,24 @@
+package com.portfoliotracker.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A committed change, as delivered from the outbox by {@link com.portfoliotracker.outbox.OutboxRelay}.
+ * Ids increase in the order events of one aggregate were written; the same event may be delivered more
+ * than once.
+ */
+public record DomainEvent(long id, String aggregateType, String aggregateId, String eventType,
+                          Map<String, Object> payload, LocalDateTime createdAt) {
+    
+    /** Aggregate type of holding events; the aggregate id is the portfolio id. */
+    public static final String PORTFOLIO = "PORTFOLIO";
+    
+    /** Aggregate type of price events; the aggregate id is the ticker symbol. */
+    public static final String TICKER = "TICKER";
+    
+    public static final String ASSET_ADDED = "ASSET_ADDED";
+    public static final String ASSET_UPDATED = "ASSET_UPDATED";
+    public static final String ASSET_REMOVED = "ASSET_REMOVED";
+    public static final String PRICE_UPDATED = "PRICE_UPDATED";
+}
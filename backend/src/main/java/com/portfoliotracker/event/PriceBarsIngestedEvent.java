@@ -0,0 +1,9 @@
+package com.portfoliotracker.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after new daily bars for a ticker have been stored locally.
+ */
+public record PriceBarsIngestedEvent(String tickerSymbol, LocalDate latestTradeDate) {
+}
@@ -0,0 +1,9 @@
+package com.portfoliotracker.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published after a quote has been fetched from upstream on this instance.
+ */
+public record QuoteUpdatedEvent(String tickerSymbol, BigDecimal price) {
+}
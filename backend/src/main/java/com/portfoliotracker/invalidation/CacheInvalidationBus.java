@@ -0,0 +1,361 @@
+package com.portfoliotracker.invalidation;
+
+import com.portfoliotracker.config.ReplicaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Keeps in-process caches coherent across backend instances through PostgreSQL LISTEN/NOTIFY. After a
+ * write commits, a service publishes a topic and key ("quote AAPL", "price-bars MSFT|2024-05-17"); every
+ * other instance hands the key to the subscribers of that topic, which evict or reload the entry.
+ * <p>
+ * A single thread owns a dedicated connection to the primary. It listens, dispatches what arrives, and
+ * every {@code flush-interval-ms} sends what was published since the last flush, deduplicated and packed
+ * into as few NOTIFY payloads as the 8000-byte limit allows. Notifications sent while an instance is
+ * disconnected never reach it, so after any reconnect every subscriber resyncs (drops what it may have
+ * missed); an instance that publishes more than it can queue asks all instances to resync instead. With
+ * read replicas a receiver may reload from a replica that has not replayed the write yet, so each
+ * delivery is repeated once the replica lag limit has passed.
+ * <p>
+ * Only PostgreSQL has a notification channel; on any other database (the H2 load test) publishing is a
+ * no-op.
+ */
+@Component
+public class CacheInvalidationBus {
+    
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    
+    static final String CHANNEL = "cache_invalidation";
+    
+    // NOTIFY payloads must be shorter than 8000 bytes; keys are ASCII, so characters are bytes
+    static final int MAX_PAYLOAD_CHARS = 7900;
+    
+    static final String RESYNC_ALL = "*";
+    
+    private static final long HEARTBEAT_MILLIS = 10_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    
+    private record Subscriber(Consumer<String> evict, Runnable resync) {}
+    
+    private record Redelivery(long dueAtMillis, String topic, String key) {}
+    
+    private final boolean enabled;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int flushIntervalMillis;
+    private final int maxPending;
+    private final long redeliverAfterMillis;
+    
+    /** Identifies this instance in its own payloads, which it receives too and skips. */
+    private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private Set<String> pending = new LinkedHashSet<>();
+    private boolean overflowed;
+    
+    // Only touched by the bus thread; a fixed delay keeps it in due order
+    private final Queue<Redelivery> redeliveries = new ArrayDeque<>();
+    
+    private final Counter published;
+    private final Counter received;
+    private final Counter notifications;
+    private final Counter resyncs;
+    
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread worker;
+    
+    public CacheInvalidationBus(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                @Value("${cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${cache.invalidation.flush-interval-ms:50}") int flushIntervalMillis,
+                                @Value("${cache.invalidation.max-pending:10000}") int maxPending,
+                                MeterRegistry meterRegistry) {
+        this.url = enabled ? dataSourceProperties.determineUrl() : null;
+        this.username = enabled ? dataSourceProperties.determineUsername() : null;
+        this.password = enabled ? dataSourceProperties.determinePassword() : null;
+        this.enabled = url != null && url.startsWith("jdbc:postgresql:");
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.maxPending = maxPending;
+        boolean replicas = replicaProperties.getPools().stream().anyMatch(pool -> StringUtils.hasText(pool.getUrl()));
+        this.redeliverAfterMillis = replicas
+                ? replicaProperties.getMaxLagMs() + replicaProperties.getLagCheckIntervalMs() : 0;
+        
+        this.published = Counter.builder("cache.invalidation.messages").tag("direction", "published").register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.messages").tag("direction", "received").register(meterRegistry);
+        this.notifications = Counter.builder("cache.invalidation.notifications").register(meterRegistry);
+        this.resyncs = Counter.builder("cache.invalidation.resyncs").register(meterRegistry);
+        Gauge.builder("cache.invalidation.connected", this, bus -> bus.connected ? 1 : 0).register(meterRegistry);
+    }
+    
+    /**
+     * Both callbacks run on the bus thread, between reading notifications, flushing and heartbeats, so they
+     * should only drop entries. Anything that queries, takes a contended lock or writes to clients belongs
+     * on an executor.
+     *
+     * @param evict  called with each key other instances publish under {@code topic}
+     * @param resync called when invalidations may have been missed; should drop or reload everything
+     */
+    public void subscribe(String topic, Consumer<String> evict, Runnable resync) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(new Subscriber(evict, resync));
+    }
+    
+    /**
+     * Tells the other instances that {@code key} under {@code topic} changed. Inside a transaction the
+     * message is queued once it commits, so receivers never reload the old row.
+     */
+    public void publish(String topic, String key) {
+        if (!enabled) {
+            return;
+        }
+        String message = topic + " " + key.replace('\n', ' ');
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(message);
+                }
+            });
+        } else {
+            enqueue(message);
+        }
+    }
+    
+    private void enqueue(String message) {
+        synchronized (pendingLock) {
+            if (pending.size() >= maxPending) {
+                overflowed = true;
+                return;
+            }
+            pending.add(message);
+        }
+        published.increment();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "cache-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(flushIntervalMillis + 1000L);
+        }
+    }
+    
+    private void run() {
+        long backoffMillis = 1000;
+        boolean resyncOnConnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                backoffMillis = 1000;
+                if (resyncOnConnect) {
+                    log.info("cache invalidation reconnected, resyncing caches node={}", nodeId);
+                    resyncAll();
+                }
+                listen(connection);
+            } catch (SQLException e) {
+                if (connected) {
+                    log.warn("cache invalidation connection lost node={} error={}", nodeId, e.toString());
+                } else {
+                    log.debug("cache invalidation connect failed node={}", nodeId, e);
+                }
+            }
+            connected = false;
+            resyncOnConnect = true;
+            if (running) {
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+    
+    private void listen(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastRoundTrip = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] arrived = pgConnection.getNotifications(flushIntervalMillis);
+            if (arrived != null) {
+                for (PGNotification notification : arrived) {
+                    receive(notification.getParameter());
+                }
+            }
+            redeliverDue();
+            long now = System.currentTimeMillis();
+            if (flush(connection)) {
+                lastRoundTrip = now;
+            } else if (now - lastRoundTrip >= HEARTBEAT_MILLIS) {
+                // Waiting for notifications never notices a dead server; a query does
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("select 1");
+                }
+                lastRoundTrip = now;
+            }
+        }
+    }
+    
+    private boolean flush(Connection connection) throws SQLException {
+        Set<String> batch;
+        boolean resync;
+        synchronized (pendingLock) {
+            if (pending.isEmpty() && !overflowed) {
+                return false;
+            }
+            batch = pending;
+            resync = overflowed;
+            pending = new LinkedHashSet<>();
+            overflowed = false;
+        }
+        List<String> payloads = pack(nodeId, resync ? List.of(RESYNC_ALL) : batch);
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+            for (String payload : payloads) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.executeQuery().close();
+            }
+        } catch (SQLException e) {
+            // Some payloads may have gone out; receivers treat a repeat like any other eviction
+            synchronized (pendingLock) {
+                overflowed |= resync;
+                for (String message : batch) {
+                    if (pending.size() >= maxPending) {
+                        overflowed = true;
+                        break;
+                    }
+                    pending.add(message);
+                }
+            }
+            throw e;
+        }
+        notifications.increment(payloads.size());
+        return true;
+    }
+    
+    /**
+     * Packs messages into payloads of at most {@link #MAX_PAYLOAD_CHARS}, each starting with the sender's
+     * node id followed by one "topic key" line per message.
+     */
+    static List<String> pack(String nodeId, Collection<String> messages) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (String message : messages) {
+            if (payload.length() > nodeId.length() && payload.length() + 1 + message.length() > MAX_PAYLOAD_CHARS) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append('\n').append(message);
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+    
+    private void receive(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines[0].equals(nodeId)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 1; i < lines.length; i++) {
+            received.increment();
+            if (lines[i].equals(RESYNC_ALL)) {
+                resyncAll();
+                continue;
+            }
+            int space = lines[i].indexOf(' ');
+            if (space < 0) {
+                continue;
+            }
+            String topic = lines[i].substring(0, space);
+            String key = lines[i].substring(space + 1);
+            deliver(topic, key);
+            if (redeliverAfterMillis > 0) {
+                redeliveries.add(new Redelivery(now + redeliverAfterMillis, topic, key));
+            }
+        }
+    }
+    
+    private void redeliverDue() {
+        long now = System.currentTimeMillis();
+        while (!redeliveries.isEmpty() && redeliveries.peek().dueAtMillis() <= now) {
+            Redelivery redelivery = redeliveries.poll();
+            deliver(redelivery.topic(), redelivery.key());
+        }
+    }
+    
+    private void deliver(String topic, String key) {
+        for (Subscriber subscriber : subscribers.getOrDefault(topic, List.of())) {
+            try {
+                subscriber.evict().accept(key);
+            } catch (RuntimeException e) {
+                log.warn("cache invalidation failed topic={} key={}", topic, key, e);
+            }
+        }
+    }
+    
+    private void resyncAll() {
+        resyncs.increment();
+        redeliveries.clear();
+        subscribers.forEach((topic, list) -> {
+            for (Subscriber subscriber : list) {
+                try {
+                    subscriber.resync().run();
+                } catch (RuntimeException e) {
+                    log.warn("cache resync failed topic={}", topic, e);
+                }
+            }
+        });
+    }
+}
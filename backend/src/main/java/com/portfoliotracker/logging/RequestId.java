@@ -0,0 +1,57 @@
+package com.portfoliotracker.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Request correlation ids. {@link RequestIdFilter} puts one in the logging MDC under {@link #MDC_KEY} for
+ * every request; work handed to another thread carries it along through {@link #propagate}.
+ */
+public final class RequestId {
+    
+    public static final String MDC_KEY = "requestId";
+    public static final String HEADER = "X-Request-Id";
+    
+    // Ids supplied by callers end up in log lines, so only short, plain tokens are accepted
+    private static final Pattern ACCEPTED = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    
+    private RequestId() {
+    }
+    
+    /** The caller's id when it is acceptable, otherwise a new random one. */
+    static String fromHeader(String header) {
+        if (header != null && ACCEPTED.matcher(header).matches()) {
+            return header;
+        }
+        // 64 random bits is plenty for correlation and, unlike UUID.randomUUID(), never touches SecureRandom
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+    
+    /**
+     * Wraps a task so it runs with the submitting thread's MDC (and therefore its request id), restoring
+     * the worker's own MDC afterwards.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            MDC.setContextMap(context);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
+            }
+        };
+    }
+}
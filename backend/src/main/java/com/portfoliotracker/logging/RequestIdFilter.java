@@ -0,0 +1,47 @@
+package com.portfoliotracker.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tags every request with a correlation id: the caller's {@code X-Request-Id} when it sent a usable one,
+ * otherwise a generated id. The id is echoed back in the response header and is in the MDC for every log
+ * line written while the request is handled, including the async dispatch that completes a login.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+    
+    private static final String ATTRIBUTE = RequestIdFilter.class.getName() + ".id";
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String id = (String) request.getAttribute(ATTRIBUTE);
+        if (id == null) {
+            id = RequestId.fromHeader(request.getHeader(RequestId.HEADER));
+            request.setAttribute(ATTRIBUTE, id);
+            response.setHeader(RequestId.HEADER, id);
+        }
+        MDC.put(RequestId.MDC_KEY, id);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(RequestId.MDC_KEY);
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
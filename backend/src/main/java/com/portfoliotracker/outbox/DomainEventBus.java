@@ -0,0 +1,43 @@
+package com.portfoliotracker.outbox;
+
+import com.portfoliotracker.event.DomainEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process subscribers to the domain events delivered from the outbox. Each subscriber gets every
+ * batch, in id order, on the relay thread; subscribers filter by event type themselves.
+ * <p>
+ * Delivery is at least once: when a subscriber throws, the batch is delivered again to every subscriber
+ * on the next relay run, so handlers must tolerate events they have already seen.
+ */
+@Component
+public class DomainEventBus {
+    
+    private record Subscriber(String name, Consumer<List<DomainEvent>> handler) {}
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    
+    public void subscribe(String name, Consumer<List<DomainEvent>> handler) {
+        subscribers.add(new Subscriber(name, handler));
+    }
+    
+    /** Hands a batch to each subscriber in turn; the first failure stops the batch and is rethrown. */
+    void dispatch(List<DomainEvent> batch) {
+        for (Subscriber subscriber : subscribers) {
+            Timer.builder("outbox.dispatch")
+                    .tag("subscriber", subscriber.name())
+                    .register(meterRegistry)
+                    .record(() -> subscriber.handler().accept(batch));
+        }
+    }
+}
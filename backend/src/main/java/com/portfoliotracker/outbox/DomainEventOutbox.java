@@ -0,0 +1,51 @@
+package com.portfoliotracker.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.entity.OutboxEvent;
+import com.portfoliotracker.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Writes domain events to {@code outbox_events} as part of the caller's transaction, so an event is
+ * stored exactly when the change it describes commits. {@link OutboxRelay} delivers them afterwards.
+ */
+@Component
+public class DomainEventOutbox {
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Appends an event to the outbox. Pending changes are flushed first, so the row locks they take are
+     * held before the event gets its id: a later change to the same aggregate waits for this transaction
+     * and its event gets a higher id.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void append(String aggregateType, String aggregateId, String eventType, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be written in the transaction of their change");
+        }
+        outboxEventRepository.flush();
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, write(payload),
+                LocalDateTime.now(ZoneOffset.UTC)));
+    }
+    
+    private String write(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise outbox event", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.portfoliotracker.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.cluster.ClusterMembership;
+import com.portfoliotracker.entity.OutboxEvent;
+import com.portfoliotracker.event.DomainEvent;
+import com.portfoliotracker.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers outbox events to the {@link DomainEventBus} in batches, oldest id first, and marks them
+ * published once every subscriber has taken the batch. A batch that fails is left in place and retried
+ * from the same event on the next run, so nothing is skipped and nothing overtakes it.
+ * <p>
+ * One instance relays at a time: whichever {@link ClusterMembership} assigns the relay to. While
+ * instances briefly disagree on that, a batch may be delivered twice, which at-least-once delivery
+ * allows anyway. Events of one aggregate are delivered in the order they committed; events of different
+ * aggregates may be delivered in either order. {@code outbox.lag} is the age of the oldest event the
+ * last run found undelivered.
+ */
+@Component
+public class OutboxRelay {
+    
+    static final String RELAY_KEY = "outbox-relay";
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter delivered;
+    private Counter failed;
+    private volatile double lagSeconds;
+    
+    @PostConstruct
+    public void registerMeters() {
+        delivered = Counter.builder("outbox.events").tag("result", "delivered").register(meterRegistry);
+        failed = Counter.builder("outbox.events").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("outbox.lag", this, relay -> relay.lagSeconds)
+                .description("Age in seconds of the oldest undelivered outbox event at the last relay run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public void relay() {
+        if (!enabled || !clusterMembership.owns(RELAY_KEY)) {
+            lagSeconds = 0;
+            return;
+        }
+        List<OutboxEvent> batch = List.of();
+        try {
+            do {
+                batch = outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    lagSeconds = 0;
+                    return;
+                }
+                LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+                lagSeconds = Duration.between(batch.get(0).getCreatedAt(), now).toMillis() / 1000.0;
+                domainEventBus.dispatch(batch.stream().map(this::toDomainEvent).toList());
+                outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), now);
+                delivered.increment(batch.size());
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("outbox relay stopped fromId={} error={}", batch.isEmpty() ? null : batch.get(0).getId(),
+                    e.toString());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgeDelivered() {
+        if (!enabled || !clusterMembership.owns(RELAY_KEY)) {
+            return;
+        }
+        try {
+            int purged = outboxEventRepository.deletePublishedBefore(
+                    LocalDateTime.now(ZoneOffset.UTC).minusHours(retentionHours));
+            if (purged > 0) {
+                log.info("outbox purged events={}", purged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("outbox purge failed error={}", e.toString());
+        }
+    }
+    
+    private DomainEvent toDomainEvent(OutboxEvent event) {
+        try {
+            return new DomainEvent(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                    event.getEventType(), objectMapper.readValue(event.getPayload(), MAP_TYPE), event.getCreatedAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event id=" + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.AlertTrigger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface AlertTriggerRepository extends JpaRepository<AlertTrigger, Long> {
+    
+    /** The next page of a user's triggers after the last id they have seen. */
+    List<AlertTrigger> findTop100ByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId);
+    
+    Optional<AlertTrigger> findTopByUserIdOrderByIdDesc(Long userId);
+}
@@ -0,0 +1,35 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+    
+    /**
+     * @return 0 if the node has no row, e.g. because it stalled long enough for another node to reap it
+     */
+    @Modifying
+    @Transactional
+    @Query("update ClusterNode n set n.heartbeatAt = :now where n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("delete from ClusterNode n where n.heartbeatAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+    
+    /** Read-write so it runs on the primary: a lagging replica would hide nodes that just joined. */
+    @Transactional
+    @Query("select n.nodeId from ClusterNode n where n.heartbeatAt >= :cutoff")
+    List<String> findLiveNodeIds(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -3,17 +3,34 @@ package com.portfoliotracker.repository;
 import com.portfoliotracker.entity.Portfolio;
 import com.portfoliotracker.entity.PortfolioAsset;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface PortfolioAssetRepository extends JpaRepository<PortfolioAsset, Long> {
     List<PortfolioAsset> findByPortfolio(Portfolio portfolio);
     List<PortfolioAsset> findByPortfolioId(Long portfolioId);
+    List<PortfolioAsset> findByPortfolioIdIn(Collection<Long> portfolioIds);
     Optional<PortfolioAsset> findByPortfolioAndTickerSymbol(Portfolio portfolio, String tickerSymbol);
+    Optional<PortfolioAsset> findByIdAndPortfolioId(Long id, Long portfolioId);
     Optional<PortfolioAsset> findByPortfolioIdAndTickerSymbol(Long portfolioId, String tickerSymbol);
+    
+    @Query("select distinct a.tickerSymbol from PortfolioAsset a")
+    List<String> findDistinctTickerSymbols();
+    
+    /** Holdings per ticker, normalized as ticker subscriptions are, as {@code [tickerSymbol, count]} rows. */
+    @Query("select upper(trim(a.tickerSymbol)), count(a) from PortfolioAsset a group by upper(trim(a.tickerSymbol))")
+    List<Object[]> countByNormalizedTicker();
+    
+    @Query("select count(a) from PortfolioAsset a where upper(trim(a.tickerSymbol)) = :ticker")
+    long countByNormalizedTicker(@Param("ticker") String ticker);
 }
 
 
@@ -0,0 +1,27 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.PortfolioInsight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface PortfolioInsightRepository extends JpaRepository<PortfolioInsight, Long> {
+    Optional<PortfolioInsight> findByPortfolioId(Long portfolioId);
+    List<PortfolioInsight> findByPortfolioIdIn(Collection<Long> portfolioIds);
+    
+    /**
+     * The stored insight if the portfolio belongs to {@code userId} and nothing has changed since it was
+     * computed; empty on any miss, including a foreign or missing portfolio.
+     */
+    @Query("select i from PortfolioInsight i join Portfolio p on p.id = i.portfolioId "
+            + "where p.id = :portfolioId and p.user.id = :userId and i.portfolioRevision = coalesce(p.revision, 0)")
+    Optional<PortfolioInsight> findCurrentForOwner(@Param("portfolioId") Long portfolioId, @Param("userId") Long userId);
+}
@@ -2,15 +2,46 @@ package com.portfoliotracker.repository;
 
 import com.portfoliotracker.entity.Portfolio;
 import com.portfoliotracker.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     List<Portfolio> findByUser(User user);
     List<Portfolio> findByUserId(Long userId);
+    Optional<Portfolio> findByIdAndUserId(Long id, Long userId);
+    
+    /**
+     * The portfolio with its holdings in one statement, or empty if it does not exist or belongs to
+     * someone else.
+     */
+    @Query("select distinct p from Portfolio p left join fetch p.assets where p.id = :id and p.user.id = :userId")
+    Optional<Portfolio> findWithAssetsByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    /**
+     * Keyset page of (id, revision) pairs after {@code afterId}, for batch jobs walking every portfolio.
+     */
+    @Query("select p.id, coalesce(p.revision, 0) from Portfolio p where p.id > :afterId order by p.id")
+    List<Object[]> findIdAndRevisionAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Records a holding change. The row stays locked until the caller's transaction ends, so changes to one
+     * portfolio commit one after the other.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Portfolio p set p.revision = coalesce(p.revision, 0) + 1, p.updatedAt = :now where p.id = :id")
+    int bumpRevision(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
 
 
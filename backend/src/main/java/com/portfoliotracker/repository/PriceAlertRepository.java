@@ -0,0 +1,34 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.PriceAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+    List<PriceAlert> findByUserId(Long userId);
+    Optional<PriceAlert> findByIdAndUserId(Long id, Long userId);
+    List<PriceAlert> findByTriggeredAtIsNull();
+    long countByUserIdAndTriggeredAtIsNull(Long userId);
+    long countByTickerSymbolAndTriggeredAtIsNull(String tickerSymbol);
+    
+    @Query("select a.tickerSymbol, count(a) from PriceAlert a where a.triggeredAt is null group by a.tickerSymbol")
+    List<Object[]> countActiveByTicker();
+    
+    /**
+     * Fires an active alert. Instances that see the same quote race here, and only one of them gets 1.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PriceAlert a set a.triggeredAt = :now where a.id = :id and a.triggeredAt is null")
+    int markTriggered(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
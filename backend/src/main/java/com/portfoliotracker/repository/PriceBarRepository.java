@@ -0,0 +1,28 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.PriceBar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface PriceBarRepository extends JpaRepository<PriceBar, Long> {
+    
+    /**
+     * Closing prices only, as (tickerSymbol, tradeDate, closePrice) rows ordered by date.
+     * Avoids materialising full entities when assembling return matrices.
+     */
+    @Query("select b.tickerSymbol, b.tradeDate, b.closePrice from PriceBar b " +
+           "where b.tickerSymbol in :tickers and b.tradeDate >= :from order by b.tradeDate")
+    List<Object[]> findClosesSince(@Param("tickers") Collection<String> tickers, @Param("from") LocalDate from);
+    
+    @Query("select max(b.tradeDate) from PriceBar b where b.tickerSymbol = :ticker")
+    LocalDate findLatestTradeDate(@Param("ticker") String ticker);
+}
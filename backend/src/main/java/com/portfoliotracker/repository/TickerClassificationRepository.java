@@ -0,0 +1,11 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.TickerClassification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface TickerClassificationRepository extends JpaRepository<TickerClassification, String> {
+}
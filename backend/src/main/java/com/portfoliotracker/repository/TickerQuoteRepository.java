@@ -0,0 +1,44 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.TickerQuote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+@Transactional(readOnly = true)
+public interface TickerQuoteRepository extends JpaRepository<TickerQuote, String> {
+    
+    /**
+     * Takes the refresh lease of a ticker if nobody has taken it since {@code cutoff}. The row lock of the
+     * update makes this atomic across instances.
+     *
+     * @return 1 if the caller now holds the lease, 0 if the ticker has no row yet or someone else holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("update TickerQuote q set q.claimedBy = :nodeId, q.claimedAt = :now " +
+           "where q.tickerSymbol = :ticker and q.claimedAt < :cutoff")
+    int claim(@Param("ticker") String ticker, @Param("nodeId") String nodeId,
+              @Param("now") LocalDateTime now, @Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * Takes the lease of a ticker that has no row yet; fails with a duplicate key if another instance got
+     * there first.
+     */
+    @Modifying
+    @Transactional
+    @Query("insert into TickerQuote (tickerSymbol, claimedBy, claimedAt) values (:ticker, :nodeId, :now)")
+    int insertClaim(@Param("ticker") String ticker, @Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("update TickerQuote q set q.quote = :quote, q.quotedAt = :quotedAt where q.tickerSymbol = :ticker")
+    int updateQuote(@Param("ticker") String ticker, @Param("quote") String quote,
+                    @Param("quotedAt") LocalDateTime quotedAt);
+}
@@ -0,0 +1,40 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.TickerSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface TickerSubscriptionRepository extends JpaRepository<TickerSubscription, String> {
+    
+    @Query("select s.tickerSymbol from TickerSubscription s where s.subscribers > 0 order by s.tickerSymbol")
+    List<String> findSubscribedTickerSymbols();
+    
+    /** Creates the row of a ticker nobody refers to yet; fails with a duplicate key if it exists. */
+    @Modifying
+    @Transactional
+    @Query("insert into TickerSubscription (tickerSymbol, subscribers) values (:ticker, 0)")
+    int insert(@Param("ticker") String ticker);
+    
+    /**
+     * Moves a ticker's count by {@code delta}, holding its row lock until the caller's transaction ends.
+     *
+     * @return 0 if the ticker has no row
+     */
+    @Modifying
+    @Transactional
+    @Query("update TickerSubscription s set s.subscribers = s.subscribers + :delta where s.tickerSymbol = :ticker")
+    int adjust(@Param("ticker") String ticker, @Param("delta") long delta);
+    
+    @Modifying
+    @Transactional
+    @Query("update TickerSubscription s set s.subscribers = :subscribers where s.tickerSymbol = :ticker")
+    int setSubscribers(@Param("ticker") String ticker, @Param("subscribers") long subscribers);
+}
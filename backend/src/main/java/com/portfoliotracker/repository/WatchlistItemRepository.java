@@ -0,0 +1,30 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.WatchlistItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface WatchlistItemRepository extends JpaRepository<WatchlistItem, Long> {
+    List<WatchlistItem> findByWatchlistIdOrderByIdAsc(Long watchlistId);
+    Optional<WatchlistItem> findByWatchlistIdAndTickerSymbol(Long watchlistId, String tickerSymbol);
+    long countByWatchlistId(Long watchlistId);
+    long countByTickerSymbol(String tickerSymbol);
+    
+    /** Entries per ticker, as {@code [tickerSymbol, count]} rows. */
+    @Query("select i.tickerSymbol, count(i) from WatchlistItem i group by i.tickerSymbol")
+    List<Object[]> countByTicker();
+    
+    @Modifying
+    @Transactional
+    @Query("delete from WatchlistItem i where i.watchlist.id = :watchlistId")
+    int deleteByWatchlistId(@Param("watchlistId") Long watchlistId);
+}
@@ -0,0 +1,23 @@
+package com.portfoliotracker.repository;
+
+import com.portfoliotracker.entity.Watchlist;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface WatchlistRepository extends JpaRepository<Watchlist, Long> {
+    List<Watchlist> findByUserId(Long userId);
+    Optional<Watchlist> findByIdAndUserId(Long id, Long userId);
+    long countByUserId(Long userId);
+    
+    /** Locks the watchlist row until the caller's transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Watchlist> findForUpdateByIdAndUserId(Long id, Long userId);
+}
@@ -0,0 +1,55 @@
+package com.portfoliotracker.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal rebuilt from JWT claims. Carries everything controllers need to scope a request to its
+ * owner, so authorised reads do not have to load the {@code users} row.
+ */
+public final class AuthenticatedUser implements Principal {
+    
+    private final Long id;
+    private final String username;
+    private final List<String> roles;
+    private final List<GrantedAuthority> authorities;
+    
+    public AuthenticatedUser(Long id, String username, List<String> roles) {
+        this.id = id;
+        this.username = username;
+        this.roles = List.copyOf(roles);
+        this.authorities = this.roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public List<String> getRoles() {
+        return roles;
+    }
+    
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+    
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,62 @@
+package com.portfoliotracker.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket in its GCRA form: each key holds only its theoretical arrival time (TAT) in an
+ * {@link AtomicLong}, advanced by compare-and-set, so the hot path is one map lookup and one CAS.
+ * A request is admitted when the TAT is no further ahead of now than the burst allowance.
+ */
+public class GcraRateLimiter {
+    
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Map<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    
+    public GcraRateLimiter(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / requestsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    }
+    
+    /**
+     * @return 0 if the request is admitted, otherwise nanoseconds until it would be
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong tat = arrivals.get(key);
+        if (tat == null) {
+            AtomicLong created = new AtomicLong(nowNanos);
+            tat = arrivals.putIfAbsent(key, created);
+            if (tat == null) {
+                tat = created;
+            }
+        }
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, nowNanos);
+            long wait = base - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Drops keys whose bucket has been full for at least {@code idleNanos}; they would be recreated
+     * in exactly the same state.
+     */
+    public void evictIdle(long nowNanos, long idleNanos) {
+        arrivals.values().removeIf(tat -> nowNanos - tat.get() >= idleNanos);
+    }
+    
+    public int size() {
+        return arrivals.size();
+    }
+}
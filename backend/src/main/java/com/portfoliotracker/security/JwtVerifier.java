@@ -0,0 +1,184 @@
+package com.portfoliotracker.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a bearer token into an {@link Authentication}, parsing and verifying each distinct token once.
+ * <p>
+ * Verified tokens are remembered by their SHA-256 digest until they expire, so repeat requests with the
+ * same token skip the HMAC check and JSON decoding. The digest is over the full token, so a forged
+ * token can never hit a cached entry. The cache is bounded: on overflow expired entries are purged, and
+ * if it is still full new tokens are verified without being cached.
+ * <p>
+ * Within a request the outcome is kept in a request attribute, so {@link RateLimitFilter} (which runs
+ * first) and {@link JwtAuthenticationFilter} share one verification.
+ */
+@Component
+public class JwtVerifier {
+    
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxEntries;
+    
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private static final String REQUEST_ATTRIBUTE = JwtVerifier.class.getName() + ".AUTHENTICATION";
+    
+    private Timer authenticatedTimer;
+    private Timer rejectedTimer;
+    
+    private final Map<TokenDigest, CachedAuthentication> cache = new ConcurrentHashMap<>();
+    
+    // Cloned per call rather than held in a ThreadLocal: with virtual threads every request runs on a
+    // fresh thread, so a per-thread instance would be built and discarded each time anyway
+    private static final MessageDigest SHA_256_PROTOTYPE;
+    
+    static {
+        try {
+            SHA_256_PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private record TokenDigest(long a, long b, long c, long d) {}
+    
+    private record CachedAuthentication(Authentication authentication, long expiresAtMillis) {}
+    
+    @PostConstruct
+    public void initMetrics() {
+        authenticatedTimer = Timer.builder("security.jwt.verification").tag("result", "authenticated").register(meterRegistry);
+        rejectedTimer = Timer.builder("security.jwt.verification").tag("result", "rejected").register(meterRegistry);
+    }
+    
+    /**
+     * The principal of the request's bearer token, verified at most once per request.
+     *
+     * @return the authenticated principal, or {@code null} if there is no bearer token or it is invalid or expired
+     */
+    public Authentication authenticate(HttpServletRequest request) {
+        Object shared = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (shared != null) {
+            return shared instanceof Authentication authentication ? authentication : null;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Authentication authentication = null;
+        if (header != null && header.startsWith("Bearer ")) {
+            long start = System.nanoTime();
+            authentication = authenticate(header.substring(7));
+            (authentication != null ? authenticatedTimer : rejectedTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        // Boolean.FALSE records "no principal", so a missing or rejected token is not looked at again either
+        request.setAttribute(REQUEST_ATTRIBUTE, authentication != null ? authentication : Boolean.FALSE);
+        return authentication;
+    }
+    
+    /**
+     * @return the authenticated principal, or {@code null} if the token is invalid or expired
+     */
+    public Authentication authenticate(String token) {
+        TokenDigest digest = digest(token);
+        long now = System.currentTimeMillis();
+        CachedAuthentication cached = cache.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                return cached.authentication();
+            }
+            cache.remove(digest, cached);
+            return null;
+        }
+        
+        Claims claims;
+        try {
+            claims = tokenProvider.parseClaims(token);
+        } catch (Exception e) {
+            return null;
+        }
+        AuthenticatedUser principal = toPrincipal(claims);
+        if (principal == null) {
+            return null;
+        }
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities()
+        );
+        
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            if (cache.size() >= maxEntries) {
+                evictExpired();
+            }
+            if (cache.size() < maxEntries) {
+                cache.put(digest, new CachedAuthentication(authentication, expiration.getTime()));
+            }
+        }
+        return authentication;
+    }
+    
+    /**
+     * Tokens issued before the user id claim existed are rejected, which forces a fresh login.
+     */
+    private static AuthenticatedUser toPrincipal(Claims claims) {
+        String username = claims.getSubject();
+        Number userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+        if (username == null || userId == null) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>();
+        Object rawRoles = claims.get(JwtTokenProvider.CLAIM_ROLES);
+        if (rawRoles instanceof Collection<?> values) {
+            for (Object role : values) {
+                roles.add(String.valueOf(role));
+            }
+        }
+        if (roles.isEmpty()) {
+            roles.add("ROLE_USER");
+        }
+        return new AuthenticatedUser(userId.longValue(), username, roles);
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.cache.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+    
+    private static TokenDigest digest(String token) {
+        MessageDigest sha256;
+        try {
+            sha256 = (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+}
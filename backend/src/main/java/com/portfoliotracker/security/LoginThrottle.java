@@ -0,0 +1,79 @@
+package com.portfoliotracker.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Brute-force protection for the login endpoint: failed attempts are counted per username and all
+ * attempts per client IP, each over its own sliding window.
+ * <p>
+ * A username's attempt is counted as failed when it is admitted, before the password check, and taken
+ * back if it succeeds or never reaches the check. A parallel burst against one username therefore
+ * cannot slip past the limit while its password checks are still running.
+ */
+@Component
+public class LoginThrottle {
+    
+    private final int maxFailuresPerUsername;
+    private final int maxAttemptsPerIp;
+    private final SlidingWindowCounter usernameAttempts;
+    private final SlidingWindowCounter ipAttempts;
+    
+    public LoginThrottle(
+            @Value("${auth.login.throttle.username.max-failures:5}") int maxFailuresPerUsername,
+            @Value("${auth.login.throttle.username.window-seconds:900}") long usernameWindowSeconds,
+            @Value("${auth.login.throttle.ip.max-attempts:20}") int maxAttemptsPerIp,
+            @Value("${auth.login.throttle.ip.window-seconds:60}") long ipWindowSeconds) {
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.usernameAttempts = new SlidingWindowCounter(usernameWindowSeconds * 1000);
+        this.ipAttempts = new SlidingWindowCounter(ipWindowSeconds * 1000);
+    }
+    
+    /**
+     * Records a login attempt and decides whether it may proceed. An allowed attempt stays counted as a
+     * failure of its username until {@link #recordSuccess} or {@link #release}.
+     *
+     * @return 0 if the attempt is allowed, otherwise the number of seconds the client should wait
+     */
+    public long tryAttempt(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        String key = key(username);
+        if (usernameAttempts.increment(key, now) > maxFailuresPerUsername) {
+            usernameAttempts.decrement(key, now);
+            return retryAfterSeconds(usernameAttempts, now);
+        }
+        if (ipAttempts.increment(clientIp, now) > maxAttemptsPerIp) {
+            usernameAttempts.decrement(key, now);
+            return retryAfterSeconds(ipAttempts, now);
+        }
+        return 0;
+    }
+    
+    public void recordSuccess(String username) {
+        usernameAttempts.reset(key(username));
+    }
+    
+    /** Takes back an allowed attempt that never got to check the password. */
+    public void release(String username) {
+        usernameAttempts.decrement(key(username), System.currentTimeMillis());
+    }
+    
+    @Scheduled(fixedDelayString = "${auth.login.throttle.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        usernameAttempts.evictIdle(now);
+        ipAttempts.evictIdle(now);
+    }
+    
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+    
+    private static long retryAfterSeconds(SlidingWindowCounter counter, long now) {
+        return Math.max(1, (counter.millisUntilNextWindow(now) + 999) / 1000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.portfoliotracker.security;
+
+import com.portfoliotracker.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits requests before they reach the security chain. The caller is identified by the user id
+ * in a valid bearer token (verified once per request by {@link JwtVerifier}, which hands the result on
+ * to {@link JwtAuthenticationFilter}) or, for anonymous and invalid-token requests, by client address.
+ * Behind the load balancer that is the forwarded address resolved by Tomcat
+ * ({@code server.forward-headers-strategy}), not the proxy's. Requests over the limit get 429 with
+ * {@code Retry-After}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final byte[] REJECTED_BODY = "{\"message\":\"Too many requests, please slow down\"}".getBytes();
+    
+    private record Route(String name, String[] pathPrefixes, GcraRateLimiter limiter,
+                         Counter allowed, Counter rejected) {}
+    
+    private final JwtVerifier jwtVerifier;
+    private final Route[] routes;
+    private final long idleNanos;
+    
+    public RateLimitFilter(RateLimitProperties properties, JwtVerifier jwtVerifier, MeterRegistry meterRegistry) {
+        this.jwtVerifier = jwtVerifier;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+        List<RateLimitProperties.Group> groups = properties.getGroups();
+        this.routes = new Route[groups.size()];
+        for (int i = 0; i < routes.length; i++) {
+            RateLimitProperties.Group group = groups.get(i);
+            GcraRateLimiter limiter = new GcraRateLimiter(group.getRequestsPerSecond(), group.getBurst());
+            routes[i] = new Route(
+                    group.getName(),
+                    group.getPathPrefixes().toArray(String[]::new),
+                    limiter,
+                    Counter.builder("ratelimit.requests").tag("group", group.getName()).tag("outcome", "allowed")
+                            .register(meterRegistry),
+                    Counter.builder("ratelimit.requests").tag("group", group.getName()).tag("outcome", "rejected")
+                            .register(meterRegistry));
+            Gauge.builder("ratelimit.tracked.keys", limiter, GcraRateLimiter::size)
+                    .tag("group", group.getName())
+                    .register(meterRegistry);
+        }
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        
+        Route route = "OPTIONS".equals(request.getMethod()) ? null : match(request.getRequestURI());
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        long waitNanos = route.limiter().tryAcquire(clientKey(request), System.nanoTime());
+        if (waitNanos == 0) {
+            route.allowed().increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        route.rejected().increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+    
+    private Route match(String uri) {
+        for (Route route : routes) {
+            for (String prefix : route.pathPrefixes()) {
+                if (uri.startsWith(prefix)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+    
+    // The verification is kept on the request, so JwtAuthenticationFilter does not repeat it
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = jwtVerifier.authenticate(request);
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "u:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    @Scheduled(fixedDelayString = "${ratelimit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Route route : routes) {
+            route.limiter().evictIdle(now, idleNanos);
+        }
+    }
+}
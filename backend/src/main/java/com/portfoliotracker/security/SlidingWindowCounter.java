@@ -0,0 +1,120 @@
+package com.portfoliotracker.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-key event counter over a sliding window, approximated from the current and previous fixed
+ * windows (the previous count is weighted by how much of it still overlaps the sliding window).
+ * <p>
+ * Each key's state is an immutable {@link Window} swapped by compare-and-set, so concurrent updates
+ * never block. Keys untouched for two full windows carry no weight and are dropped by
+ * {@link #evictIdle(long)}.
+ */
+class SlidingWindowCounter {
+    
+    private record Window(long start, int current, int previous) {}
+    
+    private final long windowMillis;
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+    
+    SlidingWindowCounter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+    
+    /**
+     * Records one event for {@code key} and returns the resulting sliding count.
+     */
+    double increment(String key, long now) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            AtomicReference<Window> created = new AtomicReference<>(new Window(alignedStart(now), 0, 0));
+            ref = windows.putIfAbsent(key, created);
+            if (ref == null) {
+                ref = created;
+            }
+        }
+        while (true) {
+            Window old = ref.get();
+            Window rolled = roll(old, now);
+            Window next = new Window(rolled.start(), rolled.current() + 1, rolled.previous());
+            if (ref.compareAndSet(old, next)) {
+                return estimate(next, now);
+            }
+        }
+    }
+    
+    /**
+     * Takes back one event recorded by {@link #increment} (from the current fixed window, or from the
+     * previous one once the window has rolled). A no-op once the event has aged out.
+     */
+    void decrement(String key, long now) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            return;
+        }
+        while (true) {
+            Window old = ref.get();
+            Window rolled = roll(old, now);
+            Window next;
+            if (rolled.current() > 0) {
+                next = new Window(rolled.start(), rolled.current() - 1, rolled.previous());
+            } else if (rolled.previous() > 0) {
+                next = new Window(rolled.start(), 0, rolled.previous() - 1);
+            } else {
+                return;
+            }
+            if (ref.compareAndSet(old, next)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Current sliding count for {@code key} without recording anything.
+     */
+    double count(String key, long now) {
+        AtomicReference<Window> ref = windows.get(key);
+        return ref == null ? 0 : estimate(roll(ref.get(), now), now);
+    }
+    
+    /**
+     * Milliseconds until the current fixed window ends, which is when the count for {@code key} can
+     * next go down.
+     */
+    long millisUntilNextWindow(long now) {
+        return alignedStart(now) + windowMillis - now;
+    }
+    
+    void reset(String key) {
+        windows.remove(key);
+    }
+    
+    void evictIdle(long now) {
+        long cutoff = alignedStart(now) - windowMillis;
+        windows.values().removeIf(ref -> ref.get().start() < cutoff);
+    }
+    
+    int size() {
+        return windows.size();
+    }
+    
+    private long alignedStart(long now) {
+        return now - Math.floorMod(now, windowMillis);
+    }
+    
+    private Window roll(Window window, long now) {
+        long start = alignedStart(now);
+        if (window.start() == start) {
+            return window;
+        }
+        int previous = window.start() == start - windowMillis ? window.current() : 0;
+        return new Window(start, 0, previous);
+    }
+    
+    private double estimate(Window window, long now) {
+        double overlap = 1.0 - (double) (now - window.start()) / windowMillis;
+        return window.current() + window.previous() * overlap;
+    }
+}
@@ -1,101 +1,242 @@
 package com.portfoliotracker.service;
 
+import com.portfoliotracker.analytics.ClassificationIndex;
+import com.portfoliotracker.dto.OptimizationRequest;
 import com.portfoliotracker.entity.PortfolioAsset;
-import com.portfoliotracker.repository.PortfolioAssetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 public class AISimulationService {
     
+    private static final List<String> DIVERSIFICATION_CANDIDATES =
+            List.of("VTI", "VEA", "VWO", "BND", "VNQ", "GLD", "TLT", "IWM");
+    private static final List<String> EXPANSION_CANDIDATES =
+            List.of("SPY", "QQQ", "IWM", "EFA", "EEM", "AGG", "LQD", "HYG");
+    private static final List<String> OPTIMIZATION_CANDIDATES =
+            List.of("VTI", "VXUS", "BND", "VNQ", "GLD", "TLT", "IEFA", "IEMG");
+    
+    /**
+     * Every ticker a recommendation adds to the optimiser universe when the request names no candidates;
+     * {@link CovarianceService} keeps them in its shared matrix.
+     */
+    public static final Set<String> DEFAULT_CANDIDATES = Set.copyOf(Stream.of(
+            DIVERSIFICATION_CANDIDATES, EXPANSION_CANDIDATES, OPTIMIZATION_CANDIDATES).flatMap(List::stream).toList());
+    
     @Autowired
-    private PortfolioAssetRepository portfolioAssetRepository;
+    private PortfolioService portfolioService;
     
     @Autowired
     private AlphaVantageService alphaVantageService;
     
-    public Map<String, Object> calculateDiversificationScore(Long portfolioId) {
-        List<PortfolioAsset> assets = portfolioAssetRepository.findByPortfolioId(portfolioId);
+    @Autowired
+    private PortfolioOptimizationService portfolioOptimizationService;
+    
+    @Autowired
+    private ClassificationService classificationService;
+    
+    public Map<String, Object> calculateDiversificationScore(Long portfolioId, Long userId) {
+        return calculateDiversificationScore(portfolioService.getOwnedAssets(portfolioId, userId));
+    }
+    
+    /**
+     * Scores diversification from concentration at four levels: individual holdings, sector, industry and
+     * asset class, each measured with the Herfindahl-Hirschman Index (HHI) of market-value weights.
+     * Holdings the classification index does not know yet count as their own group. They are queued for
+     * background classification and never trigger an upstream call here.
+     */
+    public Map<String, Object> calculateDiversificationScore(List<PortfolioAsset> assets) {
+        return calculateDiversificationScore(assets, classificationService.resolve(normalizedTickers(assets)));
+    }
+    
+    /**
+     * Same as {@link #calculateDiversificationScore(List)} with the holdings' classification ids already
+     * resolved (aligned with {@code assets}), so scoring is array arithmetic only.
+     */
+    public Map<String, Object> calculateDiversificationScore(List<PortfolioAsset> assets, ClassificationService.ResolvedTickers classes) {
         
         if (assets.isEmpty()) {
             Map<String, Object> result = new HashMap<>();
-            result.put("score", 0);
+            result.put("score", BigDecimal.ZERO);
             result.put("message", "No assets in portfolio");
             return result;
         }
         
-        // Calculate diversification metrics
         int assetCount = assets.size();
-        BigDecimal totalValue = assets.stream()
-                .map(PortfolioAsset::getTotalValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        ClassificationIndex index = classes.index();
+        int[] tickerIds = classes.tickerIds();
         
-        // Calculate concentration risk (Herfindahl-Hirschman Index)
-        BigDecimal hhi = BigDecimal.ZERO;
-        for (PortfolioAsset asset : assets) {
-            BigDecimal weight = asset.getTotalValue().divide(totalValue, 4, RoundingMode.HALF_UP);
-            hhi = hhi.add(weight.multiply(weight));
+        // Market-value weights; fall back to cost basis for unpriced holdings and to equal weights if
+        // nothing has a value, so the score never depends on whether prices happen to be loaded
+        double[] weights = new double[assetCount];
+        double totalValue = 0.0;
+        for (int k = 0; k < assetCount; k++) {
+            weights[k] = assets.get(k).getMarketValue().doubleValue();
+            totalValue += weights[k];
+        }
+        String weightBasis = "MARKET_VALUE";
+        if (totalValue <= 0.0) {
+            Arrays.fill(weights, 1.0 / assetCount);
+            weightBasis = "EQUAL";
+        } else {
+            for (int k = 0; k < assetCount; k++) {
+                weights[k] /= totalValue;
+            }
         }
         
-        // Convert HHI to diversification score (0-100)
-        BigDecimal diversificationScore = BigDecimal.valueOf(100)
-                .subtract(hhi.multiply(BigDecimal.valueOf(100)));
-        
-        // Adjust score based on number of assets
-        if (assetCount >= 10) {
-            diversificationScore = diversificationScore.multiply(new BigDecimal("1.1"));
-        } else if (assetCount >= 5) {
-            diversificationScore = diversificationScore.multiply(new BigDecimal("1.05"));
+        double holdingHhi = 0.0;
+        for (double weight : weights) {
+            holdingHhi += weight * weight;
         }
+        double sectorHhi = groupHhi(index, ClassificationIndex.SECTOR, tickerIds, weights);
+        double industryHhi = groupHhi(index, ClassificationIndex.INDUSTRY, tickerIds, weights);
+        double assetClassHhi = groupHhi(index, ClassificationIndex.ASSET_CLASS, tickerIds, weights);
+        
+        // Sector and industry concentration dominate: five semiconductor names are one bet, not five
+        double concentration = 0.25 * holdingHhi + 0.35 * sectorHhi + 0.25 * industryHhi + 0.15 * assetClassHhi;
+        BigDecimal diversificationScore = BigDecimal.valueOf(100.0 * (1.0 - concentration));
         
-        // Cap at 100
-        if (diversificationScore.compareTo(BigDecimal.valueOf(100)) > 0) {
-            diversificationScore = BigDecimal.valueOf(100);
+        Map<String, BigDecimal> sectorWeights = new TreeMap<>();
+        List<String> unclassified = new ArrayList<>();
+        for (int k = 0; k < assetCount; k++) {
+            int sector = index.group(ClassificationIndex.SECTOR, tickerIds[k]);
+            String label = sector == ClassificationIndex.UNCLASSIFIED ? "UNCLASSIFIED" : index.label(ClassificationIndex.SECTOR, sector);
+            sectorWeights.merge(label, BigDecimal.valueOf(weights[k]), BigDecimal::add);
+            if (sector == ClassificationIndex.UNCLASSIFIED) {
+                unclassified.add(assets.get(k).getTickerSymbol());
+            }
         }
+        sectorWeights.replaceAll((sector, weight) -> weight.setScale(4, RoundingMode.HALF_UP));
         
         Map<String, Object> result = new HashMap<>();
         result.put("score", diversificationScore.setScale(2, RoundingMode.HALF_UP));
         result.put("assetCount", assetCount);
-        result.put("hhi", hhi.setScale(4, RoundingMode.HALF_UP));
+        result.put("hhi", BigDecimal.valueOf(holdingHhi).setScale(4, RoundingMode.HALF_UP));
+        result.put("sectorHhi", BigDecimal.valueOf(sectorHhi).setScale(4, RoundingMode.HALF_UP));
+        result.put("industryHhi", BigDecimal.valueOf(industryHhi).setScale(4, RoundingMode.HALF_UP));
+        result.put("assetClassHhi", BigDecimal.valueOf(assetClassHhi).setScale(4, RoundingMode.HALF_UP));
+        result.put("effectiveHoldings", BigDecimal.valueOf(1.0 / holdingHhi).setScale(2, RoundingMode.HALF_UP));
+        result.put("sectorWeights", sectorWeights);
+        result.put("unclassifiedTickers", unclassified);
+        result.put("weightBasis", weightBasis);
         result.put("message", getDiversificationMessage(diversificationScore));
         
         return result;
     }
     
-    public Map<String, Object> generateRecommendation(Long portfolioId) {
-        List<PortfolioAsset> assets = portfolioAssetRepository.findByPortfolioId(portfolioId);
+    static List<String> normalizedTickers(List<PortfolioAsset> assets) {
+        List<String> tickers = new ArrayList<>(assets.size());
+        for (PortfolioAsset asset : assets) {
+            tickers.add(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT));
+        }
+        return tickers;
+    }
+    
+    /**
+     * HHI of weights aggregated by group id; unclassified holdings are treated as singleton groups.
+     */
+    private static double groupHhi(ClassificationIndex index, int dimension, int[] tickerIds, double[] weights) {
+        double[] groupWeights = new double[index.labelCount(dimension)];
+        double hhi = 0.0;
+        for (int k = 0; k < tickerIds.length; k++) {
+            int group = index.group(dimension, tickerIds[k]);
+            if (group == ClassificationIndex.UNCLASSIFIED) {
+                hhi += weights[k] * weights[k];
+            } else {
+                groupWeights[group] += weights[k];
+            }
+        }
+        for (double weight : groupWeights) {
+            hhi += weight * weight;
+        }
+        return hhi;
+    }
+    
+    public Map<String, Object> generateRecommendation(Long portfolioId, Long userId) {
+        return generateRecommendation(portfolioId, userId, new OptimizationRequest());
+    }
+    
+    public Map<String, Object> generateRecommendation(Long portfolioId, Long userId, OptimizationRequest request) {
+        return generateRecommendation(portfolioService.getOwnedAssets(portfolioId, userId), request);
+    }
+    
+    public Map<String, Object> generateRecommendation(List<PortfolioAsset> assets, OptimizationRequest request) {
+        return generateRecommendation(assets, classificationService.resolve(normalizedTickers(assets)), request);
+    }
+    
+    public Map<String, Object> generateRecommendation(List<PortfolioAsset> assets, ClassificationService.ResolvedTickers classes,
+                                                      OptimizationRequest request) {
+        request.checkWeightBounds();
         
         // Analyze current portfolio
-        Map<String, Object> diversification = calculateDiversificationScore(portfolioId);
+        Map<String, Object> diversification = calculateDiversificationScore(assets, classes);
         BigDecimal score = (BigDecimal) diversification.get("score");
         
         Map<String, Object> recommendation = new HashMap<>();
+        List<String> defaultCandidates;
         
         if (score.compareTo(new BigDecimal("70")) < 0) {
             // Low diversification - recommend adding more assets
             recommendation.put("type", "DIVERSIFICATION");
             recommendation.put("priority", "HIGH");
             recommendation.put("message", "Your portfolio has low diversification. Consider adding more assets from different sectors.");
-            recommendation.put("suggestedAssets", getSuggestedAssetsForDiversification());
+            defaultCandidates = getSuggestedAssetsForDiversification();
         } else if (assets.size() < 5) {
             // Few assets - recommend expanding
             recommendation.put("type", "EXPANSION");
             recommendation.put("priority", "MEDIUM");
             recommendation.put("message", "Consider adding more assets to improve portfolio stability.");
-            recommendation.put("suggestedAssets", getSuggestedAssetsForExpansion());
+            defaultCandidates = getSuggestedAssetsForExpansion();
         } else {
             // Well diversified - suggest optimization
             recommendation.put("type", "OPTIMIZATION");
             recommendation.put("priority", "LOW");
             recommendation.put("message", "Your portfolio is well diversified. Consider rebalancing based on market conditions.");
-            recommendation.put("suggestedAssets", getSuggestedAssetsForOptimization());
+            defaultCandidates = getSuggestedAssetsForOptimization();
+        }
+        recommendation.put("suggestedAssets", defaultCandidates);
+        
+        if (assets.isEmpty()) {
+            return recommendation;
+        }
+        if (request.getCandidates() == null || request.getCandidates().isEmpty()) {
+            request.setCandidates(defaultCandidates);
+        }
+        
+        // Replace the static list with the candidates the optimizer actually allocates to
+        try {
+            Map<String, Object> optimization = portfolioOptimizationService.optimize(assets, request);
+            Set<String> held = new HashSet<>();
+            for (PortfolioAsset asset : assets) {
+                held.add(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT));
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, BigDecimal> targetWeights = (Map<String, BigDecimal>) optimization.get("targetWeights");
+            List<String> suggested = targetWeights.entrySet().stream()
+                    .filter(entry -> !held.contains(entry.getKey()))
+                    .filter(entry -> entry.getValue().compareTo(new BigDecimal("0.01")) >= 0)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            recommendation.put("suggestedAssets", suggested);
+            recommendation.put("optimization", optimization);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            recommendation.put("optimizationError", e.getMessage());
         }
         
         return recommendation;
@@ -114,19 +255,22 @@ public class AISimulationService {
     }
     
     private List<String> getSuggestedAssetsForDiversification() {
-        return List.of("VTI", "VEA", "VWO", "BND", "VNQ", "GLD", "TLT", "IWM");
+        return DIVERSIFICATION_CANDIDATES;
     }
     
     private List<String> getSuggestedAssetsForExpansion() {
-        return List.of("SPY", "QQQ", "IWM", "EFA", "EEM", "AGG", "LQD", "HYG");
+        return EXPANSION_CANDIDATES;
     }
     
     private List<String> getSuggestedAssetsForOptimization() {
-        return List.of("VTI", "VXUS", "BND", "VNQ", "GLD", "TLT", "IEFA", "IEMG");
+        return OPTIMIZATION_CANDIDATES;
+    }
+    
+    public Map<String, Object> simulatePortfolioPerformance(Long portfolioId, Long userId, int days) {
+        return simulatePortfolioPerformance(portfolioId, portfolioService.getOwnedAssets(portfolioId, userId), days);
     }
     
-    public Map<String, Object> simulatePortfolioPerformance(Long portfolioId, int days) {
-        List<PortfolioAsset> assets = portfolioAssetRepository.findByPortfolioId(portfolioId);
+    public Map<String, Object> simulatePortfolioPerformance(Long portfolioId, List<PortfolioAsset> assets, int days) {
         
         Map<String, Object> simulation = new HashMap<>();
         simulation.put("portfolioId", portfolioId);
@@ -152,8 +296,9 @@ public class AISimulationService {
         
         BigDecimal finalValue = totalCurrentValue.multiply(BigDecimal.ONE.add(cumulativeReturn));
         BigDecimal totalReturn = finalValue.subtract(totalCurrentValue);
-        BigDecimal returnPercentage = totalReturn.divide(totalCurrentValue, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
+        BigDecimal returnPercentage = totalCurrentValue.compareTo(BigDecimal.ZERO) == 0
+                ? BigDecimal.ZERO
+                : totalReturn.divide(totalCurrentValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
         
         simulation.put("currentValue", totalCurrentValue);
         simulation.put("simulatedValue", finalValue);
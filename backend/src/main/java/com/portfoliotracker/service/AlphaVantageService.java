@@ -2,23 +2,54 @@ package com.portfoliotracker.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.entity.TickerQuote;
+import com.portfoliotracker.event.QuoteUpdatedEvent;
+import com.portfoliotracker.repository.TickerQuoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneOffset;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class AlphaVantageService {
     
+    private static final Logger log = LoggerFactory.getLogger(AlphaVantageService.class);
+    
     @Value("${alpha.vantage.api.key}")
     private String apiKey;
     
     @Value("${alpha.vantage.base.url}")
     private String baseUrl;
     
+    @Value("${alpha.vantage.timeout-ms:10000}")
+    private long timeoutMillis;
+    
+    @Autowired
+    private QuoteCache quoteCache;
+    
+    @Autowired
+    private TickerQuoteRepository tickerQuoteRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     
@@ -28,51 +59,111 @@ public class AlphaVantageService {
     }
     
     public Map<String, Object> getStockQuote(String symbol) {
+        Map<String, Object> cached = quoteCache.get(symbol);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Object> shared = getSharedQuote(symbol);
+        if (shared != null) {
+            return shared;
+        }
         try {
-            String url = baseUrl + "?function=GLOBAL_QUOTE&symbol=" + symbol + "&apikey=" + apiKey;
-            
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            
-            JsonNode jsonNode = objectMapper.readTree(response);
-            JsonNode quoteNode = jsonNode.get("Global Quote");
+            JsonNode quoteNode = fetchGlobalQuote(symbol);
             
             if (quoteNode != null) {
-                Map<String, Object> stockData = new HashMap<>();
-                stockData.put("symbol", quoteNode.get("01. symbol").asText());
-                stockData.put("price", new BigDecimal(quoteNode.get("05. price").asText()));
-                stockData.put("change", new BigDecimal(quoteNode.get("09. change").asText()));
-                stockData.put("changePercent", quoteNode.get("10. change percent").asText());
-                stockData.put("volume", quoteNode.get("06. volume").asLong());
-                stockData.put("previousClose", new BigDecimal(quoteNode.get("08. previous close").asText()));
-                stockData.put("open", new BigDecimal(quoteNode.get("02. open").asText()));
-                stockData.put("high", new BigDecimal(quoteNode.get("03. high").asText()));
-                stockData.put("low", new BigDecimal(quoteNode.get("04. low").asText()));
-                
-                return stockData;
+                return cacheFetched(symbol, quoteNode);
             }
             
             return null;
         } catch (Exception e) {
-            e.printStackTrace();
+            logFailure("GLOBAL_QUOTE", symbol, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Calls upstream whatever the cache holds, and caches the result.
+     *
+     * @return the "Global Quote" object as received, or {@code null} if the call failed
+     */
+    public JsonNode refreshStockQuote(String symbol) {
+        try {
+            JsonNode quoteNode = fetchGlobalQuote(symbol);
+            if (quoteNode != null) {
+                cacheFetched(symbol, quoteNode);
+            }
+            return quoteNode;
+        } catch (Exception e) {
+            logFailure("GLOBAL_QUOTE", symbol, e);
+            return null;
+        }
+    }
+    
+    /**
+     * The quote another instance stored for a refreshed ticker (see {@link PriceRefreshService}), if it is
+     * no older than a cached one may be. It is cached until it would have expired had it been fetched here.
+     */
+    private Map<String, Object> getSharedQuote(String symbol) {
+        try {
+            TickerQuote shared = tickerQuoteRepository.findById(symbol.trim().toUpperCase(Locale.ROOT)).orElse(null);
+            if (shared == null || shared.getQuote() == null) {
+                return null;
+            }
+            long quotedAtMillis = shared.getQuotedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+            if (System.currentTimeMillis() - quotedAtMillis >= quoteCache.getTtlMillis()) {
+                return null;
+            }
+            return quoteCache.put(symbol, parseQuote(objectMapper.readTree(shared.getQuote())), quotedAtMillis);
+        } catch (Exception e) {
+            logFailure("SHARED_QUOTE", symbol, e);
             return null;
         }
     }
     
+    private Map<String, Object> cacheFetched(String symbol, JsonNode quoteNode) {
+        Map<String, Object> quote = quoteCache.put(symbol, parseQuote(quoteNode));
+        eventPublisher.publishEvent(new QuoteUpdatedEvent(symbol.trim().toUpperCase(Locale.ROOT),
+                (BigDecimal) quote.get("price")));
+        return quote;
+    }
+    
+    private JsonNode fetchGlobalQuote(String symbol) throws Exception {
+        String url = baseUrl + "?function=GLOBAL_QUOTE&symbol=" + symbol + "&apikey=" + apiKey;
+        return fetch("GLOBAL_QUOTE", url).get("Global Quote");
+    }
+    
+    /**
+     * Maps the "Global Quote" object of a GLOBAL_QUOTE response to the quote fields the API exposes.
+     */
+    public static Map<String, Object> parseQuote(JsonNode quoteNode) {
+        Map<String, Object> stockData = new HashMap<>();
+        stockData.put("symbol", quoteNode.get("01. symbol").asText());
+        stockData.put("price", new BigDecimal(quoteNode.get("05. price").asText()));
+        stockData.put("change", new BigDecimal(quoteNode.get("09. change").asText()));
+        stockData.put("changePercent", quoteNode.get("10. change percent").asText());
+        stockData.put("volume", quoteNode.get("06. volume").asLong());
+        stockData.put("previousClose", new BigDecimal(quoteNode.get("08. previous close").asText()));
+        stockData.put("open", new BigDecimal(quoteNode.get("02. open").asText()));
+        stockData.put("high", new BigDecimal(quoteNode.get("03. high").asText()));
+        stockData.put("low", new BigDecimal(quoteNode.get("04. low").asText()));
+        return stockData;
+    }
+    
+    /**
+     * Result of an OVERVIEW call. {@code overview} is null when there is none; {@code definitive} then tells an
+     * upstream answer without an overview (funds, unknown symbols) apart from a throttled or failed call.
+     */
+    public record OverviewLookup(Map<String, Object> overview, boolean definitive) {}
+    
     public Map<String, Object> getStockOverview(String symbol) {
+        return lookupStockOverview(symbol).overview();
+    }
+    
+    public OverviewLookup lookupStockOverview(String symbol) {
         try {
             String url = baseUrl + "?function=OVERVIEW&symbol=" + symbol + "&apikey=" + apiKey;
             
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            
-            JsonNode jsonNode = objectMapper.readTree(response);
+            JsonNode jsonNode = fetch("OVERVIEW", url);
             
             if (jsonNode.has("Symbol")) {
                 Map<String, Object> overview = new HashMap<>();
@@ -84,28 +175,31 @@ public class AlphaVantageService {
                 overview.put("marketCap", jsonNode.get("MarketCapitalization").asText());
                 overview.put("peRatio", jsonNode.get("PERatio").asText());
                 overview.put("dividendYield", jsonNode.get("DividendYield").asText());
+                overview.put("assetType", jsonNode.path("AssetType").asText(null));
                 
-                return overview;
+                return new OverviewLookup(overview, true);
             }
             
-            return null;
+            return new OverviewLookup(null, !jsonNode.has("Note") && !jsonNode.has("Information"));
         } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            logFailure("OVERVIEW", symbol, e);
+            return new OverviewLookup(null, false);
         }
     }
     
     public Map<String, Object> getTimeSeriesDaily(String symbol) {
+        return getTimeSeriesDaily(symbol, "compact");
+    }
+    
+    /**
+     * @param outputSize "compact" for the latest 100 bars, "full" for the complete history
+     */
+    public Map<String, Object> getTimeSeriesDaily(String symbol, String outputSize) {
         try {
-            String url = baseUrl + "?function=TIME_SERIES_DAILY&symbol=" + symbol + "&apikey=" + apiKey;
-            
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            String url = baseUrl + "?function=TIME_SERIES_DAILY&symbol=" + symbol
+                    + "&outputsize=" + outputSize + "&apikey=" + apiKey;
             
-            JsonNode jsonNode = objectMapper.readTree(response);
+            JsonNode jsonNode = fetch("TIME_SERIES_DAILY", url);
             JsonNode timeSeriesNode = jsonNode.get("Time Series (Daily)");
             
             if (timeSeriesNode != null) {
@@ -118,13 +212,50 @@ public class AlphaVantageService {
             
             return null;
         } catch (Exception e) {
-            e.printStackTrace();
+            logFailure("TIME_SERIES_DAILY", symbol, e);
             return null;
         }
     }
+    
+    // Upstream trouble tends to hit every request at once, so the stack trace is only logged at DEBUG
+    private static void logFailure(String function, String symbol, Exception e) {
+        if (log.isDebugEnabled()) {
+            log.debug("alphavantage call failed function={} symbol={}", function, symbol, e);
+        } else {
+            log.warn("alphavantage call failed function={} symbol={} error={}", function, symbol, e.toString());
+        }
+    }
+    
+    /**
+     * Calls the upstream API and records its latency as {@code alphavantage.requests}, tagged with the
+     * function and an outcome of ok, throttled (the API answers 200 with a "Note"/"Information" message
+     * when the key's quota is spent), timeout or error.
+     */
+    private JsonNode fetch(String function, String url) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String response = webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .block();
+            
+            JsonNode jsonNode = objectMapper.readTree(response);
+            outcome = jsonNode.has("Note") || jsonNode.has("Information") ? "throttled" : "ok";
+            return jsonNode;
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof TimeoutException) {
+                outcome = "timeout";
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("alphavantage.requests")
+                    .tag("function", function)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
 }
-
-
-
-
-
@@ -0,0 +1,118 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.BacktestEngine;
+import com.portfoliotracker.analytics.ReturnMatrix;
+import com.portfoliotracker.dto.BacktestRequest;
+import com.portfoliotracker.entity.PortfolioAsset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs backtests against the locally stored bar history only; tickers that have never been backfilled
+ * are reported as excluded rather than fetched from upstream.
+ */
+@Service
+public class BacktestService {
+    
+    @Autowired
+    private PortfolioService portfolioService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+    
+    public Map<String, Object> backtest(Long portfolioId, Long userId, BacktestRequest request) {
+        return backtest(portfolioId, portfolioService.getOwnedAssets(portfolioId, userId), request);
+    }
+    
+    /**
+     * Runs several backtests of one portfolio in parallel across the analytics pool. Results are returned
+     * in request order.
+     */
+    public List<Map<String, Object>> backtestBatch(Long portfolioId, Long userId, List<BacktestRequest> requests) {
+        List<PortfolioAsset> assets = portfolioService.getOwnedAssets(portfolioId, userId);
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(requests.size());
+        for (BacktestRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> backtest(portfolioId, assets, request), analyticsExecutor));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+    
+    private Map<String, Object> backtest(Long portfolioId, List<PortfolioAsset> assets, BacktestRequest request) {
+        Map<String, Double> weightsByTicker = new HashMap<>();
+        boolean replay = request.getTargetWeights() == null || request.getTargetWeights().isEmpty();
+        if (replay) {
+            for (PortfolioAsset asset : assets) {
+                weightsByTicker.merge(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT),
+                        asset.getMarketValue().doubleValue(), Double::sum);
+            }
+        } else {
+            request.getTargetWeights().forEach((ticker, weight) ->
+                    weightsByTicker.merge(ticker.trim().toUpperCase(Locale.ROOT), weight.doubleValue(), Double::sum));
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("portfolioId", portfolioId);
+        result.put("strategy", request.getRebalanceDays() > 0 ? "REBALANCE" : "BUY_AND_HOLD");
+        result.put("rebalanceDays", request.getRebalanceDays());
+        result.put("source", replay ? "HOLDINGS" : "TARGET_WEIGHTS");
+        
+        ReturnMatrix matrix = priceHistoryService.getStoredReturnMatrix(weightsByTicker.keySet(), request.getLookbackDays());
+        double[] weights = new double[matrix.tickerCount()];
+        double weightSum = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weightsByTicker.get(matrix.ticker(i));
+            weightSum += weights[i];
+        }
+        List<String> excluded = new ArrayList<>();
+        for (String ticker : weightsByTicker.keySet()) {
+            if (matrix.indexOf(ticker) < 0) {
+                excluded.add(ticker);
+            }
+        }
+        Collections.sort(excluded);
+        result.put("excludedTickers", excluded);
+        
+        int from = request.getStartDate() != null ? matrix.firstDayOnOrAfter(request.getStartDate()) : 0;
+        int to = request.getEndDate() != null ? matrix.firstDayOnOrAfter(request.getEndDate().plusDays(1)) : matrix.dayCount();
+        if (to - from < 2) {
+            result.put("message", "Not enough stored price history for the requested period");
+            return result;
+        }
+        // Excluded tickers can leave the remaining weights summing to zero or less, which has no normalisation
+        if (weightSum <= 0.0) {
+            result.put("message", "Weights of the tickers with price history must sum to more than zero");
+            return result;
+        }
+        
+        BacktestEngine.Result outcome = BacktestEngine.run(matrix, weights, null, request.getRebalanceDays(), from, to);
+        result.put("startDate", matrix.date(from));
+        result.put("endDate", matrix.date(to - 1));
+        result.put("tradingDays", outcome.tradingDays());
+        result.put("totalReturn", scale(outcome.totalReturn()));
+        result.put("annualizedReturn", scale(outcome.annualizedReturn()));
+        result.put("annualizedVolatility", scale(outcome.annualizedVolatility()));
+        result.put("maxDrawdown", scale(outcome.maxDrawdown()));
+        result.put("turnover", scale(outcome.turnover()));
+        result.put("rebalances", outcome.rebalances());
+        return result;
+    }
+    
+    private static BigDecimal scale(double value) {
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
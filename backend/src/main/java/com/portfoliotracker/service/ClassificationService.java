@@ -0,0 +1,181 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.ClassificationIndex;
+import com.portfoliotracker.entity.TickerClassification;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.repository.TickerClassificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Owns the in-memory {@link ClassificationIndex}. It is loaded from {@code ticker_classifications} at
+ * startup; tickers seen without a classification are queued and fetched from the upstream overview in the
+ * background, a few per run, so scoring requests never wait on upstream. Tickers upstream has no overview for
+ * (funds, unknown symbols) are stored with blank labels so they are not asked for again until the entry expires.
+ */
+@Service
+public class ClassificationService {
+    
+    /** Invalidation topic for a ticker another instance has just classified. */
+    public static final String INVALIDATION_TOPIC = "classification";
+    
+    private static final int MAX_RESOLVED_PORTFOLIOS = 50_000;
+    
+    @Value("${classification.refresh.batch-size:5}")
+    private int batchSize;
+    
+    @Value("${classification.negative-ttl-days:30}")
+    private int negativeTtlDays;
+    
+    @Autowired
+    private TickerClassificationRepository tickerClassificationRepository;
+    
+    @Autowired
+    private AlphaVantageService alphaVantageService;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Autowired
+    @Qualifier("backgroundExecutor")
+    private ExecutorService backgroundExecutor;
+    
+    private volatile ClassificationIndex index = ClassificationIndex.empty();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, LocalDate> lastMiss = new ConcurrentHashMap<>();
+    private final Map<Long, CachedResolution> resolvedByPortfolio = new ConcurrentHashMap<>();
+    
+    /** Holdings' ticker ids, aligned with the holdings they were resolved for and valid only with {@code index}. */
+    public record ResolvedTickers(ClassificationIndex index, int[] tickerIds) {}
+    
+    private record CachedResolution(long revision, ResolvedTickers resolved) {}
+    
+    // Without this every instance would spend its own overview call on each new ticker. The lookups run on
+    // the background executor, off the bus thread.
+    @PostConstruct
+    public void subscribeInvalidations() {
+        invalidationBus.subscribe(INVALIDATION_TOPIC, ticker -> {
+            pending.remove(ticker);
+            backgroundExecutor.execute(() ->
+                    tickerClassificationRepository.findById(ticker).ifPresent(this::addToIndex));
+        }, () -> backgroundExecutor.execute(this::loadIndex));
+    }
+    
+    /**
+     * Loads every stored classification. Expired "no overview" entries are left out so the tickers are
+     * queued for another upstream attempt the next time they are scored.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        LocalDateTime negativeCutoff = LocalDateTime.now().minusDays(negativeTtlDays);
+        ClassificationIndex.Builder builder = new ClassificationIndex.Builder();
+        for (TickerClassification classification : tickerClassificationRepository.findAll()) {
+            if (isNegative(classification) && classification.getUpdatedAt() != null
+                    && classification.getUpdatedAt().isBefore(negativeCutoff)) {
+                continue;
+            }
+            builder.put(classification.getTickerSymbol(), classification.getSector(),
+                    classification.getIndustry(), classification.getAssetClass());
+        }
+        index = builder.build();
+    }
+    
+    public ClassificationIndex getIndex() {
+        return index;
+    }
+    
+    /**
+     * Resolves normalised tickers to index ids against the current index snapshot, queueing the unknown ones
+     * for background classification.
+     */
+    public ResolvedTickers resolve(List<String> tickers) {
+        ClassificationIndex snapshot = index;
+        int[] tickerIds = new int[tickers.size()];
+        for (int k = 0; k < tickerIds.length; k++) {
+            tickerIds[k] = snapshot.tickerId(tickers.get(k));
+            if (tickerIds[k] == ClassificationIndex.UNCLASSIFIED) {
+                requestClassification(tickers.get(k));
+            }
+        }
+        return new ResolvedTickers(snapshot, tickerIds);
+    }
+    
+    /**
+     * Same as {@link #resolve(List)}, but reused for as long as the portfolio stays at {@code revision} and the
+     * index is unchanged. The tickers must come in the same order every time for a given revision.
+     */
+    public ResolvedTickers resolve(Long portfolioId, long revision, List<String> tickers) {
+        CachedResolution cached = resolvedByPortfolio.get(portfolioId);
+        if (cached != null && cached.revision() == revision && cached.resolved().index() == index
+                && cached.resolved().tickerIds().length == tickers.size()) {
+            return cached.resolved();
+        }
+        ResolvedTickers resolved = resolve(tickers);
+        if (resolvedByPortfolio.size() >= MAX_RESOLVED_PORTFOLIOS) {
+            resolvedByPortfolio.clear();
+        }
+        resolvedByPortfolio.put(portfolioId, new CachedResolution(revision, resolved));
+        return resolved;
+    }
+    
+    /** Queues a ticker the index does not know yet for background classification. */
+    public void requestClassification(String ticker) {
+        if (index.tickerId(ticker) == ClassificationIndex.UNCLASSIFIED
+                && !LocalDate.now().equals(lastMiss.get(ticker))) {
+            pending.add(ticker);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${classification.refresh.interval-ms:60000}")
+    public void classifyPending() {
+        int fetched = 0;
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext() && fetched < batchSize) {
+            String ticker = iterator.next();
+            iterator.remove();
+            if (index.tickerId(ticker) != ClassificationIndex.UNCLASSIFIED) {
+                continue;
+            }
+            fetched++;
+            AlphaVantageService.OverviewLookup lookup = alphaVantageService.lookupStockOverview(ticker);
+            Map<String, Object> overview = lookup.overview();
+            if (overview == null && !lookup.definitive()) {
+                // Throttled or failed; retry tomorrow at the earliest
+                lastMiss.put(ticker, LocalDate.now());
+                continue;
+            }
+            TickerClassification classification = overview == null
+                    ? new TickerClassification(ticker, null, null, null, null)
+                    : new TickerClassification(ticker, (String) overview.get("name"), (String) overview.get("sector"),
+                            (String) overview.get("industry"), (String) overview.get("assetType"));
+            tickerClassificationRepository.save(classification);
+            invalidationBus.publish(INVALIDATION_TOPIC, ticker);
+            addToIndex(classification);
+        }
+    }
+    
+    private static boolean isNegative(TickerClassification classification) {
+        return classification.getSector() == null && classification.getIndustry() == null
+                && classification.getAssetClass() == null;
+    }
+    
+    private synchronized void addToIndex(TickerClassification classification) {
+        index = index.with(classification.getTickerSymbol(), classification.getSector(), classification.getIndustry(),
+                classification.getAssetClass());
+    }
+}
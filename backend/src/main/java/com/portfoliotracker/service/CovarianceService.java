@@ -0,0 +1,185 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.CovarianceMatrix;
+import com.portfoliotracker.analytics.EwmaCovariance;
+import com.portfoliotracker.analytics.ReturnMatrix;
+import com.portfoliotracker.entity.PortfolioAsset;
+import com.portfoliotracker.event.PriceBarsIngestedEvent;
+import com.portfoliotracker.repository.PortfolioAssetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintains one exponentially weighted covariance matrix for the universe of held tickers plus the default
+ * recommendation candidates ({@link AISimulationService#DEFAULT_CANDIDATES}), and serves sub-matrices for any
+ * ticker set. The matrix is seeded from stored history in the background and then rolled forward a day at a
+ * time as new bars are ingested, so requests never pay the O(tickers² × days) rebuild for those tickers, the
+ * default recommendation included. Tickers outside the universe (candidates a request names, holdings added
+ * since the last seed) are estimated for that request only and never widen the shared matrix.
+ */
+@Service
+public class CovarianceService {
+    
+    /** Trading days re-read from the store when rolling the matrix forward. */
+    private static final int ROLL_FORWARD_DAYS = 30;
+    
+    /**
+     * A day on which some universe ticker still has no bar is held back until it is this many calendar days
+     * older than the newest stored bar; after that the stragglers count as not having traded.
+     */
+    private static final int LATE_BAR_GRACE_DAYS = 5;
+    
+    @Value("${analytics.ewma.lambda:0.94}")
+    private double lambda;
+    
+    @Value("${analytics.ewma.seed-days:504}")
+    private int seedDays;
+    
+    @Autowired
+    private PortfolioAssetRepository portfolioAssetRepository;
+    
+    @Autowired
+    private PortfolioService portfolioService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+    
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final AtomicBoolean reseedQueued = new AtomicBoolean();
+    private volatile EwmaCovariance current;
+    private volatile Set<String> universe = Set.of();
+    
+    /**
+     * Covariance of the requested tickers. Requests the shared matrix cannot serve are estimated on the spot from
+     * the requested tickers alone; a newly held ticker among them also queues a background reseed. Tickers without
+     * enough price history are left out of the result.
+     */
+    public CovarianceMatrix getCovariance(Collection<String> tickers) {
+        List<String> normalized = PriceHistoryService.normalize(tickers);
+        EwmaCovariance snapshot = current;
+        // Universe tickers the last seed had too little history for are simply left out until their bars arrive
+        if (snapshot != null && (snapshot.covers(normalized) || universe.containsAll(normalized))) {
+            return snapshot.subMatrix(normalized);
+        }
+        if (snapshot == null || normalized.stream()
+                .anyMatch(ticker -> !universe.contains(ticker) && portfolioAssetRepository.countByNormalizedTicker(ticker) > 0)) {
+            requestReseed();
+        }
+        priceHistoryService.ensureHistory(normalized);
+        return EwmaCovariance.seed(priceHistoryService.getStoredReturnPanel(normalized, seedDays), lambda)
+                .subMatrix(normalized);
+    }
+    
+    public Map<String, Object> getCorrelationHeatmap(Long portfolioId, Long userId) {
+        List<String> tickers = portfolioService.getOwnedAssets(portfolioId, userId).stream()
+                .map(PortfolioAsset::getTickerSymbol)
+                .toList();
+        CovarianceMatrix covariance = getCovariance(tickers);
+        
+        double[][] correlation = covariance.correlation();
+        for (double[] row : correlation) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = Math.round(row[j] * 10000.0) / 10000.0;
+            }
+        }
+        
+        Map<String, Object> heatmap = new HashMap<>();
+        heatmap.put("portfolioId", portfolioId);
+        heatmap.put("tickers", covariance.tickerList());
+        heatmap.put("correlation", correlation);
+        heatmap.put("asOf", covariance.asOf());
+        heatmap.put("lambda", lambda);
+        return heatmap;
+    }
+    
+    /**
+     * Rolls the matrix forward when a ticker in the universe gets new bars. A universe ticker that had too little
+     * history at the last seed queues a reseed instead, since its pairs have to be rebuilt from scratch.
+     */
+    @EventListener
+    public void onPriceBarsIngested(PriceBarsIngestedEvent event) {
+        EwmaCovariance snapshot = current;
+        if (snapshot == null || !universe.contains(event.tickerSymbol())) {
+            return;
+        }
+        if (!snapshot.covers(List.of(event.tickerSymbol()))) {
+            requestReseed();
+            return;
+        }
+        updateLock.lock();
+        try {
+            current = rollForward(current);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+    
+    /**
+     * Applies the stored days after the snapshot's as-of date. A day some ticker has no bar for yet stops the
+     * roll until the bar arrives or {@link #LATE_BAR_GRACE_DAYS} pass, so one stale ticker cannot freeze the matrix.
+     */
+    private EwmaCovariance rollForward(EwmaCovariance snapshot) {
+        String[] tickers = snapshot.tickers();
+        ReturnMatrix recent = priceHistoryService.getStoredReturnPanel(Arrays.asList(tickers), ROLL_FORWARD_DAYS);
+        LocalDate newest = recent.lastDate();
+        if (newest == null) {
+            return snapshot;
+        }
+        // The panel keeps the requested (sorted) ticker order, which is the snapshot's order
+        double[] returns = new double[tickers.length];
+        for (int t = 0; t < recent.dayCount(); t++) {
+            LocalDate date = recent.date(t);
+            if (snapshot.asOf() != null && !date.isAfter(snapshot.asOf())) {
+                continue;
+            }
+            boolean complete = true;
+            for (int i = 0; i < tickers.length; i++) {
+                returns[i] = recent.row(i)[t];
+                complete &= !Double.isNaN(returns[i]);
+            }
+            if (!complete && date.plusDays(LATE_BAR_GRACE_DAYS).isAfter(newest)) {
+                break;
+            }
+            snapshot = snapshot.update(returns, date);
+        }
+        return snapshot;
+    }
+    
+    private void requestReseed() {
+        if (reseedQueued.compareAndSet(false, true)) {
+            analyticsExecutor.execute(this::reseed);
+        }
+    }
+    
+    /**
+     * Rebuilds the shared matrix over the current holdings and the default candidates. Upstream backfill and
+     * the seed itself run without the lock; only the swap (and catching up on bars stored meanwhile) holds it.
+     */
+    private void reseed() {
+        reseedQueued.set(false);
+        Set<String> tickers = new TreeSet<>(PriceHistoryService.normalize(portfolioAssetRepository.findDistinctTickerSymbols()));
+        tickers.addAll(AISimulationService.DEFAULT_CANDIDATES);
+        priceHistoryService.ensureHistory(tickers);
+        EwmaCovariance seeded = EwmaCovariance.seed(priceHistoryService.getStoredReturnPanel(tickers, seedDays), lambda);
+        updateLock.lock();
+        try {
+            current = rollForward(seeded);
+            universe = Set.copyOf(tickers);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
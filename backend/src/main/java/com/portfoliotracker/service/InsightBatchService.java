@@ -0,0 +1,264 @@
+package com.portfoliotracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.cluster.ClusterMembership;
+import com.portfoliotracker.dto.OptimizationRequest;
+import com.portfoliotracker.entity.Portfolio;
+import com.portfoliotracker.entity.PortfolioAsset;
+import com.portfoliotracker.entity.PortfolioInsight;
+import com.portfoliotracker.event.DomainEvent;
+import com.portfoliotracker.exception.PortfolioNotFoundException;
+import com.portfoliotracker.outbox.DomainEventBus;
+import com.portfoliotracker.repository.PortfolioAssetRepository;
+import com.portfoliotracker.repository.PortfolioInsightRepository;
+import com.portfoliotracker.repository.PortfolioRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Precomputes the diversification, recommendation and default simulation insights for every portfolio
+ * into {@code portfolio_insights}, keyed by portfolio revision. Interactive reads are a lookup; a portfolio
+ * whose holdings changed since the last run is recomputed on demand and stored.
+ * <p>
+ * Holding changes arrive from the outbox through {@link DomainEventBus}, and the portfolios they touch
+ * are recomputed right away, so the read after a change is usually a lookup as well.
+ * <p>
+ * Results reflect prices as of the computation, so the nightly run also refreshes unchanged portfolios.
+ */
+@Service
+public class InsightBatchService {
+    
+    public static final int DEFAULT_SIMULATION_DAYS = 30;
+    
+    static final String BATCH_KEY = "insight-batch";
+    
+    private static final Logger log = LoggerFactory.getLogger(InsightBatchService.class);
+    
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    
+    private static final Set<String> HOLDING_EVENTS =
+            Set.of(DomainEvent.ASSET_ADDED, DomainEvent.ASSET_UPDATED, DomainEvent.ASSET_REMOVED);
+    
+    private record RecomputeInput(Long revision, List<PortfolioAsset> assets, PortfolioInsight existing) {}
+    
+    @Value("${insights.batch.chunk-size:200}")
+    private int chunkSize;
+    
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    
+    @Autowired
+    private PortfolioAssetRepository portfolioAssetRepository;
+    
+    @Autowired
+    private PortfolioInsightRepository portfolioInsightRepository;
+    
+    @Autowired
+    private PortfolioService portfolioService;
+    
+    @Autowired
+    private AISimulationService aiSimulationService;
+    
+    @Autowired
+    private ClassificationService classificationService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private DomainEventBus domainEventBus;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+    
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void subscribeToHoldingChanges() {
+        domainEventBus.subscribe("insights", this::onDomainEvents);
+    }
+    
+    /**
+     * Queues each portfolio named in the batch for recomputation on the analytics pool, once however many
+     * of its events arrive before it starts, so a slow simulation never holds up the relay. Redelivered
+     * events just recompute again; a portfolio that fails keeps its old insight and is recomputed on its
+     * next read. Only a rejected hand-off fails the batch, which then gets redelivered.
+     */
+    private void onDomainEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (HOLDING_EVENTS.contains(event.eventType())) {
+                Long portfolioId = Long.valueOf(event.aggregateId());
+                if (queued.add(portfolioId)) {
+                    try {
+                        analyticsExecutor.execute(() -> recompute(portfolioId));
+                    } catch (RejectedExecutionException e) {
+                        queued.remove(portfolioId);
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+    
+    private void recompute(Long portfolioId) {
+        queued.remove(portfolioId);
+        try {
+            // Read-write so the reads go to the primary: the change this event reports was just committed
+            // there and a replica may not have replayed it yet
+            RecomputeInput input = transactionTemplate.execute(status -> portfolioRepository.findById(portfolioId)
+                    .map(portfolio -> new RecomputeInput(portfolio.getRevision(),
+                            portfolioAssetRepository.findByPortfolioId(portfolioId),
+                            portfolioInsightRepository.findByPortfolioId(portfolioId).orElse(null)))
+                    .orElse(null));
+            if (input != null) {
+                portfolioInsightRepository.save(compute(portfolioId, input.revision(), input.assets(), input.existing()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("insight recompute failed portfolioId={} error={}", portfolioId, e.toString());
+        }
+    }
+    
+    public Map<String, Object> getDiversification(Long portfolioId, Long userId) {
+        return read(current(portfolioId, userId).getDiversification());
+    }
+    
+    public Map<String, Object> getRecommendation(Long portfolioId, Long userId) {
+        return read(current(portfolioId, userId).getRecommendation());
+    }
+    
+    public Map<String, Object> getSimulation(Long portfolioId, Long userId) {
+        return read(current(portfolioId, userId).getSimulation());
+    }
+    
+    /**
+     * Walks all portfolios in keyset-ordered chunks, computing each chunk's insights in parallel on the
+     * analytics pool and persisting them in one batch. Every instance fires the cron; only the owner of
+     * the batch key runs it.
+     */
+    @Scheduled(cron = "${insights.batch.cron:0 30 2 * * *}")
+    public void precomputeAll() {
+        if (!clusterMembership.owns(BATCH_KEY)) {
+            return;
+        }
+        // Nobody holds the default candidates, so nothing else fetches their bars; without them the shared
+        // covariance matrix the recommendations below read would not roll forward
+        priceHistoryService.ensureHistory(AISimulationService.DEFAULT_CANDIDATES);
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> chunk = portfolioRepository.findIdAndRevisionAfter(afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Map<Long, Long> revisions = new LinkedHashMap<>();
+            for (Object[] row : chunk) {
+                revisions.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            afterId = (Long) chunk.get(chunk.size() - 1)[0];
+            
+            Map<Long, List<PortfolioAsset>> assetsByPortfolio = new HashMap<>();
+            for (PortfolioAsset asset : portfolioAssetRepository.findByPortfolioIdIn(revisions.keySet())) {
+                assetsByPortfolio.computeIfAbsent(asset.getPortfolio().getId(), id -> new ArrayList<>()).add(asset);
+            }
+            Map<Long, PortfolioInsight> stored = new HashMap<>();
+            for (PortfolioInsight insight : portfolioInsightRepository.findByPortfolioIdIn(revisions.keySet())) {
+                stored.put(insight.getPortfolioId(), insight);
+            }
+            
+            List<CompletableFuture<PortfolioInsight>> futures = new ArrayList<>();
+            revisions.forEach((portfolioId, revision) -> futures.add(CompletableFuture.supplyAsync(
+                    () -> compute(portfolioId, revision, assetsByPortfolio.getOrDefault(portfolioId, List.of()),
+                            stored.get(portfolioId)),
+                    analyticsExecutor)));
+            
+            List<PortfolioInsight> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<PortfolioInsight> future : futures) {
+                try {
+                    results.add(future.join());
+                } catch (RuntimeException e) {
+                    // Leave the previous result in place; the portfolio is recomputed on its next read
+                }
+            }
+            portfolioInsightRepository.saveAll(results);
+        }
+    }
+    
+    /**
+     * The fresh stored insight when there is one (a single ownership-checked query), otherwise recomputed
+     * from the owner's holdings and stored.
+     *
+     * @throws PortfolioNotFoundException if the portfolio does not exist or belongs to another user
+     */
+    private PortfolioInsight current(Long portfolioId, Long userId) {
+        Optional<PortfolioInsight> fresh = portfolioInsightRepository.findCurrentForOwner(portfolioId, userId);
+        if (fresh.isPresent()) {
+            return fresh.get();
+        }
+        
+        Portfolio portfolio = portfolioService.getOwnedPortfolioWithAssets(portfolioId, userId);
+        Optional<PortfolioInsight> stored = portfolioInsightRepository.findByPortfolioId(portfolioId);
+        PortfolioInsight insight = compute(portfolioId, portfolio.getRevision(), portfolio.getAssets(),
+                stored.orElse(null));
+        try {
+            return portfolioInsightRepository.save(insight);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request stored the same portfolio first; our copy is equally fresh
+            return insight;
+        }
+    }
+    
+    private PortfolioInsight compute(Long portfolioId, Long revision, List<PortfolioAsset> assets, PortfolioInsight existing) {
+        PortfolioInsight insight = existing != null ? existing : new PortfolioInsight(portfolioId, revision);
+        insight.setPortfolioRevision(revision);
+        // A stable holding order lets the classification ids be resolved once per revision
+        List<PortfolioAsset> ordered = assets.stream().sorted(Comparator.comparing(PortfolioAsset::getId)).toList();
+        ClassificationService.ResolvedTickers classes = classificationService.resolve(portfolioId, revision,
+                AISimulationService.normalizedTickers(ordered));
+        insight.setDiversification(write(aiSimulationService.calculateDiversificationScore(ordered, classes)));
+        insight.setRecommendation(write(aiSimulationService.generateRecommendation(ordered, classes, new OptimizationRequest())));
+        insight.setSimulation(write(aiSimulationService.simulatePortfolioPerformance(portfolioId, assets, DEFAULT_SIMULATION_DAYS)));
+        return insight;
+    }
+    
+    private String write(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialise insight", e);
+        }
+    }
+    
+    private Map<String, Object> read(String json) {
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to read stored insight", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.CovarianceMatrix;
+import com.portfoliotracker.analytics.MeanVarianceOptimizer;
+import com.portfoliotracker.dto.OptimizationRequest;
+import com.portfoliotracker.entity.PortfolioAsset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Mean-variance optimisation of a portfolio's holdings plus an optional candidate universe, using the
+ * shared EWMA covariance for risk and the EWMA mean as the expected return estimate.
+ */
+@Service
+public class PortfolioOptimizationService {
+    
+    private static final double MIN_REPORTED_WEIGHT = 0.0001;
+    private static final Pattern TICKER = Pattern.compile("[A-Z0-9][A-Z0-9.\\-]{0,19}");
+    
+    @Value("${analytics.risk-free-rate:0.04}")
+    private double riskFreeRate;
+    
+    @Value("${analytics.optimization.max-candidates:25}")
+    private int maxCandidates;
+    
+    @Autowired
+    private CovarianceService covarianceService;
+    
+    public Map<String, Object> optimize(List<PortfolioAsset> assets, OptimizationRequest request) {
+        request.checkWeightBounds();
+        Map<String, Double> exposure = new HashMap<>();
+        double portfolioValue = 0.0;
+        for (PortfolioAsset asset : assets) {
+            double value = asset.getMarketValue().doubleValue();
+            exposure.merge(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT), value, Double::sum);
+            portfolioValue += value;
+        }
+        // Candidates are estimated for this request only, so they are bounded and must look like tickers
+        Set<String> universe = new TreeSet<>(exposure.keySet());
+        if (request.getCandidates().size() > maxCandidates) {
+            throw new IllegalArgumentException("At most " + maxCandidates + " candidate tickers are allowed");
+        }
+        for (String candidate : request.getCandidates()) {
+            String ticker = candidate == null ? "" : candidate.trim().toUpperCase(Locale.ROOT);
+            if (!TICKER.matcher(ticker).matches()) {
+                throw new IllegalArgumentException("Invalid candidate ticker: " + candidate);
+            }
+            universe.add(ticker);
+        }
+        
+        CovarianceMatrix covariance = covarianceService.getCovariance(universe);
+        int n = covariance.size();
+        if (n == 0) {
+            throw new IllegalStateException("No price history available for the portfolio's tickers");
+        }
+        
+        double[] lower = new double[n];
+        double[] upper = new double[n];
+        Arrays.fill(lower, request.getMinWeight());
+        Arrays.fill(upper, request.getMaxWeight());
+        MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(covariance.means(), covariance.covariance(), lower, upper);
+        
+        MeanVarianceOptimizer.Solution solution = switch (request.getObjective()) {
+            case OptimizationRequest.MIN_VARIANCE -> optimizer.describe(optimizer.minimumVariance().weights(), riskFreeRate);
+            case OptimizationRequest.MAX_SHARPE -> optimizer.maximumSharpe(riskFreeRate);
+            case OptimizationRequest.TARGET_RISK -> {
+                if (request.getTargetVolatility() == null) {
+                    throw new IllegalArgumentException("targetVolatility is required for the target-risk objective");
+                }
+                yield optimizer.describe(optimizer.targetRisk(request.getTargetVolatility()).weights(), riskFreeRate);
+            }
+            default -> throw new IllegalArgumentException("Unknown optimization objective: " + request.getObjective());
+        };
+        
+        String[] tickers = covariance.tickers();
+        double[] currentWeights = new double[n];
+        if (portfolioValue > 0.0) {
+            for (int i = 0; i < n; i++) {
+                currentWeights[i] = exposure.getOrDefault(tickers[i], 0.0) / portfolioValue;
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("objective", request.getObjective());
+        result.put("asOf", covariance.asOf());
+        result.put("expectedReturn", scale(solution.expectedReturn(), 4));
+        result.put("expectedVolatility", scale(solution.volatility(), 4));
+        result.put("sharpeRatio", scale(solution.sharpe(), 4));
+        result.put("current", describe(optimizer.describe(currentWeights, riskFreeRate)));
+        
+        Map<String, BigDecimal> targetWeights = new LinkedHashMap<>();
+        List<Map<String, Object>> rebalance = new ArrayList<>();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        double[] weights = solution.weights();
+        Arrays.sort(order, (a, b) -> Double.compare(weights[b], weights[a]));
+        for (int i : order) {
+            if (weights[i] >= MIN_REPORTED_WEIGHT) {
+                targetWeights.put(tickers[i], scale(weights[i], 4));
+            }
+            double delta = weights[i] - currentWeights[i];
+            if (Math.abs(delta) >= MIN_REPORTED_WEIGHT) {
+                Map<String, Object> trade = new HashMap<>();
+                trade.put("tickerSymbol", tickers[i]);
+                trade.put("currentWeight", scale(currentWeights[i], 4));
+                trade.put("targetWeight", scale(weights[i], 4));
+                trade.put("tradeValue", scale(delta * portfolioValue, 2));
+                rebalance.add(trade);
+            }
+        }
+        result.put("targetWeights", targetWeights);
+        result.put("rebalance", rebalance);
+        
+        List<String> excluded = new ArrayList<>(universe);
+        excluded.removeAll(covariance.tickerList());
+        result.put("excludedTickers", excluded);
+        
+        if (request.isIncludeFrontier()) {
+            List<Map<String, Object>> frontier = new ArrayList<>();
+            for (MeanVarianceOptimizer.Solution point : optimizer.frontier()) {
+                frontier.add(describe(point));
+            }
+            result.put("frontier", frontier);
+        }
+        return result;
+    }
+    
+    private static Map<String, Object> describe(MeanVarianceOptimizer.Solution solution) {
+        Map<String, Object> point = new HashMap<>();
+        point.put("expectedReturn", scale(solution.expectedReturn(), 4));
+        point.put("volatility", scale(solution.volatility(), 4));
+        return point;
+    }
+    
+    private static BigDecimal scale(double value, int digits) {
+        return BigDecimal.valueOf(value).setScale(digits, RoundingMode.HALF_UP);
+    }
+}
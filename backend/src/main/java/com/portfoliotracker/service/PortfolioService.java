@@ -7,13 +7,22 @@ import com.portfoliotracker.dto.PortfolioResponse;
 import com.portfoliotracker.entity.Portfolio;
 import com.portfoliotracker.entity.PortfolioAsset;
 import com.portfoliotracker.entity.User;
+import com.portfoliotracker.event.DomainEvent;
 import com.portfoliotracker.exception.PortfolioNotFoundException;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.outbox.DomainEventOutbox;
 import com.portfoliotracker.repository.PortfolioAssetRepository;
 import com.portfoliotracker.repository.PortfolioRepository;
+import com.portfoliotracker.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,88 +31,185 @@ import java.util.stream.Collectors;
 @Service
 public class PortfolioService {
     
+    /** Invalidation topic for a portfolio created or changed (holdings included), keyed by its id. */
+    public static final String PORTFOLIO_TOPIC = "portfolio";
+    
     @Autowired
     private PortfolioRepository portfolioRepository;
     
     @Autowired
     private PortfolioAssetRepository portfolioAssetRepository;
     
+    @Autowired
+    private UserRepository userRepository;
+    
     @Autowired
     private AlphaVantageService alphaVantageService;
     
-    public Portfolio createPortfolio(PortfolioRequest request, User user) {
-        Portfolio portfolio = new Portfolio(request.getName(), request.getDescription(), user);
-        return portfolioRepository.save(portfolio);
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Autowired
+    private DomainEventOutbox outbox;
+    
+    @Autowired
+    private TickerSubscriptionService tickerSubscriptionService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    public Portfolio createPortfolio(PortfolioRequest request, Long userId) {
+        // A reference is enough for the foreign key; no need to load the user row
+        User user = userRepository.getReferenceById(userId);
+        Portfolio portfolio = portfolioRepository.save(new Portfolio(request.getName(), request.getDescription(), user));
+        invalidationBus.publish(PORTFOLIO_TOPIC, portfolio.getId().toString());
+        return portfolio;
+    }
+    
+    public List<Portfolio> getUserPortfolios(Long userId) {
+        return portfolioRepository.findByUserId(userId);
+    }
+    
+    public Optional<Portfolio> getPortfolioById(Long id, Long userId) {
+        return portfolioRepository.findByIdAndUserId(id, userId);
     }
     
-    public List<Portfolio> getUserPortfolios(User user) {
-        return portfolioRepository.findByUser(user);
+    /**
+     * Loads a portfolio and its holdings in one query, scoped to the owner.
+     *
+     * @throws PortfolioNotFoundException if the portfolio does not exist or belongs to another user
+     */
+    public Portfolio getOwnedPortfolioWithAssets(Long portfolioId, Long userId) {
+        return portfolioRepository.findWithAssetsByIdAndUserId(portfolioId, userId)
+                .orElseThrow(() -> new PortfolioNotFoundException(portfolioId));
     }
     
-    public Optional<Portfolio> getPortfolioById(Long id, User user) {
-        return portfolioRepository.findById(id)
-                .filter(portfolio -> portfolio.getUser().getId().equals(user.getId()));
+    public List<PortfolioAsset> getOwnedAssets(Long portfolioId, Long userId) {
+        return getOwnedPortfolioWithAssets(portfolioId, userId).getAssets();
     }
     
-    public PortfolioAsset addAssetToPortfolio(Long portfolioId, AssetRequest request, User user) {
-        Portfolio portfolio = getPortfolioById(portfolioId, user)
+    public PortfolioAsset addAssetToPortfolio(Long portfolioId, AssetRequest request, Long userId) {
+        Portfolio portfolio = getPortfolioById(portfolioId, userId)
                 .orElseThrow(() -> new PortfolioNotFoundException(portfolioId));
         
+        // Stored normalized, so "aapl" and "AAPL" add to the same holding
+        String symbol = TickerSubscriptionService.normalize(request.getTickerSymbol());
+        
         // Check if asset already exists
         Optional<PortfolioAsset> existingAsset = portfolioAssetRepository
-                .findByPortfolioAndTickerSymbol(portfolio, request.getTickerSymbol());
+                .findByPortfolioAndTickerSymbol(portfolio, symbol);
         
         if (existingAsset.isPresent()) {
             // Update existing asset quantity
             PortfolioAsset asset = existingAsset.get();
             BigDecimal newQuantity = asset.getQuantity().add(request.getQuantity());
             asset.setQuantity(newQuantity);
-            return portfolioAssetRepository.save(asset);
+            return transactionTemplate.execute(status -> {
+                PortfolioAsset saved = portfolioAssetRepository.save(asset);
+                touch(portfolio);
+                recordHoldingChange(DomainEvent.ASSET_UPDATED, saved);
+                return saved;
+            });
         } else {
             // Create new asset
             PortfolioAsset asset = new PortfolioAsset(
-                    request.getTickerSymbol(),
+                    symbol,
                     request.getQuantity(),
                     request.getPurchasePrice(),
                     portfolio
             );
             
-            // Fetch current price
-            Map<String, Object> stockData = alphaVantageService.getStockQuote(request.getTickerSymbol());
+            // Fetch current price before the transaction, so no connection is held during the upstream call.
+            // Without a quote (the upstream throttles routinely) the holding is kept and the refresh prices it
+            Map<String, Object> stockData = alphaVantageService.getStockQuote(symbol);
             if (stockData != null) {
                 asset.setCurrentPrice((BigDecimal) stockData.get("price"));
             }
+            tickerSubscriptionService.prepare(symbol);
             
-            return portfolioAssetRepository.save(asset);
+            PortfolioAsset saved = transactionTemplate.execute(status -> {
+                PortfolioAsset inserted = portfolioAssetRepository.save(asset);
+                touch(portfolio);
+                tickerSubscriptionService.subscribe(symbol);
+                recordHoldingChange(DomainEvent.ASSET_ADDED, inserted);
+                return inserted;
+            });
+            if (stockData != null) {
+                invalidationBus.publish(QuoteCache.INVALIDATION_TOPIC, symbol);
+            }
+            return saved;
         }
     }
     
-    public void removeAssetFromPortfolio(Long portfolioId, Long assetId, User user) {
-        Portfolio portfolio = getPortfolioById(portfolioId, user)
+    public void removeAssetFromPortfolio(Long portfolioId, Long assetId, Long userId) {
+        Portfolio portfolio = getPortfolioById(portfolioId, userId)
                 .orElseThrow(() -> new PortfolioNotFoundException(portfolioId));
         
-        PortfolioAsset asset = portfolioAssetRepository.findById(assetId)
+        PortfolioAsset asset = portfolioAssetRepository.findByIdAndPortfolioId(assetId, portfolio.getId())
                 .orElseThrow(() -> new RuntimeException("Asset not found"));
         
-        if (!asset.getPortfolio().getId().equals(portfolio.getId())) {
-            throw new RuntimeException("Asset does not belong to this portfolio");
-        }
-        
-        portfolioAssetRepository.delete(asset);
+        transactionTemplate.executeWithoutResult(status -> {
+            portfolioAssetRepository.delete(asset);
+            touch(portfolio);
+            tickerSubscriptionService.unsubscribe(asset.getTickerSymbol());
+            recordHoldingChange(DomainEvent.ASSET_REMOVED, asset);
+        });
     }
     
-    public PortfolioResponse getPortfolioWithDetails(Long portfolioId, User user) {
-        Portfolio portfolio = getPortfolioById(portfolioId, user)
-                .orElseThrow(() -> new PortfolioNotFoundException(portfolioId));
-        
-        List<PortfolioAsset> assets = portfolioAssetRepository.findByPortfolio(portfolio);
+    /**
+     * Writes the holding change to the outbox in the caller's transaction. Comes after {@link #touch},
+     * whose update locks the portfolio row, so events of one portfolio get ids in commit order.
+     */
+    private void recordHoldingChange(String eventType, PortfolioAsset asset) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("assetId", asset.getId());
+        payload.put("tickerSymbol", asset.getTickerSymbol());
+        payload.put("quantity", asset.getQuantity().toPlainString());
+        payload.put("purchasePrice", asset.getPurchasePrice().toPlainString());
+        outbox.append(DomainEvent.PORTFOLIO, asset.getPortfolio().getId().toString(), eventType, payload);
+    }
+    
+    // Called after the holding change is saved, so other instances never reload the portfolio without it.
+    // An update rather than a merge: merging the detached portfolio cascades to its holdings and would
+    // bring back one removed in the same transaction.
+    private void touch(Portfolio portfolio) {
+        portfolioRepository.bumpRevision(portfolio.getId(), LocalDateTime.now());
+        invalidationBus.publish(PORTFOLIO_TOPIC, portfolio.getId().toString());
+    }
+    
+    public PortfolioResponse getPortfolioWithDetails(Long portfolioId, Long userId) {
+        Portfolio portfolio = getOwnedPortfolioWithAssets(portfolioId, userId);
+        return valuationTimer(portfolio.getAssets().size()).record(() -> valuePortfolio(portfolio, userId));
+    }
+    
+    /**
+     * {@code portfolio.valuation}, bucketed by holding count so large portfolios don't hide in the average.
+     */
+    private Timer valuationTimer(int holdings) {
+        String size = holdings == 0 ? "0" : holdings <= 5 ? "1-5" : holdings <= 20 ? "6-20" : holdings <= 50 ? "21-50" : "51+";
+        return Timer.builder("portfolio.valuation")
+                .tag("holdings", size)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    private PortfolioResponse valuePortfolio(Portfolio portfolio, Long userId) {
+        List<PortfolioAsset> assets = portfolio.getAssets();
         
         // Update current prices for all assets
         for (PortfolioAsset asset : assets) {
             Map<String, Object> stockData = alphaVantageService.getStockQuote(asset.getTickerSymbol());
             if (stockData != null) {
-                asset.setCurrentPrice((BigDecimal) stockData.get("price"));
-                portfolioAssetRepository.save(asset);
+                BigDecimal price = (BigDecimal) stockData.get("price");
+                if (asset.getCurrentPrice() == null || asset.getCurrentPrice().compareTo(price) != 0) {
+                    asset.setCurrentPrice(price);
+                    portfolioAssetRepository.save(asset);
+                    // Instances still caching the older quote would otherwise write it back
+                    invalidationBus.publish(QuoteCache.INVALIDATION_TOPIC, asset.getTickerSymbol());
+                }
             }
         }
         
@@ -114,7 +220,7 @@ public class PortfolioService {
         response.setDescription(portfolio.getDescription());
         response.setCreatedAt(portfolio.getCreatedAt());
         response.setUpdatedAt(portfolio.getUpdatedAt());
-        response.setUserId(portfolio.getUser().getId());
+        response.setUserId(userId);
         
         List<AssetResponse> assetResponses = assets.stream()
                 .map(this::convertToAssetResponse)
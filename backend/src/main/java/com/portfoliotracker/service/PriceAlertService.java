@@ -0,0 +1,297 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.PriceAlertIndex;
+import com.portfoliotracker.dto.PriceAlertRequest;
+import com.portfoliotracker.entity.AlertTrigger;
+import com.portfoliotracker.entity.PriceAlert;
+import com.portfoliotracker.event.QuoteUpdatedEvent;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.repository.AlertTriggerRepository;
+import com.portfoliotracker.repository.PriceAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Price alerts. Every instance keeps all active alerts in a {@link PriceAlertIndex}, so each quote
+ * fetched from upstream only touches the alerts it actually fires. Firing an alert marks it triggered
+ * and writes an {@link AlertTrigger} row in one transaction; the conditional update lets exactly one
+ * instance fire an alert even when several see the same quote. Owners read triggers back by id, either
+ * paged or as a server-sent event stream that resumes from {@code Last-Event-ID}.
+ * <p>
+ * Instances keep their indexes and streams in step through {@link CacheInvalidationBus}: alert changes
+ * are published by alert id and new triggers by user id, so a stream connected to one instance hears
+ * about a trigger fired on another.
+ */
+@Service
+public class PriceAlertService {
+    
+    /** Invalidation topic for an alert created, deleted or fired, keyed by its id. */
+    public static final String ALERT_TOPIC = "price-alert";
+    
+    /** Invalidation topic for a user with new triggers, keyed by the user id. */
+    public static final String TRIGGER_TOPIC = "alert-trigger";
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceAlertService.class);
+    
+    private static final class AlertStream {
+        
+        private final Long userId;
+        private final SseEmitter emitter;
+        // Serialises writes to the emitter; a lock rather than a monitor, which a virtual thread blocked in
+        // JDBC or a socket write would pin its carrier with
+        private final ReentrantLock lock = new ReentrantLock();
+        private long lastSentId;
+        
+        private AlertStream(Long userId, SseEmitter emitter, long lastSentId) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+        }
+    }
+    
+    @Value("${alerts.max-active-per-user:100}")
+    private int maxActivePerUser;
+    
+    @Value("${alerts.stream.timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+    
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+    
+    @Autowired
+    private AlertTriggerRepository alertTriggerRepository;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Autowired
+    private AlphaVantageService alphaVantageService;
+    
+    @Autowired
+    private TickerSubscriptionService tickerSubscriptionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    @Qualifier("backgroundExecutor")
+    private ExecutorService backgroundExecutor;
+    
+    private final PriceAlertIndex index = new PriceAlertIndex();
+    private final Map<Long, Set<AlertStream>> streams = new ConcurrentHashMap<>();
+    private TransactionTemplate newTransaction;
+    private Counter triggered;
+    
+    @PostConstruct
+    public void init() {
+        // Quotes are also fetched inside other work's transactions; a trigger must commit on its own
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        
+        triggered = Counter.builder("alerts.triggered").register(meterRegistry);
+        Gauge.builder("alerts.active", index, PriceAlertIndex::size).register(meterRegistry);
+        Gauge.builder("alerts.streams", streams, s -> s.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+        
+        // Reindexing reads the database and delivery writes to clients; neither may hold up the bus thread
+        invalidationBus.subscribe(ALERT_TOPIC, id -> backgroundExecutor.execute(() -> reindex(Long.valueOf(id))),
+                () -> backgroundExecutor.execute(this::loadIndex));
+        invalidationBus.subscribe(TRIGGER_TOPIC,
+                userId -> backgroundExecutor.execute(() -> deliver(Long.valueOf(userId))),
+                () -> backgroundExecutor.execute(() -> streams.keySet().forEach(this::deliver)));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        index.clear();
+        priceAlertRepository.findByTriggeredAtIsNull().forEach(this::addToIndex);
+    }
+    
+    private void reindex(Long alertId) {
+        priceAlertRepository.findById(alertId)
+                .filter(alert -> alert.getTriggeredAt() == null)
+                .ifPresentOrElse(this::addToIndex, () -> index.remove(alertId));
+    }
+    
+    private void addToIndex(PriceAlert alert) {
+        index.add(alert.getId(), alert.getTickerSymbol(), PriceAlert.ABOVE.equals(alert.getDirection()),
+                alert.getThreshold());
+    }
+    
+    /**
+     * An active alert subscribes its ticker to the background price refresh, so it fires even when nobody
+     * holds or watches the ticker; like a watchlist entry it must have a quote to be accepted.
+     */
+    public PriceAlert createAlert(Long userId, PriceAlertRequest request) {
+        if (priceAlertRepository.countByUserIdAndTriggeredAtIsNull(userId) >= maxActivePerUser) {
+            throw new IllegalStateException("No more than " + maxActivePerUser + " active alerts allowed");
+        }
+        String symbol = TickerSubscriptionService.normalize(request.getTickerSymbol());
+        if (alphaVantageService.getStockQuote(symbol) == null) {
+            throw new IllegalArgumentException("No quote available for " + symbol);
+        }
+        tickerSubscriptionService.prepare(symbol);
+        PriceAlert alert = newTransaction.execute(status -> {
+            PriceAlert saved = priceAlertRepository.save(new PriceAlert(userId, symbol, request.getDirection(),
+                    request.getThreshold()));
+            tickerSubscriptionService.subscribe(symbol);
+            return saved;
+        });
+        addToIndex(alert);
+        invalidationBus.publish(ALERT_TOPIC, alert.getId().toString());
+        return alert;
+    }
+    
+    public List<PriceAlert> getAlerts(Long userId) {
+        return priceAlertRepository.findByUserId(userId);
+    }
+    
+    public void deleteAlert(Long alertId, Long userId) {
+        PriceAlert alert = priceAlertRepository.findByIdAndUserId(alertId, userId)
+                .orElseThrow(() -> new RuntimeException("Alert not found"));
+        newTransaction.executeWithoutResult(status -> {
+            // Deactivating first takes the row lock: only one of this and a concurrent fire() sees the alert
+            // active, so only one of them releases its ticker subscription
+            if (priceAlertRepository.markTriggered(alertId, LocalDateTime.now()) == 1) {
+                tickerSubscriptionService.unsubscribe(alert.getTickerSymbol());
+            }
+            priceAlertRepository.delete(alert);
+        });
+        index.remove(alertId);
+        invalidationBus.publish(ALERT_TOPIC, alertId.toString());
+    }
+    
+    /** Up to 100 of the user's triggers after {@code afterId}, oldest first. */
+    public List<AlertTrigger> getTriggers(Long userId, Long afterId) {
+        return alertTriggerRepository.findTop100ByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId);
+    }
+    
+    /**
+     * Fires the alerts a freshly fetched quote crosses. An alert that cannot be recorded stays indexed and
+     * is tried again on the next quote; failures never reach the code that fetched the quote.
+     */
+    @EventListener
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        for (Long alertId : index.crossed(event.tickerSymbol(), event.price())) {
+            try {
+                fire(alertId, event.price());
+            } catch (DataAccessException e) {
+                log.warn("price alert not fired alertId={} ticker={} error={}", alertId, event.tickerSymbol(), e.toString());
+            }
+        }
+    }
+    
+    private void fire(Long alertId, BigDecimal price) {
+        AlertTrigger trigger = newTransaction.execute(status -> {
+            if (priceAlertRepository.markTriggered(alertId, LocalDateTime.now()) == 0) {
+                return null;
+            }
+            PriceAlert alert = priceAlertRepository.findById(alertId).orElseThrow();
+            tickerSubscriptionService.unsubscribe(alert.getTickerSymbol());
+            return alertTriggerRepository.save(new AlertTrigger(alert, price));
+        });
+        index.remove(alertId);
+        if (trigger == null) {
+            // Fired by another instance, or deleted; its message may not have arrived yet
+            return;
+        }
+        triggered.increment();
+        invalidationBus.publish(ALERT_TOPIC, alertId.toString());
+        invalidationBus.publish(TRIGGER_TOPIC, trigger.getUserId().toString());
+        deliver(trigger.getUserId());
+    }
+    
+    /**
+     * Opens a stream of the user's triggers. With {@code lastEventId} it first replays the triggers after
+     * that id, otherwise it starts with the next one.
+     */
+    public SseEmitter openStream(Long userId, Long lastEventId) {
+        long after = lastEventId != null ? lastEventId
+                : alertTriggerRepository.findTopByUserIdOrderByIdDesc(userId).map(AlertTrigger::getId).orElse(0L);
+        AlertStream stream = new AlertStream(userId, new SseEmitter(streamTimeoutMillis), after);
+        streams.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(stream);
+        stream.emitter.onCompletion(() -> close(stream));
+        stream.emitter.onTimeout(() -> close(stream));
+        stream.emitter.onError(e -> close(stream));
+        send(stream);
+        return stream.emitter;
+    }
+    
+    private void close(AlertStream stream) {
+        streams.computeIfPresent(stream.userId, (userId, userStreams) -> {
+            userStreams.remove(stream);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+    
+    private void deliver(Long userId) {
+        Set<AlertStream> userStreams = streams.get(userId);
+        if (userStreams != null) {
+            userStreams.forEach(this::send);
+        }
+    }
+    
+    private void send(AlertStream stream) {
+        stream.lock.lock();
+        try {
+            List<AlertTrigger> page;
+            do {
+                page = alertTriggerRepository.findTop100ByUserIdAndIdGreaterThanOrderByIdAsc(stream.userId,
+                        stream.lastSentId);
+                for (AlertTrigger trigger : page) {
+                    stream.emitter.send(SseEmitter.event().id(trigger.getId().toString()).name("alert").data(trigger));
+                    stream.lastSentId = trigger.getId();
+                }
+            } while (page.size() == 100);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container completes the emitter
+            close(stream);
+        } finally {
+            stream.lock.unlock();
+        }
+    }
+    
+    /** Comments keep idle streams open through proxies and expose clients that have gone. */
+    @Scheduled(fixedDelayString = "${alerts.stream.keepalive-ms:25000}")
+    public void keepStreamsAlive() {
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> {
+            stream.lock.lock();
+            try {
+                stream.emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                close(stream);
+            } finally {
+                stream.lock.unlock();
+            }
+        }));
+    }
+}
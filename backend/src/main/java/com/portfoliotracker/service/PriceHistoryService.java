@@ -0,0 +1,336 @@
+package com.portfoliotracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.portfoliotracker.analytics.ReturnMatrix;
+import com.portfoliotracker.entity.PriceBar;
+import com.portfoliotracker.event.PriceBarsIngestedEvent;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.repository.PriceBarRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local store of daily bars and the aligned return matrices built from it. Upstream is only contacted to
+ * backfill tickers we have never seen or to top up a ticker whose last bar is older than the previous
+ * trading day (at most once per ticker per day).
+ */
+@Service
+public class PriceHistoryService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+    
+    private static final int MAX_CACHED_MATRICES = 512;
+    
+    /** Invalidation topic for bars stored by another instance, keyed "TICKER|latest trade date". */
+    public static final String PRICE_BARS_TOPIC = "price-bars";
+    
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+    
+    @Autowired
+    private AlphaVantageService alphaVantageService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Autowired
+    @Qualifier("backgroundExecutor")
+    private ExecutorService backgroundExecutor;
+    
+    private final AtomicLong dataVersion = new AtomicLong();
+    // Remote ingests not yet replayed locally: ticker to the latest trade date announced for it
+    private final Map<String, LocalDate> pendingReplays = new ConcurrentHashMap<>();
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+    private final Map<String, LocalDate> lastRefreshAttempt = new ConcurrentHashMap<>();
+    private final Map<String, CachedMatrix> matrixCache = new ConcurrentHashMap<>();
+    
+    private record CachedMatrix(long version, ReturnMatrix matrix) {}
+    
+    /**
+     * Bars stored by another instance make the cached matrices stale just like local ones, and the
+     * covariance roll-forward listens for the same event either way. The bus thread only bumps the version
+     * and queues the ticker; the event is replayed on the background executor, because its listeners take locks
+     * and read the database, which would hold up every other invalidation behind them.
+     */
+    @PostConstruct
+    public void subscribeInvalidations() {
+        invalidationBus.subscribe(PRICE_BARS_TOPIC, key -> {
+            int separator = key.indexOf('|');
+            dataVersion.incrementAndGet();
+            pendingReplays.merge(key.substring(0, separator), LocalDate.parse(key.substring(separator + 1)),
+                    (queued, announced) -> announced.isAfter(queued) ? announced : queued);
+            scheduleReplay();
+        }, dataVersion::incrementAndGet);
+    }
+    
+    /** One replay pass at a time picks up everything queued so far; a burst of bars becomes one event per ticker. */
+    private void scheduleReplay() {
+        if (replayScheduled.compareAndSet(false, true)) {
+            try {
+                backgroundExecutor.execute(this::replayIngests);
+            } catch (RuntimeException e) {
+                replayScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+    
+    private void replayIngests() {
+        // Cleared first, so a ticker queued while this pass runs schedules the next one
+        replayScheduled.set(false);
+        for (String ticker : pendingReplays.keySet()) {
+            LocalDate latest = pendingReplays.remove(ticker);
+            if (latest == null) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(new PriceBarsIngestedEvent(ticker, latest));
+            } catch (RuntimeException e) {
+                log.warn("price bars replay failed ticker={} latest={}", ticker, latest, e);
+            }
+        }
+    }
+    
+    /**
+     * Returns the aligned daily return matrix of the given tickers over (at most) the last
+     * {@code lookbackDays} trading days. Tickers without any stored history are left out.
+     */
+    public ReturnMatrix getReturnMatrix(Collection<String> tickers, int lookbackDays) {
+        List<String> normalized = normalize(tickers);
+        ensureHistory(normalized);
+        return cachedReturnMatrix(normalized, lookbackDays);
+    }
+    
+    /**
+     * Same as {@link #getReturnMatrix} but built purely from what is already stored, never calling upstream.
+     */
+    public ReturnMatrix getStoredReturnMatrix(Collection<String> tickers, int lookbackDays) {
+        return cachedReturnMatrix(normalize(tickers), lookbackDays);
+    }
+    
+    /**
+     * Daily returns of the given tickers over the last {@code lookbackDays} dates on which any of them traded,
+     * built from stored bars only. Tickers are not aligned: a ticker's return is NaN on days it has no bar, so a
+     * short or patchy history does not shorten the window of the others. Tickers without any history are kept
+     * as all-NaN rows.
+     */
+    public ReturnMatrix getStoredReturnPanel(Collection<String> tickers, int lookbackDays) {
+        List<String> normalized = normalize(tickers);
+        StoredCloses stored = loadCloses(normalized, lookbackDays);
+        int dateCount = stored.dateCount();
+        int keep = Math.min(dateCount, lookbackDays + 1);
+        int skip = dateCount - keep;
+        double[][] closes = new double[normalized.size()][];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = Arrays.copyOfRange(stored.closes()[i], skip, dateCount);
+        }
+        return ReturnMatrix.fromUnalignedCloses(normalized.toArray(new String[0]),
+                Arrays.copyOfRange(stored.dates(), skip, dateCount), closes);
+    }
+    
+    private ReturnMatrix cachedReturnMatrix(List<String> normalized, int lookbackDays) {
+        String key = lookbackDays + "|" + String.join(",", normalized);
+        long version = dataVersion.get();
+        CachedMatrix cached = matrixCache.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached.matrix();
+        }
+        
+        ReturnMatrix matrix = loadReturnMatrix(normalized, lookbackDays);
+        if (matrixCache.size() >= MAX_CACHED_MATRICES) {
+            matrixCache.clear();
+        }
+        matrixCache.put(key, new CachedMatrix(version, matrix));
+        return matrix;
+    }
+    
+    /**
+     * Makes sure every ticker has stored history reaching the previous trading day, fetching from upstream
+     * only where needed.
+     */
+    public void ensureHistory(Collection<String> tickers) {
+        LocalDate today = LocalDate.now();
+        LocalDate expected = previousTradingDay(today);
+        for (String ticker : tickers) {
+            LocalDate latest = priceBarRepository.findLatestTradeDate(ticker);
+            if (latest != null && !latest.isBefore(expected)) {
+                continue;
+            }
+            if (today.equals(lastRefreshAttempt.put(ticker, today))) {
+                continue;
+            }
+            Map<String, Object> timeSeries = alphaVantageService.getTimeSeriesDaily(ticker, latest == null ? "full" : "compact");
+            if (timeSeries != null) {
+                ingest(ticker, (JsonNode) timeSeries.get("data"), latest);
+            }
+        }
+    }
+    
+    /** Monotonic counter bumped whenever new bars are stored; derived caches compare against it. */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+    
+    private void ingest(String ticker, JsonNode series, LocalDate after) {
+        List<PriceBar> bars = parseBars(ticker, series, after);
+        if (!bars.isEmpty()) {
+            priceBarRepository.saveAll(bars);
+            dataVersion.incrementAndGet();
+            LocalDate latest = bars.stream().map(PriceBar::getTradeDate).max(LocalDate::compareTo).get();
+            eventPublisher.publishEvent(new PriceBarsIngestedEvent(ticker, latest));
+            invalidationBus.publish(PRICE_BARS_TOPIC, ticker + "|" + latest);
+        }
+    }
+    
+    /**
+     * Converts the "Time Series (Daily)" object of a TIME_SERIES_DAILY response into bars, keeping only
+     * dates after {@code after} (all of them when it is null).
+     */
+    public static List<PriceBar> parseBars(String ticker, JsonNode series, LocalDate after) {
+        List<PriceBar> bars = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = series.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            LocalDate date = LocalDate.parse(entry.getKey());
+            if (after != null && !date.isAfter(after)) {
+                continue;
+            }
+            JsonNode node = entry.getValue();
+            PriceBar bar = new PriceBar(ticker, date, new BigDecimal(node.get("4. close").asText()));
+            bar.setOpenPrice(new BigDecimal(node.get("1. open").asText()));
+            bar.setHighPrice(new BigDecimal(node.get("2. high").asText()));
+            bar.setLowPrice(new BigDecimal(node.get("3. low").asText()));
+            bar.setVolume(node.get("5. volume").asLong());
+            bars.add(bar);
+        }
+        return bars;
+    }
+    
+    /** Closes per ticker ({@code closes[ticker][date]}, NaN where there is no bar) over the union of dates. */
+    private record StoredCloses(LocalDate[] dates, int dateCount, double[][] closes) {}
+    
+    private StoredCloses loadCloses(List<String> tickers, int lookbackDays) {
+        // Roughly 252 trading days per 365 calendar days, plus slack for holidays
+        LocalDate from = LocalDate.now().minusDays((long) Math.ceil((lookbackDays + 1) * 1.5) + 7);
+        List<Object[]> rows = priceBarRepository.findClosesSince(tickers, from);
+        
+        Map<String, Integer> tickerIndex = new HashMap<>();
+        for (int i = 0; i < tickers.size(); i++) {
+            tickerIndex.put(tickers.get(i), i);
+        }
+        
+        // Rows arrive ordered by date, so date ordinals can be assigned in a single pass
+        LocalDate[] allDates = new LocalDate[rows.size()];
+        int dateCount = 0;
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[1];
+            if (dateCount == 0 || !allDates[dateCount - 1].equals(date)) {
+                allDates[dateCount++] = date;
+            }
+        }
+        
+        double[][] closes = new double[tickers.size()][dateCount];
+        for (double[] c : closes) {
+            Arrays.fill(c, Double.NaN);
+        }
+        int ordinal = -1;
+        LocalDate current = null;
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[1];
+            if (!date.equals(current)) {
+                current = date;
+                ordinal++;
+            }
+            closes[tickerIndex.get((String) row[0])][ordinal] = ((BigDecimal) row[2]).doubleValue();
+        }
+        return new StoredCloses(allDates, dateCount, closes);
+    }
+    
+    private ReturnMatrix loadReturnMatrix(List<String> tickers, int lookbackDays) {
+        StoredCloses stored = loadCloses(tickers, lookbackDays);
+        LocalDate[] allDates = stored.dates();
+        int dateCount = stored.dateCount();
+        double[][] closes = stored.closes();
+        
+        // Drop tickers with no history at all, then keep only dates on which every remaining ticker traded
+        int[] present = new int[tickers.size()];
+        int presentCount = 0;
+        for (int i = 0; i < tickers.size(); i++) {
+            for (int t = 0; t < dateCount; t++) {
+                if (!Double.isNaN(closes[i][t])) {
+                    present[presentCount++] = i;
+                    break;
+                }
+            }
+        }
+        
+        boolean[] complete = new boolean[dateCount];
+        int completeCount = 0;
+        for (int t = 0; t < dateCount; t++) {
+            boolean all = presentCount > 0;
+            for (int k = 0; k < presentCount && all; k++) {
+                all = !Double.isNaN(closes[present[k]][t]);
+            }
+            complete[t] = all;
+            if (all) {
+                completeCount++;
+            }
+        }
+        
+        int keep = Math.min(completeCount, lookbackDays + 1);
+        int skip = completeCount - keep;
+        String[] alignedTickers = new String[presentCount];
+        LocalDate[] alignedDates = new LocalDate[keep];
+        double[][] alignedCloses = new double[presentCount][keep];
+        int column = 0;
+        int seen = 0;
+        for (int t = 0; t < dateCount; t++) {
+            if (!complete[t] || seen++ < skip) {
+                continue;
+            }
+            alignedDates[column] = allDates[t];
+            for (int k = 0; k < presentCount; k++) {
+                alignedCloses[k][column] = closes[present[k]][t];
+            }
+            column++;
+        }
+        for (int k = 0; k < presentCount; k++) {
+            alignedTickers[k] = tickers.get(present[k]);
+        }
+        
+        return ReturnMatrix.fromCloses(alignedTickers, alignedDates, alignedCloses);
+    }
+    
+    static List<String> normalize(Collection<String> tickers) {
+        TreeSet<String> set = new TreeSet<>();
+        for (String ticker : tickers) {
+            set.add(ticker.trim().toUpperCase(Locale.ROOT));
+        }
+        return new ArrayList<>(set);
+    }
+    
+    static LocalDate previousTradingDay(LocalDate date) {
+        LocalDate previous = date.minusDays(1);
+        while (previous.getDayOfWeek() == DayOfWeek.SATURDAY || previous.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            previous = previous.minusDays(1);
+        }
+        return previous;
+    }
+}
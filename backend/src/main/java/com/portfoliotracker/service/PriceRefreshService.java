@@ -0,0 +1,177 @@
+package com.portfoliotracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfoliotracker.cluster.ClusterMembership;
+import com.portfoliotracker.entity.TickerQuote;
+import com.portfoliotracker.event.DomainEvent;
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import com.portfoliotracker.outbox.DomainEventOutbox;
+import com.portfoliotracker.repository.TickerQuoteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refreshes the quote of every subscribed ticker (held or watched, see {@link TickerSubscriptionService})
+ * in the background, with the tickers split across the running instances so the upstream quota is spent
+ * once per ticker, not once per instance. Each instance refreshes the tickers {@link ClusterMembership}
+ * assigns to it and stores the quote in {@code ticker_quotes}, where every instance's
+ * {@link AlphaVantageService#getStockQuote} finds it; the other instances are told to drop their cached
+ * copy.
+ * <p>
+ * Before calling upstream an instance takes the ticker's lease in {@code ticker_quotes}, which only
+ * succeeds once per {@code interval-ms}, so a ticker is refreshed once per interval cluster-wide even
+ * while instances briefly disagree on who owns it. Keep the interval below
+ * {@code alpha.vantage.quote-cache.ttl-seconds}, or stored quotes expire before they are replaced.
+ * Outcomes are counted as {@code prices.refresh{result=refreshed|leased|failed}}, where leased means
+ * another instance had already taken the ticker.
+ * <p>
+ * A refresh that changes the price also writes a {@link DomainEvent#PRICE_UPDATED} event to the outbox,
+ * in the transaction that stores the quote.
+ */
+@Service
+public class PriceRefreshService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceRefreshService.class);
+    
+    @Value("${prices.refresh.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${prices.refresh.interval-ms:45000}")
+    private long intervalMillis;
+    
+    @Autowired
+    private TickerSubscriptionService tickerSubscriptionService;
+    
+    @Autowired
+    private TickerQuoteRepository tickerQuoteRepository;
+    
+    @Autowired
+    private AlphaVantageService alphaVantageService;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Autowired
+    private DomainEventOutbox outbox;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter refreshed;
+    private Counter leased;
+    private Counter failed;
+    private volatile int owned;
+    
+    @PostConstruct
+    public void registerMeters() {
+        refreshed = Counter.builder("prices.refresh").tag("result", "refreshed").register(meterRegistry);
+        leased = Counter.builder("prices.refresh").tag("result", "leased").register(meterRegistry);
+        failed = Counter.builder("prices.refresh").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("prices.refresh.owned", this, service -> service.owned)
+                .description("Tickers this instance refreshed in its last run")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${prices.refresh.interval-ms:45000}")
+    public void refreshOwnedTickers() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<String> tickers = tickerSubscriptionService.getSubscribedTickers().stream()
+                    .filter(clusterMembership::owns)
+                    .toList();
+            owned = tickers.size();
+            for (String ticker : tickers) {
+                refresh(ticker);
+            }
+        } catch (DataAccessException e) {
+            log.warn("price refresh aborted node={} error={}", clusterMembership.getNodeId(), e.toString());
+        }
+    }
+    
+    private void refresh(String ticker) {
+        if (!claim(ticker)) {
+            leased.increment();
+            return;
+        }
+        JsonNode quote = alphaVantageService.refreshStockQuote(ticker);
+        if (quote == null) {
+            failed.increment();
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> store(ticker, quote));
+        invalidationBus.publish(QuoteCache.INVALIDATION_TOPIC, ticker);
+        refreshed.increment();
+    }
+    
+    private void store(String ticker, JsonNode quote) {
+        String previousPrice = tickerQuoteRepository.findById(ticker)
+                .map(TickerQuote::getQuote)
+                .map(this::price)
+                .orElse(null);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        tickerQuoteRepository.updateQuote(ticker, quote.toString(), now);
+        String price = quote.path("05. price").asText(null);
+        if (price != null && !price.equals(previousPrice)) {
+            outbox.append(DomainEvent.TICKER, ticker, DomainEvent.PRICE_UPDATED,
+                    Map.of("price", price, "quotedAt", now.toString()));
+        }
+    }
+    
+    private String price(String storedQuote) {
+        try {
+            return objectMapper.readTree(storedQuote).path("05. price").asText(null);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Takes the ticker's lease unless someone took it within the last interval. Runs on one instance are
+     * at least an interval apart (fixed delay), so an instance never locks itself out.
+     */
+    private boolean claim(String ticker) {
+        String nodeId = clusterMembership.getNodeId();
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        if (tickerQuoteRepository.claim(ticker, nodeId, now, now.minus(intervalMillis, ChronoUnit.MILLIS)) == 1) {
+            return true;
+        }
+        if (tickerQuoteRepository.existsById(ticker)) {
+            return false;
+        }
+        try {
+            return tickerQuoteRepository.insertClaim(ticker, nodeId, now) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
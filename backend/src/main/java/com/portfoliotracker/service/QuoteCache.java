@@ -0,0 +1,91 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.invalidation.CacheInvalidationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of upstream quotes, so a portfolio view or a burst of lookups for the same ticker
+ * spends one Alpha Vantage call per TTL rather than one per request. Hits and misses are counted as
+ * {@code quote.cache.requests{result=hit|miss}}.
+ */
+@Component
+public class QuoteCache {
+    
+    /** Invalidation topic for a ticker whose stored price another instance has just updated. */
+    public static final String INVALIDATION_TOPIC = "quote";
+    
+    private record Entry(Map<String, Object> quote, long expiresAtMillis) {}
+    
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    
+    public QuoteCache(@Value("${alpha.vantage.quote-cache.ttl-seconds:60}") long ttlSeconds,
+                      @Value("${alpha.vantage.quote-cache.max-entries:5000}") int maxEntries,
+                      MeterRegistry meterRegistry, CacheInvalidationBus invalidationBus) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("quote.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("quote.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("quote.cache.size", entries, Map::size).register(meterRegistry);
+        // An older quote here would otherwise be written back over the newer price in portfolio_assets
+        invalidationBus.subscribe(INVALIDATION_TOPIC, symbol -> entries.remove(key(symbol)), entries::clear);
+    }
+    
+    /**
+     * @return the cached quote, or {@code null} on a miss or once the entry has expired
+     */
+    public Map<String, Object> get(String symbol) {
+        Entry entry = entries.get(key(symbol));
+        if (entry != null && entry.expiresAtMillis() > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.quote();
+        }
+        misses.increment();
+        return null;
+    }
+    
+    public Map<String, Object> put(String symbol, Map<String, Object> quote) {
+        return put(symbol, quote, System.currentTimeMillis());
+    }
+    
+    /**
+     * Caches a quote fetched earlier, possibly by another instance, until it is a TTL old.
+     */
+    public Map<String, Object> put(String symbol, Map<String, Object> quote, long fetchedAtMillis) {
+        Map<String, Object> cached = Collections.unmodifiableMap(quote);
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        if (entries.size() < maxEntries) {
+            entries.put(key(symbol), new Entry(cached, fetchedAtMillis + ttlMillis));
+        }
+        return cached;
+    }
+    
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+    
+    @Scheduled(fixedDelayString = "${alpha.vantage.quote-cache.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+    
+    private static String key(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
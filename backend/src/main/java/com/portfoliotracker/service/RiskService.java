@@ -0,0 +1,144 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.CovarianceMatrix;
+import com.portfoliotracker.analytics.ReturnMatrix;
+import com.portfoliotracker.analytics.RiskMeasures;
+import com.portfoliotracker.entity.PortfolioAsset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+@Service
+public class RiskService {
+    
+    public static final String METHOD_HISTORICAL = "historical";
+    public static final String METHOD_PARAMETRIC = "parametric";
+    
+    private static final int[] HORIZONS = {1, 10};
+    
+    @Autowired
+    private PortfolioService portfolioService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    @Autowired
+    private CovarianceService covarianceService;
+    
+    public Map<String, Object> calculateRisk(Long portfolioId, Long userId, String method, List<Double> confidenceLevels, int lookbackDays) {
+        if (!METHOD_HISTORICAL.equals(method) && !METHOD_PARAMETRIC.equals(method)) {
+            throw new IllegalArgumentException("Unknown VaR method: " + method);
+        }
+        for (Double confidence : confidenceLevels) {
+            if (confidence == null || confidence <= 0.5 || confidence >= 1.0) {
+                throw new IllegalArgumentException("Confidence levels must be between 0.5 and 1: " + confidence);
+            }
+        }
+        
+        List<PortfolioAsset> assets = portfolioService.getOwnedAssets(portfolioId, userId);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("portfolioId", portfolioId);
+        result.put("method", method);
+        result.put("lookbackDays", lookbackDays);
+        
+        // Aggregate market value per ticker (cost basis when no price has been fetched yet)
+        Map<String, Double> exposure = new HashMap<>();
+        for (PortfolioAsset asset : assets) {
+            exposure.merge(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT), asset.getMarketValue().doubleValue(), Double::sum);
+        }
+        
+        // Historical simulation needs joint scenarios, so it runs on the dates every ticker traded; the parametric
+        // method uses the shared EWMA covariance, whose pairs are estimated on their own overlapping days
+        ReturnMatrix matrix = null;
+        CovarianceMatrix covariance = null;
+        List<String> covered;
+        if (METHOD_HISTORICAL.equals(method)) {
+            matrix = priceHistoryService.getReturnMatrix(exposure.keySet(), lookbackDays);
+            covered = matrix.tickers();
+            result.put("observations", matrix.dayCount());
+            result.put("asOf", matrix.lastDate());
+        } else {
+            covariance = covarianceService.getCovariance(exposure.keySet());
+            covered = covariance.tickerList();
+            result.put("asOf", covariance.asOf());
+        }
+        
+        // Tickers without enough history are reported and their value excluded, never spread over the others
+        double portfolioValue = 0.0;
+        double[] weights = new double[covered.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = exposure.get(covered.get(i));
+            portfolioValue += weights[i];
+        }
+        List<String> missing = new ArrayList<>();
+        double uncoveredValue = 0.0;
+        for (Map.Entry<String, Double> entry : exposure.entrySet()) {
+            if (!covered.contains(entry.getKey())) {
+                missing.add(entry.getKey());
+                uncoveredValue += entry.getValue();
+            }
+        }
+        Collections.sort(missing);
+        
+        result.put("portfolioValue", scale(portfolioValue, 2));
+        result.put("tickers", covered);
+        result.put("missingTickers", missing);
+        result.put("uncoveredValue", scale(uncoveredValue, 2));
+        
+        if (portfolioValue <= 0.0 || (matrix != null ? matrix.dayCount() < 2 : covered.isEmpty())) {
+            result.put("measures", List.of());
+            result.put("message", "Not enough price history to estimate risk");
+            return result;
+        }
+        if (!missing.isEmpty()) {
+            result.put("message", "Risk covers only the holdings with price history; excluded: " + String.join(", ", missing));
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= portfolioValue;
+        }
+        
+        double[] sorted = null;
+        double mean;
+        double stdDev;
+        if (matrix != null) {
+            double[] portfolioReturns = matrix.portfolioReturns(weights);
+            sorted = RiskMeasures.sortedCopy(portfolioReturns);
+            mean = RiskMeasures.mean(portfolioReturns);
+            stdDev = RiskMeasures.stdDev(portfolioReturns, mean);
+        } else {
+            mean = covariance.portfolioMean(weights);
+            stdDev = Math.sqrt(Math.max(covariance.portfolioVariance(weights), 0.0));
+        }
+        
+        List<Map<String, Object>> measures = new ArrayList<>();
+        for (double confidence : confidenceLevels) {
+            RiskMeasures.Estimate daily = sorted != null
+                    ? RiskMeasures.historical(sorted, mean, confidence)
+                    : RiskMeasures.parametric(mean, stdDev, confidence);
+            for (int horizon : HORIZONS) {
+                RiskMeasures.Estimate estimate = daily.scaledTo(horizon);
+                Map<String, Object> measure = new HashMap<>();
+                measure.put("confidence", confidence);
+                measure.put("horizonDays", horizon);
+                measure.put("valueAtRisk", scale(estimate.valueAtRisk() * portfolioValue, 2));
+                measure.put("valueAtRiskPercent", scale(estimate.valueAtRisk() * 100, 4));
+                measure.put("expectedShortfall", scale(estimate.expectedShortfall() * portfolioValue, 2));
+                measure.put("expectedShortfallPercent", scale(estimate.expectedShortfall() * 100, 4));
+                measures.add(measure);
+            }
+        }
+        
+        result.put("dailyMeanReturn", scale(mean, 6));
+        result.put("dailyVolatility", scale(stdDev, 6));
+        result.put("measures", measures);
+        return result;
+    }
+    
+    private static BigDecimal scale(double value, int digits) {
+        return BigDecimal.valueOf(value).setScale(digits, RoundingMode.HALF_UP);
+    }
+}
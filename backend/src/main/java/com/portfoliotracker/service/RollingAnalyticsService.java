@@ -0,0 +1,154 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.analytics.ReturnMatrix;
+import com.portfoliotracker.analytics.RollingWindow;
+import com.portfoliotracker.entity.PortfolioAsset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling return, volatility, max drawdown and beta for each holding and for the whole portfolio.
+ * <p>
+ * Per-ticker figures are computed on the ticker's own history aligned with the benchmark and cached per
+ * (ticker, window, as-of date), so they are shared by every portfolio holding the ticker. Portfolio beta
+ * is the value-weighted sum of cached holding betas; portfolio volatility and drawdown need the combined
+ * path and are computed in one more O(days) pass over the weighted return series.
+ */
+@Service
+public class RollingAnalyticsService {
+    
+    private static final int MAX_CACHED_ENTRIES = 20000;
+    
+    @Value("${analytics.benchmark:SPY}")
+    private String benchmark;
+    
+    @Autowired
+    private PortfolioService portfolioService;
+    
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    
+    private final Map<String, Map<String, Object>> tickerCache = new ConcurrentHashMap<>();
+    
+    public Map<String, Object> getRollingAnalytics(Long portfolioId, Long userId, List<Integer> windows) {
+        for (Integer window : windows) {
+            if (window == null || window < 2 || window > 2520) {
+                throw new IllegalArgumentException("Windows must be between 2 and 2520 trading days: " + window);
+            }
+        }
+        int maxWindow = Collections.max(windows);
+        
+        Map<String, Double> exposure = new TreeMap<>();
+        double totalValue = 0.0;
+        for (PortfolioAsset asset : portfolioService.getOwnedAssets(portfolioId, userId)) {
+            double value = asset.getMarketValue().doubleValue();
+            exposure.merge(asset.getTickerSymbol().trim().toUpperCase(Locale.ROOT), value, Double::sum);
+            totalValue += value;
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("portfolioId", portfolioId);
+        result.put("benchmark", benchmark);
+        result.put("windows", windows);
+        
+        // Holdings: cached per ticker, window and as-of date
+        Map<String, List<Map<String, Object>>> holdings = new TreeMap<>();
+        for (String ticker : exposure.keySet()) {
+            ReturnMatrix matrix = priceHistoryService.getReturnMatrix(List.of(ticker, benchmark), maxWindow);
+            int index = matrix.indexOf(ticker);
+            if (index < 0 || matrix.dayCount() == 0) {
+                continue;
+            }
+            int benchmarkIndex = matrix.indexOf(benchmark);
+            double[] benchmarkReturns = benchmarkIndex >= 0 && benchmarkIndex != index ? matrix.row(benchmarkIndex) : null;
+            List<Map<String, Object>> stats = new ArrayList<>();
+            for (int window : windows) {
+                String key = ticker + "|" + window + "|" + matrix.lastDate();
+                Map<String, Object> cached = tickerCache.get(key);
+                if (cached == null) {
+                    cached = latest(RollingWindow.compute(matrix.row(index), benchmarkReturns, window), matrix.lastDate());
+                    if (benchmarkIndex == index && cached.get("return") != null) {
+                        // Holding the benchmark itself: its beta is 1 by definition, and it must still count
+                        // towards the portfolio beta
+                        cached.put("beta", scale(1.0));
+                    }
+                    if (tickerCache.size() >= MAX_CACHED_ENTRIES) {
+                        tickerCache.clear();
+                    }
+                    tickerCache.put(key, cached);
+                }
+                stats.add(cached);
+            }
+            holdings.put(ticker, stats);
+        }
+        result.put("holdings", holdings);
+        
+        // Portfolio: one weighted pass over the aligned matrix for the path-dependent figures
+        Set<String> tickers = new TreeSet<>(exposure.keySet());
+        tickers.add(benchmark);
+        ReturnMatrix matrix = priceHistoryService.getReturnMatrix(tickers, maxWindow);
+        double[] weights = new double[matrix.tickerCount()];
+        double covered = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = exposure.getOrDefault(matrix.ticker(i), 0.0);
+            covered += weights[i];
+        }
+        List<Map<String, Object>> portfolio = new ArrayList<>();
+        if (covered > 0.0 && matrix.dayCount() > 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= covered;
+            }
+            double[] portfolioReturns = matrix.portfolioReturns(weights);
+            for (int window : windows) {
+                Map<String, Object> stats = latest(RollingWindow.compute(portfolioReturns, null, window), matrix.lastDate());
+                stats.put("beta", combinedBeta(holdings, exposure, totalValue, window));
+                portfolio.add(stats);
+            }
+        }
+        result.put("portfolio", portfolio);
+        result.put("asOf", matrix.lastDate());
+        return result;
+    }
+    
+    private static BigDecimal combinedBeta(Map<String, List<Map<String, Object>>> holdings, Map<String, Double> exposure,
+                                           double totalValue, int window) {
+        if (totalValue <= 0.0) {
+            return null;
+        }
+        double beta = 0.0;
+        double weightWithBeta = 0.0;
+        for (Map.Entry<String, List<Map<String, Object>>> entry : holdings.entrySet()) {
+            for (Map<String, Object> stats : entry.getValue()) {
+                if (((Integer) stats.get("window")) == window && stats.get("beta") != null) {
+                    double weight = exposure.get(entry.getKey()) / totalValue;
+                    beta += weight * ((BigDecimal) stats.get("beta")).doubleValue();
+                    weightWithBeta += weight;
+                }
+            }
+        }
+        return weightWithBeta > 0.0 ? scale(beta / weightWithBeta) : null;
+    }
+    
+    private static Map<String, Object> latest(RollingWindow.Series series, LocalDate asOf) {
+        int last = series.lastIndex();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("window", series.window());
+        stats.put("asOf", asOf);
+        stats.put("return", last >= 0 ? scale(series.trailingReturn()[last]) : null);
+        stats.put("volatility", last >= 0 ? scale(series.volatility()[last]) : null);
+        stats.put("maxDrawdown", last >= 0 ? scale(series.maxDrawdown()[last]) : null);
+        stats.put("beta", last >= 0 ? scale(series.beta()[last]) : null);
+        return stats;
+    }
+    
+    private static BigDecimal scale(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
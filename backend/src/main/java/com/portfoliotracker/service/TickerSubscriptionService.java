@@ -0,0 +1,162 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.cluster.ClusterMembership;
+import com.portfoliotracker.entity.TickerSubscription;
+import com.portfoliotracker.repository.PortfolioAssetRepository;
+import com.portfoliotracker.repository.PriceAlertRepository;
+import com.portfoliotracker.repository.TickerSubscriptionRepository;
+import com.portfoliotracker.repository.WatchlistItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The deduplicated set of tickers the background price refresh keeps quoted. Every holding, every
+ * watchlist entry and every active price alert, across all users, counts as one subscriber of its ticker;
+ * {@link PriceRefreshService} refreshes each ticker with subscribers once per interval, so a ticker on
+ * thousands of watchlists spends the upstream quota of one, and a ticker drops out once its last holding,
+ * entry or alert is gone.
+ * <p>
+ * Counts move in the transaction that adds or removes the holding, entry or alert (an alert also goes
+ * when it fires), under the ticker's row lock.
+ * The row itself is created beforehand by {@link #prepare}, outside that transaction (on PostgreSQL a
+ * duplicate key would abort it), and is never deleted, so the update always finds it. A nightly run
+ * recounts the tickers whose count disagrees with the tables, which only happens when rows were written
+ * around the services.
+ */
+@Service
+public class TickerSubscriptionService {
+    
+    static final String RECONCILE_KEY = "ticker-subscriptions";
+    
+    private static final Logger log = LoggerFactory.getLogger(TickerSubscriptionService.class);
+    
+    @Autowired
+    private TickerSubscriptionRepository tickerSubscriptionRepository;
+    
+    @Autowired
+    private PortfolioAssetRepository portfolioAssetRepository;
+    
+    @Autowired
+    private WatchlistItemRepository watchlistItemRepository;
+    
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    public static String normalize(String ticker) {
+        return ticker.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    /**
+     * Makes sure the ticker has a count row. Call it before the transaction that subscribes the ticker.
+     *
+     * @return the normalized ticker symbol
+     */
+    public String prepare(String ticker) {
+        String symbol = normalize(ticker);
+        if (!tickerSubscriptionRepository.existsById(symbol)) {
+            try {
+                tickerSubscriptionRepository.insert(symbol);
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently
+            }
+        }
+        return symbol;
+    }
+    
+    /** Counts a new holding, watchlist entry or alert; must run in the transaction that creates it. */
+    public void subscribe(String ticker) {
+        adjust(ticker, 1);
+    }
+    
+    /** Uncounts a holding, watchlist entry or alert; must run in the transaction that deletes or fires it. */
+    public void unsubscribe(String ticker) {
+        adjust(ticker, -1);
+    }
+    
+    private void adjust(String ticker, long delta) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                    "Ticker subscriptions must change in the transaction of their holding, entry or alert");
+        }
+        if (tickerSubscriptionRepository.adjust(normalize(ticker), delta) == 0) {
+            throw new IllegalStateException("No subscription row for " + ticker + "; call prepare first");
+        }
+    }
+    
+    public List<String> getSubscribedTickers() {
+        return tickerSubscriptionRepository.findSubscribedTickerSymbols();
+    }
+    
+    /**
+     * Compares every count with the holdings, watchlist entries and active alerts in one pass, and recounts the tickers
+     * that differ. A recount takes the row lock before counting, so a concurrent add or removal either
+     * commits before the count sees it or adjusts the recounted value afterwards.
+     */
+    @Scheduled(cron = "${tickers.subscriptions.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        if (!clusterMembership.owns(RECONCILE_KEY)) {
+            return;
+        }
+        try {
+            Map<String, Long> expected = new HashMap<>();
+            for (Object[] row : portfolioAssetRepository.countByNormalizedTicker()) {
+                expected.merge((String) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+            for (Object[] row : watchlistItemRepository.countByTicker()) {
+                expected.merge((String) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+            for (Object[] row : priceAlertRepository.countActiveByTicker()) {
+                expected.merge((String) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+            Map<String, Long> stored = new HashMap<>();
+            for (TickerSubscription subscription : tickerSubscriptionRepository.findAll()) {
+                stored.put(subscription.getTickerSymbol(), subscription.getSubscribers());
+            }
+            
+            Set<String> tickers = new HashSet<>(expected.keySet());
+            tickers.addAll(stored.keySet());
+            int corrected = 0;
+            for (String ticker : tickers) {
+                if (!Objects.equals(expected.getOrDefault(ticker, 0L), stored.get(ticker))) {
+                    recount(prepare(ticker));
+                    corrected++;
+                }
+            }
+            if (corrected > 0) {
+                log.info("ticker subscriptions reconciled corrected={}", corrected);
+            }
+        } catch (DataAccessException e) {
+            log.warn("ticker subscription reconcile aborted error={}", e.toString());
+        }
+    }
+    
+    private void recount(String ticker) {
+        transactionTemplate.executeWithoutResult(status -> {
+            tickerSubscriptionRepository.adjust(ticker, 0);
+            tickerSubscriptionRepository.setSubscribers(ticker, portfolioAssetRepository.countByNormalizedTicker(ticker)
+                    + watchlistItemRepository.countByTickerSymbol(ticker)
+                    + priceAlertRepository.countByTickerSymbolAndTriggeredAtIsNull(ticker));
+        });
+    }
+}
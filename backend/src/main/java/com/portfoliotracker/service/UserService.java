@@ -8,6 +8,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -18,7 +19,10 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    // Read-write transactions keep the lookups behind login and registration on the primary, so an account
+    // can sign in straight after it is created without waiting for a read replica to catch up
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -35,14 +39,20 @@ public class UserService implements UserDetailsService {
         return userRepository.findByUsername(username).orElse(null);
     }
     
+    public User findById(Long id) {
+        return userRepository.findById(id).orElse(null);
+    }
+    
     public User findByEmail(String email) {
         return userRepository.findByEmail(email).orElse(null);
     }
     
+    @Transactional
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
     
+    @Transactional
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
@@ -0,0 +1,132 @@
+package com.portfoliotracker.service;
+
+import com.portfoliotracker.dto.WatchlistRequest;
+import com.portfoliotracker.entity.Watchlist;
+import com.portfoliotracker.entity.WatchlistItem;
+import com.portfoliotracker.repository.WatchlistItemRepository;
+import com.portfoliotracker.repository.WatchlistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Watchlists: tickers a user follows without holding them. Each entry is a subscriber of its ticker in
+ * {@link TickerSubscriptionService}, so watched quotes are kept fresh by the background refresh and a
+ * watchlist is read from the shared quote store, not upstream.
+ * <p>
+ * Changes to a watchlist's entries lock the watchlist row first and run one at a time, so every entry
+ * is counted exactly once when added and uncounted exactly once when removed.
+ */
+@Service
+public class WatchlistService {
+    
+    @Value("${watchlists.max-per-user:20}")
+    private int maxPerUser;
+    
+    @Value("${watchlists.max-items-per-list:100}")
+    private int maxItemsPerList;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    @Autowired
+    private WatchlistItemRepository watchlistItemRepository;
+    
+    @Autowired
+    private TickerSubscriptionService tickerSubscriptionService;
+    
+    @Autowired
+    private AlphaVantageService alphaVantageService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    public Watchlist createWatchlist(Long userId, WatchlistRequest request) {
+        if (watchlistRepository.countByUserId(userId) >= maxPerUser) {
+            throw new IllegalStateException("No more than " + maxPerUser + " watchlists allowed");
+        }
+        return watchlistRepository.save(new Watchlist(userId, request.getName().trim()));
+    }
+    
+    public List<Watchlist> getWatchlists(Long userId) {
+        return watchlistRepository.findByUserId(userId);
+    }
+    
+    public Watchlist getWatchlist(Long watchlistId, Long userId) {
+        return watchlistRepository.findByIdAndUserId(watchlistId, userId)
+                .orElseThrow(() -> new RuntimeException("Watchlist not found"));
+    }
+    
+    /** The watchlist's tickers, oldest entry first, each with its latest quote (null if none is available). */
+    public List<Map<String, Object>> getItemsWithQuotes(Long watchlistId, Long userId) {
+        Watchlist watchlist = getWatchlist(watchlistId, userId);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (WatchlistItem item : watchlistItemRepository.findByWatchlistIdOrderByIdAsc(watchlist.getId())) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("tickerSymbol", item.getTickerSymbol());
+            entry.put("addedAt", item.getAddedAt());
+            entry.put("quote", alphaVantageService.getStockQuote(item.getTickerSymbol()));
+            items.add(entry);
+        }
+        return items;
+    }
+    
+    public WatchlistItem addTicker(Long watchlistId, String tickerSymbol, Long userId) {
+        getWatchlist(watchlistId, userId);
+        String symbol = TickerSubscriptionService.normalize(tickerSymbol);
+        // An unknown symbol would be refreshed, and fail, on every interval from now on
+        if (alphaVantageService.getStockQuote(symbol) == null) {
+            throw new IllegalArgumentException("No quote available for " + symbol);
+        }
+        tickerSubscriptionService.prepare(symbol);
+        
+        return changeEntries(watchlistId, userId, watchlist -> {
+            if (watchlistItemRepository.findByWatchlistIdAndTickerSymbol(watchlist.getId(), symbol).isPresent()) {
+                throw new IllegalStateException(symbol + " is already on this watchlist");
+            }
+            if (watchlistItemRepository.countByWatchlistId(watchlist.getId()) >= maxItemsPerList) {
+                throw new IllegalStateException("No more than " + maxItemsPerList + " tickers allowed per watchlist");
+            }
+            WatchlistItem item = watchlistItemRepository.save(new WatchlistItem(watchlist, symbol));
+            tickerSubscriptionService.subscribe(symbol);
+            return item;
+        });
+    }
+    
+    public void removeTicker(Long watchlistId, String tickerSymbol, Long userId) {
+        String symbol = TickerSubscriptionService.normalize(tickerSymbol);
+        changeEntries(watchlistId, userId, watchlist -> {
+            WatchlistItem item = watchlistItemRepository.findByWatchlistIdAndTickerSymbol(watchlist.getId(), symbol)
+                    .orElseThrow(() -> new RuntimeException(symbol + " is not on this watchlist"));
+            watchlistItemRepository.delete(item);
+            tickerSubscriptionService.unsubscribe(symbol);
+            return null;
+        });
+    }
+    
+    public void deleteWatchlist(Long watchlistId, Long userId) {
+        changeEntries(watchlistId, userId, watchlist -> {
+            List<WatchlistItem> items = new ArrayList<>(watchlistItemRepository.findByWatchlistIdOrderByIdAsc(watchlist.getId()));
+            watchlistItemRepository.deleteByWatchlistId(watchlist.getId());
+            // Ticker order, so deletes sharing tickers take the subscription row locks in the same order
+            items.sort(Comparator.comparing(WatchlistItem::getTickerSymbol));
+            items.forEach(item -> tickerSubscriptionService.unsubscribe(item.getTickerSymbol()));
+            watchlistRepository.delete(watchlist);
+            return null;
+        });
+    }
+    
+    private <T> T changeEntries(Long watchlistId, Long userId, Function<Watchlist, T> change) {
+        return transactionTemplate.execute(status -> change.apply(
+                watchlistRepository.findForUpdateByIdAndUserId(watchlistId, userId)
+                        .orElseThrow(() -> new RuntimeException("Watchlist not found"))));
+    }
+}
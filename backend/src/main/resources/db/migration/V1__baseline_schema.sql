@@ -0,0 +1,75 @@
+-- Schema as previously created by Hibernate's ddl-auto=update. Every statement is guarded, so this
+-- also runs cleanly against databases that were created that way (spring.flyway.baseline-version=0).
+
+create table if not exists users (
+    id bigserial not null,
+    username varchar(255),
+    email varchar(255),
+    password varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table if not exists portfolios (
+    id bigserial not null,
+    user_id bigint not null,
+    name varchar(255),
+    description varchar(255),
+    revision bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_portfolios_user foreign key (user_id) references users (id)
+);
+
+create table if not exists portfolio_assets (
+    id bigserial not null,
+    portfolio_id bigint not null,
+    ticker_symbol varchar(255),
+    quantity numeric(38,2),
+    purchase_price numeric(38,2),
+    current_price numeric(38,2),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_portfolio_assets_portfolio foreign key (portfolio_id) references portfolios (id)
+);
+
+create table if not exists portfolio_insights (
+    id bigserial not null,
+    portfolio_id bigint not null,
+    portfolio_revision bigint not null,
+    diversification text,
+    recommendation text,
+    simulation text,
+    computed_at timestamp(6),
+    primary key (id),
+    constraint uk_portfolio_insights_portfolio unique (portfolio_id)
+);
+
+create table if not exists price_bars (
+    id bigserial not null,
+    ticker_symbol varchar(255) not null,
+    trade_date date not null,
+    open_price numeric(38,2),
+    high_price numeric(38,2),
+    low_price numeric(38,2),
+    close_price numeric(38,2) not null,
+    volume bigint,
+    created_at timestamp(6),
+    primary key (id),
+    constraint uk_price_bars_ticker_date unique (ticker_symbol, trade_date)
+);
+
+create table if not exists ticker_classifications (
+    ticker_symbol varchar(255) not null,
+    name varchar(255),
+    sector varchar(255),
+    industry varchar(255),
+    asset_class varchar(255),
+    updated_at timestamp(6),
+    primary key (ticker_symbol)
+);
@@ -0,0 +1,48 @@
+-- Indexes for the repository access paths; the load test's query plan check (QueryPlanCheck) fails
+-- if any of them plans to a sequential scan.
+
+-- PortfolioRepository.findByUserId
+create index idx_portfolios_user_id on portfolios (user_id);
+
+-- One holding per ticker per portfolio. The service already merges repeat buys into the existing row,
+-- so duplicates can only come from concurrent adds; fold them into one row (summed quantity,
+-- quantity-weighted purchase price) before the constraint goes on.
+with merged as (
+    select portfolio_id,
+           ticker_symbol,
+           min(id) as keep_id,
+           sum(quantity) as quantity,
+           sum(quantity * purchase_price) / nullif(sum(quantity), 0) as purchase_price
+    from portfolio_assets
+    group by portfolio_id, ticker_symbol
+    having count(*) > 1
+)
+update portfolio_assets a
+set quantity = m.quantity,
+    purchase_price = coalesce(m.purchase_price, a.purchase_price)
+from merged m
+where a.id = m.keep_id;
+
+delete from portfolio_assets a
+using portfolio_assets b
+where a.portfolio_id = b.portfolio_id
+  and a.ticker_symbol = b.ticker_symbol
+  and a.id > b.id;
+
+-- Also serves findByPortfolioId, findByPortfolioIdIn and the fetch join in findWithAssetsByIdAndUserId
+alter table portfolio_assets
+    add constraint uk_portfolio_assets_portfolio_ticker unique (portfolio_id, ticker_symbol);
+
+-- PortfolioAssetRepository.findDistinctTickerSymbols, as an index-only scan
+create index idx_portfolio_assets_ticker_symbol on portfolio_assets (ticker_symbol);
+
+-- PriceBarRepository.findClosesSince reads (ticker, date, close) for a date range: cover it so the
+-- return matrix is built from the index alone
+create index idx_price_bars_ticker_date_close on price_bars (ticker_symbol, trade_date) include (close_price);
+
+-- Insights of deleted portfolios are useless; let the database remove them
+delete from portfolio_insights i
+where not exists (select 1 from portfolios p where p.id = i.portfolio_id);
+
+alter table portfolio_insights
+    add constraint fk_portfolio_insights_portfolio foreign key (portfolio_id) references portfolios (id) on delete cascade;
@@ -0,0 +1,23 @@
+-- Backend instances announce themselves here and heartbeat; a row that stops being refreshed marks a
+-- dead instance, and its share of the price refresh moves to the others.
+create table cluster_nodes (
+    node_id varchar(64) not null,
+    host varchar(255),
+    joined_at timestamp(6),
+    heartbeat_at timestamp(6) not null,
+    primary key (node_id)
+);
+
+-- ClusterNodeRepository.findLiveNodeIds and deleteExpired
+create index idx_cluster_nodes_heartbeat_at on cluster_nodes (heartbeat_at);
+
+-- The latest upstream quote per ticker, shared by all instances. claimed_at/claimed_by is the refresh
+-- lease: an instance may only call upstream for a ticker once it has moved claimed_at forward.
+create table ticker_quotes (
+    ticker_symbol varchar(255) not null,
+    quote varchar(2000),
+    quoted_at timestamp(6),
+    claimed_by varchar(64),
+    claimed_at timestamp(6) not null,
+    primary key (ticker_symbol)
+);
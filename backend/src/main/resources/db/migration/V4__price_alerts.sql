@@ -0,0 +1,36 @@
+-- One-shot price alerts: an alert is active until triggered_at is set
+create table price_alerts (
+    id bigserial not null,
+    user_id bigint not null,
+    ticker_symbol varchar(255) not null,
+    direction varchar(8) not null,
+    threshold numeric(19,4) not null,
+    created_at timestamp(6),
+    triggered_at timestamp(6),
+    primary key (id),
+    constraint fk_price_alerts_user foreign key (user_id) references users (id) on delete cascade
+);
+
+-- PriceAlertRepository.findByUserId
+create index idx_price_alerts_user_id on price_alerts (user_id);
+
+-- PriceAlertRepository.findByTriggeredAtIsNull, read at startup to build the in-memory index
+create index idx_price_alerts_active on price_alerts (ticker_symbol) where triggered_at is null;
+
+-- Outbox of fired alerts. Rows are written in the same transaction that marks the alert triggered and
+-- are read back by id, so a client that reconnects resumes from the last id it saw.
+create table alert_triggers (
+    id bigserial not null,
+    alert_id bigint not null,
+    user_id bigint not null,
+    ticker_symbol varchar(255) not null,
+    direction varchar(8) not null,
+    threshold numeric(19,4) not null,
+    price numeric(19,4) not null,
+    triggered_at timestamp(6),
+    primary key (id),
+    constraint fk_alert_triggers_user foreign key (user_id) references users (id) on delete cascade
+);
+
+-- AlertTriggerRepository.findTop100ByUserIdAndIdGreaterThanOrderByIdAsc
+create index idx_alert_triggers_user_id_id on alert_triggers (user_id, id);
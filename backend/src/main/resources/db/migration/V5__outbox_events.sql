@@ -0,0 +1,18 @@
+-- Transactional outbox: domain events are inserted in the transaction that makes the change and handed
+-- to in-process subscribers by OutboxRelay, which sets published_at once they have been delivered
+create table outbox_events (
+    id bigserial not null,
+    aggregate_type varchar(64) not null,
+    aggregate_id varchar(255) not null,
+    event_type varchar(64) not null,
+    payload text not null,
+    created_at timestamp(6) not null,
+    published_at timestamp(6),
+    primary key (id)
+);
+
+-- OutboxEventRepository.findByPublishedAtIsNullOrderByIdAsc; only the undelivered tail is indexed
+create index idx_outbox_events_pending on outbox_events (id) where published_at is null;
+
+-- OutboxEventRepository.deletePublishedBefore
+create index idx_outbox_events_published_at on outbox_events (published_at) where published_at is not null;
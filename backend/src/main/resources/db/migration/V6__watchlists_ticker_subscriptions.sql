@@ -0,0 +1,43 @@
+-- Watchlists: tickers a user follows without holding them
+create table watchlists (
+    id bigserial not null,
+    user_id bigint not null,
+    name varchar(100) not null,
+    created_at timestamp(6),
+    primary key (id),
+    constraint fk_watchlists_user foreign key (user_id) references users (id) on delete cascade
+);
+
+-- WatchlistRepository.findByUserId, countByUserId
+create index idx_watchlists_user_id on watchlists (user_id);
+
+-- Ticker symbols are stored normalized (trimmed, upper case), one entry per ticker and watchlist
+create table watchlist_items (
+    id bigserial not null,
+    watchlist_id bigint not null,
+    ticker_symbol varchar(255) not null,
+    added_at timestamp(6),
+    primary key (id),
+    constraint uk_watchlist_items_watchlist_ticker unique (watchlist_id, ticker_symbol),
+    constraint fk_watchlist_items_watchlist foreign key (watchlist_id) references watchlists (id) on delete cascade
+);
+
+-- WatchlistItemRepository.countByTickerSymbol and countByTicker (ticker subscription reconcile)
+create index idx_watchlist_items_ticker_symbol on watchlist_items (ticker_symbol);
+
+-- Reference count per normalized ticker: one per holding plus one per watchlist entry. Rows are never
+-- deleted; the background price refresh covers the tickers with a positive count.
+create table ticker_subscriptions (
+    ticker_symbol varchar(255) not null,
+    subscribers bigint not null,
+    primary key (ticker_symbol)
+);
+
+-- TickerSubscriptionRepository.findSubscribedTickerSymbols
+create index idx_ticker_subscriptions_active on ticker_subscriptions (ticker_symbol) where subscribers > 0;
+
+-- PortfolioAssetRepository.countByNormalizedTicker; V7 normalizes the symbols of existing holdings
+create index idx_portfolio_assets_ticker_normalized on portfolio_assets (upper(btrim(ticker_symbol)));
+
+insert into ticker_subscriptions (ticker_symbol, subscribers)
+select upper(btrim(ticker_symbol)), count(*) from portfolio_assets group by upper(btrim(ticker_symbol));
@@ -0,0 +1,43 @@
+-- Holdings are stored with normalized ticker symbols (trimmed, upper case), as watchlist entries and
+-- ticker subscriptions are, so uk_portfolio_assets_portfolio_ticker also keeps "aapl" and "AAPL" in one
+-- row. Fold the holdings that normalize to the same ticker into the oldest one first (summed quantity,
+-- quantity-weighted purchase price), as V2 did for exact duplicates.
+with merged as (
+    select portfolio_id,
+           upper(btrim(ticker_symbol)) as ticker_symbol,
+           min(id) as keep_id,
+           sum(quantity) as quantity,
+           sum(quantity * purchase_price) / nullif(sum(quantity), 0) as purchase_price
+    from portfolio_assets
+    group by portfolio_id, upper(btrim(ticker_symbol))
+    having count(*) > 1
+)
+update portfolio_assets a
+set quantity = m.quantity,
+    purchase_price = coalesce(m.purchase_price, a.purchase_price)
+from merged m
+where a.id = m.keep_id;
+
+delete from portfolio_assets a
+using portfolio_assets b
+where a.portfolio_id = b.portfolio_id
+  and upper(btrim(a.ticker_symbol)) = upper(btrim(b.ticker_symbol))
+  and a.id > b.id;
+
+update portfolio_assets
+set ticker_symbol = upper(btrim(ticker_symbol))
+where ticker_symbol <> upper(btrim(ticker_symbol));
+
+-- Merged holdings were counted once each; recount every ticker from its holdings, watchlist entries and
+-- active price alerts, as TickerSubscriptionService.reconcile does
+update ticker_subscriptions s
+set subscribers = (select count(*) from portfolio_assets a where a.ticker_symbol = s.ticker_symbol)
+        + (select count(*) from watchlist_items w where w.ticker_symbol = s.ticker_symbol)
+        + (select count(*) from price_alerts p where p.ticker_symbol = s.ticker_symbol and p.triggered_at is null);
+
+insert into ticker_subscriptions (ticker_symbol, subscribers)
+select p.ticker_symbol, count(*)
+from price_alerts p
+where p.triggered_at is null
+  and not exists (select 1 from ticker_subscriptions s where s.ticker_symbol = p.ticker_symbol)
+group by p.ticker_symbol;
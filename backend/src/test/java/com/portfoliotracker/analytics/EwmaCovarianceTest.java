@@ -0,0 +1,111 @@
+package com.portfoliotracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EwmaCovarianceTest {
+    
+    private static final double LAMBDA = 0.94;
+    
+    private static ReturnMatrix matrix(String[] tickers, double[][] returns) {
+        LocalDate[] dates = new LocalDate[returns[0].length];
+        for (int t = 0; t < dates.length; t++) {
+            dates[t] = LocalDate.of(2024, 1, 1).plusDays(t);
+        }
+        return new ReturnMatrix(tickers, dates, returns, new double[tickers.length]);
+    }
+    
+    private static double[][] randomReturns(int tickers, int days, long seed) {
+        Random random = new Random(seed);
+        double[][] returns = new double[tickers][days];
+        for (int t = 0; t < days; t++) {
+            double market = random.nextGaussian() * 0.01;
+            for (int i = 0; i < tickers; i++) {
+                returns[i][t] = market + random.nextGaussian() * 0.01;
+            }
+        }
+        return returns;
+    }
+    
+    @Test
+    void fullyObservedMatchesBiasCorrectedRecursion() {
+        double[][] returns = randomReturns(2, 120, 1);
+        CovarianceMatrix covariance = EwmaCovariance.seed(matrix(new String[]{"A", "B"}, returns), LAMBDA)
+                .subMatrix(List.of("A", "B"));
+        
+        double sum = 0.0;
+        double weight = 0.0;
+        double meanSum = 0.0;
+        for (int t = 0; t < 120; t++) {
+            sum = LAMBDA * sum + (1 - LAMBDA) * returns[0][t] * returns[1][t];
+            meanSum = LAMBDA * meanSum + (1 - LAMBDA) * returns[0][t];
+            weight = LAMBDA * weight + (1 - LAMBDA);
+        }
+        assertEquals(sum / weight, covariance.covariance()[0][1], 1e-15);
+        assertEquals(meanSum / weight, covariance.means()[0], 1e-15);
+    }
+    
+    @Test
+    void shortHistoryTickerDoesNotChangeOtherPairs() {
+        double[][] returns = randomReturns(3, 200, 2);
+        for (int t = 0; t < 170; t++) {
+            returns[2][t] = Double.NaN;
+        }
+        CovarianceMatrix withShort = EwmaCovariance.seed(matrix(new String[]{"A", "B", "C"}, returns), LAMBDA)
+                .subMatrix(List.of("A", "B", "C"));
+        CovarianceMatrix without = EwmaCovariance.seed(matrix(new String[]{"A", "B"}, new double[][]{returns[0], returns[1]}), LAMBDA)
+                .subMatrix(List.of("A", "B"));
+        
+        assertEquals(3, withShort.size());
+        assertEquals(without.covariance()[0][1], withShort.covariance()[0][1], 1e-15);
+        assertEquals(without.covariance()[1][1], withShort.covariance()[1][1], 1e-15);
+    }
+    
+    @Test
+    void tickersWithTooFewObservationsAreSkipped() {
+        double[][] returns = randomReturns(2, 100, 3);
+        for (int t = 0; t < 100 - EwmaCovariance.MIN_OBSERVATIONS + 1; t++) {
+            returns[1][t] = Double.NaN;
+        }
+        EwmaCovariance estimate = EwmaCovariance.seed(matrix(new String[]{"A", "B"}, returns), LAMBDA);
+        
+        assertEquals(List.of("A"), estimate.subMatrix(List.of("A", "B")).tickerList());
+        assertFalse(estimate.covers(List.of("A", "B")));
+        assertTrue(estimate.covers(List.of("A")));
+    }
+    
+    @Test
+    void repairMakesMatrixPositiveSemidefiniteAndKeepsVariances() {
+        // Pairwise correlations of 0.9, 0.9 and -0.9 cannot hold together
+        double[][] matrix = {
+                {1.0, 0.9, 0.9},
+                {0.9, 1.0, -0.9},
+                {0.9, -0.9, 1.0}
+        };
+        assertFalse(EwmaCovariance.isPositiveSemidefinite(matrix));
+        
+        EwmaCovariance.repairPositiveSemidefinite(matrix);
+        
+        assertTrue(EwmaCovariance.isPositiveSemidefinite(matrix));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1.0, matrix[i][i], 1e-9);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(matrix[i][j], matrix[j][i], 1e-12);
+            }
+        }
+    }
+    
+    @Test
+    void positiveDefiniteMatrixPassesCheck() {
+        double[][] matrix = {
+                {2.0, 0.5},
+                {0.5, 1.0}
+        };
+        assertTrue(EwmaCovariance.isPositiveSemidefinite(matrix));
+    }
+}
@@ -0,0 +1,111 @@
+package com.portfoliotracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeanVarianceOptimizerTest {
+    
+    private static final double TOLERANCE = 1e-6;
+    
+    // Daily moments of three assets: a volatile high-return one, a quiet low-return one and one in between
+    private static final double[] MU = {0.0008, 0.0002, 0.0005};
+    private static final double[][] SIGMA = {
+            {4.0e-4, 5.0e-5, 1.2e-4},
+            {5.0e-5, 1.0e-4, 3.0e-5},
+            {1.2e-4, 3.0e-5, 2.25e-4}
+    };
+    
+    private static double[] filled(int n, double value) {
+        double[] array = new double[n];
+        Arrays.fill(array, value);
+        return array;
+    }
+    
+    private static void assertFeasible(double[] weights, double lower, double upper) {
+        double sum = 0.0;
+        for (double weight : weights) {
+            assertTrue(weight >= lower - 1e-12 && weight <= upper + 1e-12, "weight " + weight + " out of bounds");
+            sum += weight;
+        }
+        assertEquals(1.0, sum, 1e-9);
+    }
+    
+    @Test
+    void minimumVarianceOfTwoAssetsMatchesTheClosedForm() {
+        // w1 = (σ2² - σ12) / (σ1² + σ2² - 2σ12) = (1e-4 - 5e-5) / (5e-4 - 1e-4) = 0.125
+        double[] mu = {0.0008, 0.0002};
+        double[][] sigma = {{4.0e-4, 5.0e-5}, {5.0e-5, 1.0e-4}};
+        MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(mu, sigma, filled(2, 0.0), filled(2, 1.0));
+        
+        MeanVarianceOptimizer.Solution solution = optimizer.minimumVariance();
+        
+        assertEquals(0.125, solution.weights()[0], TOLERANCE);
+        assertEquals(0.875, solution.weights()[1], TOLERANCE);
+        double variance = 0.125 * 0.125 * 4.0e-4 + 2 * 0.125 * 0.875 * 5.0e-5 + 0.875 * 0.875 * 1.0e-4;
+        assertEquals(Math.sqrt(variance * MeanVarianceOptimizer.TRADING_DAYS), solution.volatility(), TOLERANCE);
+    }
+    
+    @Test
+    void bindingLowerBoundHoldsTheMinimumVariance() {
+        // The unconstrained optimum puts 0.125 in the first asset; a 0.3 floor must bind exactly
+        double[] mu = {0.0008, 0.0002};
+        double[][] sigma = {{4.0e-4, 5.0e-5}, {5.0e-5, 1.0e-4}};
+        MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(mu, sigma, filled(2, 0.3), filled(2, 1.0));
+        
+        double[] weights = optimizer.minimumVariance().weights();
+        
+        assertEquals(0.3, weights[0], TOLERANCE);
+        assertEquals(0.7, weights[1], TOLERANCE);
+    }
+    
+    @Test
+    void everyObjectiveRespectsTheBoundsAndIsFullyInvested() {
+        double lower = 0.1;
+        double upper = 0.45;
+        MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(MU, SIGMA, filled(3, lower), filled(3, upper));
+        
+        List<MeanVarianceOptimizer.Solution> solutions = new ArrayList<>(optimizer.frontier());
+        solutions.add(optimizer.minimumVariance());
+        solutions.add(optimizer.maximumSharpe(0.02));
+        solutions.add(optimizer.targetRisk(0.2));
+        
+        for (MeanVarianceOptimizer.Solution solution : solutions) {
+            assertFeasible(solution.weights(), lower, upper);
+        }
+    }
+    
+    @Test
+    void frontierTradesVolatilityForReturn() {
+        MeanVarianceOptimizer optimizer = new MeanVarianceOptimizer(MU, SIGMA, filled(3, 0.0), filled(3, 1.0));
+        
+        List<MeanVarianceOptimizer.Solution> frontier = optimizer.frontier();
+        
+        assertTrue(frontier.size() > 1);
+        for (int k = 1; k < frontier.size(); k++) {
+            assertTrue(frontier.get(k).expectedReturn() >= frontier.get(k - 1).expectedReturn() - 1e-9);
+            assertTrue(frontier.get(k).volatility() >= frontier.get(k - 1).volatility() - 1e-9);
+        }
+        double target = (frontier.get(0).volatility() + frontier.get(frontier.size() - 1).volatility()) / 2.0;
+        assertTrue(optimizer.targetRisk(target).volatility() <= target + TOLERANCE);
+    }
+    
+    @Test
+    void rejectsShortOrNonFiniteBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MeanVarianceOptimizer(MU, SIGMA, filled(3, -5.0), filled(3, 1.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MeanVarianceOptimizer(MU, SIGMA, filled(3, 0.0), filled(3, 1.5)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MeanVarianceOptimizer(MU, SIGMA, filled(3, Double.NaN), filled(3, 1.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MeanVarianceOptimizer(MU, SIGMA, filled(3, 0.0), filled(3, Double.NaN)));
+        // Bounds that are valid one by one but cannot add up to a fully invested portfolio
+        assertThrows(IllegalArgumentException.class,
+                () -> new MeanVarianceOptimizer(MU, SIGMA, filled(3, 0.0), filled(3, 0.3)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.portfoliotracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceAlertIndexTest {
+    
+    @Test
+    void firesAlertsOnOrPastTheirThreshold() {
+        PriceAlertIndex index = new PriceAlertIndex();
+        index.add(1, "AAPL", true, new BigDecimal("200"));
+        index.add(2, "AAPL", true, new BigDecimal("210"));
+        index.add(3, "AAPL", false, new BigDecimal("180"));
+        index.add(4, "MSFT", true, new BigDecimal("100"));
+        
+        assertEquals(Set.of(1L), new HashSet<>(index.crossed("AAPL", new BigDecimal("200.00"))));
+        assertEquals(Set.of(1L, 2L), new HashSet<>(index.crossed("AAPL", new BigDecimal("215"))));
+        assertEquals(Set.of(3L), new HashSet<>(index.crossed("AAPL", new BigDecimal("180"))));
+        assertEquals(List.of(), index.crossed("AAPL", new BigDecimal("190")));
+        assertEquals(List.of(), index.crossed("GOOG", new BigDecimal("1")));
+    }
+    
+    @Test
+    void equalThresholdsCoexist() {
+        PriceAlertIndex index = new PriceAlertIndex();
+        index.add(1, "AAPL", true, new BigDecimal("200"));
+        index.add(2, "AAPL", true, new BigDecimal("200.0"));
+        
+        assertEquals(Set.of(1L, 2L), new HashSet<>(index.crossed("AAPL", new BigDecimal("200"))));
+        assertEquals(2, index.size());
+    }
+    
+    @Test
+    void addMovesAndRemoveDropsAnAlert() {
+        PriceAlertIndex index = new PriceAlertIndex();
+        index.add(1, "AAPL", true, new BigDecimal("200"));
+        index.add(1, "AAPL", false, new BigDecimal("150"));
+        
+        assertEquals(List.of(), index.crossed("AAPL", new BigDecimal("250")));
+        assertEquals(List.of(1L), index.crossed("AAPL", new BigDecimal("140")));
+        
+        index.remove(1);
+        index.remove(1);
+        assertEquals(List.of(), index.crossed("AAPL", new BigDecimal("140")));
+        assertEquals(0, index.size());
+    }
+    
+    @Test
+    void matchesLinearScan() {
+        record Alert(long id, boolean above, BigDecimal threshold) {}
+        Random random = new Random(7);
+        PriceAlertIndex index = new PriceAlertIndex();
+        List<Alert> alerts = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Alert alert = new Alert(id, random.nextBoolean(), BigDecimal.valueOf(random.nextInt(1000), 1));
+            alerts.add(alert);
+            index.add(id, "T", alert.above(), alert.threshold());
+        }
+        for (int q = 0; q < 200; q++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(1000), 1);
+            Set<Long> expected = new HashSet<>();
+            for (Alert alert : alerts) {
+                int cmp = price.compareTo(alert.threshold());
+                if (alert.above() ? cmp >= 0 : cmp <= 0) {
+                    expected.add(alert.id());
+                }
+            }
+            assertEquals(expected, new HashSet<>(index.crossed("T", price)));
+        }
+    }
+}
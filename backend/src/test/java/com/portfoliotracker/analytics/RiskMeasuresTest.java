@@ -0,0 +1,94 @@
+package com.portfoliotracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskMeasuresTest {
+    
+    private static final double TOLERANCE = 1e-9;
+    
+    /** One hundred daily returns from -5.0% to +4.9% in 0.1% steps, shuffled. */
+    private static double[] evenlySpacedReturns() {
+        double[] returns = new double[100];
+        for (int i = 0; i < returns.length; i++) {
+            returns[(i * 37) % returns.length] = (i - 50) / 1000.0;
+        }
+        return returns;
+    }
+    
+    @Test
+    void historicalReadsTheTailOfTheSortedSample() {
+        double[] returns = evenlySpacedReturns();
+        double[] sorted = RiskMeasures.sortedCopy(returns);
+        double mean = RiskMeasures.mean(returns);
+        
+        assertEquals(-0.0005, mean, TOLERANCE);
+        assertEquals(-0.05, sorted[0], TOLERANCE);
+        
+        // 95%: the 5 worst days, -5.0% to -4.6%
+        RiskMeasures.Estimate at95 = RiskMeasures.historical(sorted, mean, 0.95);
+        assertEquals(0.046, at95.valueAtRisk(), TOLERANCE);
+        assertEquals(0.048, at95.expectedShortfall(), TOLERANCE);
+        assertEquals(mean, at95.meanReturn(), TOLERANCE);
+        
+        // 99%: only the worst day
+        RiskMeasures.Estimate at99 = RiskMeasures.historical(sorted, mean, 0.99);
+        assertEquals(0.05, at99.valueAtRisk(), TOLERANCE);
+        assertEquals(0.05, at99.expectedShortfall(), TOLERANCE);
+    }
+    
+    @Test
+    void historicalOfAnEmptySampleIsZero() {
+        RiskMeasures.Estimate estimate = RiskMeasures.historical(new double[0], 0.0, 0.95);
+        
+        assertEquals(0.0, estimate.valueAtRisk());
+        assertEquals(0.0, estimate.expectedShortfall());
+    }
+    
+    @Test
+    void parametricMatchesTheNormalClosedForm() {
+        // VaR = z σ - μ and ES = σ φ(z) / (1 - c) - μ, with z = 1.6449 at 95% and 2.3263 at 99%
+        RiskMeasures.Estimate at95 = RiskMeasures.parametric(0.0, 0.01, 0.95);
+        assertEquals(0.016448536269514722, at95.valueAtRisk(), 1e-10);
+        assertEquals(0.020627128075074257, at95.expectedShortfall(), 1e-10);
+        
+        RiskMeasures.Estimate at99 = RiskMeasures.parametric(0.001, 0.02, 0.99);
+        assertEquals(2.3263478740408408 * 0.02 - 0.001, at99.valueAtRisk(), 1e-10);
+        assertEquals(0.02 * 2.665214220345806 - 0.001, at99.expectedShortfall(), 1e-9);
+        assertTrue(at99.expectedShortfall() > at99.valueAtRisk());
+    }
+    
+    @Test
+    void sampleMomentsUseTheUnbiasedVariance() {
+        double[] values = {0.01, -0.02, 0.03, 0.0};
+        double mean = RiskMeasures.mean(values);
+        
+        assertEquals(0.005, mean, TOLERANCE);
+        // Squared deviations sum to 1.3e-3 over n - 1 = 3
+        assertEquals(Math.sqrt(1.3e-3 / 3), RiskMeasures.stdDev(values, mean), TOLERANCE);
+        assertEquals(0.0, RiskMeasures.stdDev(new double[]{0.01}, 0.01));
+    }
+    
+    @Test
+    void scalingGrowsDispersionWithTheSquareRootOfTime() {
+        RiskMeasures.Estimate daily = new RiskMeasures.Estimate(0.99, 0.02, 0.025, 0.001);
+        
+        RiskMeasures.Estimate tenDay = daily.scaledTo(10);
+        
+        assertEquals(0.021 * Math.sqrt(10) - 0.01, tenDay.valueAtRisk(), TOLERANCE);
+        assertEquals(0.026 * Math.sqrt(10) - 0.01, tenDay.expectedShortfall(), TOLERANCE);
+        assertEquals(0.01, tenDay.meanReturn(), TOLERANCE);
+        // A quantile that is still a gain over the horizon floors at zero
+        assertEquals(0.0, new RiskMeasures.Estimate(0.95, -0.001, 0.0, 0.01).scaledTo(10).valueAtRisk());
+    }
+    
+    @Test
+    void inverseNormalCdfIsSymmetricAndAccurate() {
+        assertEquals(0.0, RiskMeasures.inverseNormalCdf(0.5), TOLERANCE);
+        assertEquals(1.959963984540054, RiskMeasures.inverseNormalCdf(0.975), 1e-8);
+        assertEquals(-3.090232306167813, RiskMeasures.inverseNormalCdf(0.001), 1e-8);
+        assertEquals(-RiskMeasures.inverseNormalCdf(0.9), RiskMeasures.inverseNormalCdf(0.1), TOLERANCE);
+        assertThrows(IllegalArgumentException.class, () -> RiskMeasures.inverseNormalCdf(1.0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.portfoliotracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingWindowTest {
+    
+    private static final double TOLERANCE = 1e-9;
+    
+    private static double[] randomReturns(Random random, int days, double drift) {
+        double[] returns = new double[days];
+        for (int t = 0; t < days; t++) {
+            returns[t] = drift + random.nextGaussian() * 0.02;
+        }
+        return returns;
+    }
+    
+    /** Worst peak-to-trough loss over the levels of the window ending on day {@code t}, peaks inside it only. */
+    private static double bruteForceMaxDrawdown(double[] returns, int t, int window) {
+        double level = 1.0;
+        double peak = 1.0;
+        double worst = 0.0;
+        for (int s = t - window + 1; s <= t; s++) {
+            level *= 1.0 + returns[s];
+            peak = Math.max(peak, level);
+            worst = Math.max(worst, 1.0 - level / peak);
+        }
+        return worst;
+    }
+    
+    @Test
+    void matchesBruteForceOnEveryWindow() {
+        Random random = new Random(42);
+        for (int window : new int[]{2, 3, 7, 30, 90}) {
+            double[] returns = randomReturns(random, 400, 0.0003);
+            double[] benchmark = randomReturns(random, 400, 0.0002);
+            RollingWindow.Series series = RollingWindow.compute(returns, benchmark, window);
+            
+            for (int t = 0; t < returns.length; t++) {
+                if (t < window - 1) {
+                    assertTrue(Double.isNaN(series.maxDrawdown()[t]));
+                    continue;
+                }
+                assertEquals(bruteForceMaxDrawdown(returns, t, window), series.maxDrawdown()[t], TOLERANCE,
+                        "max drawdown, window " + window + ", day " + t);
+                
+                double growth = 1.0;
+                double mean = 0.0;
+                double benchmarkMean = 0.0;
+                for (int s = t - window + 1; s <= t; s++) {
+                    growth *= 1.0 + returns[s];
+                    mean += returns[s];
+                    benchmarkMean += benchmark[s];
+                }
+                mean /= window;
+                benchmarkMean /= window;
+                double variance = 0.0;
+                double benchmarkVariance = 0.0;
+                double covariance = 0.0;
+                for (int s = t - window + 1; s <= t; s++) {
+                    variance += (returns[s] - mean) * (returns[s] - mean);
+                    benchmarkVariance += (benchmark[s] - benchmarkMean) * (benchmark[s] - benchmarkMean);
+                    covariance += (returns[s] - mean) * (benchmark[s] - benchmarkMean);
+                }
+                assertEquals(growth - 1.0, series.trailingReturn()[t], TOLERANCE);
+                assertEquals(Math.sqrt(variance / (window - 1) * MeanVarianceOptimizer.TRADING_DAYS),
+                        series.volatility()[t], 1e-7);
+                double beta = covariance / benchmarkVariance;
+                assertEquals(beta, series.beta()[t], 1e-7 * Math.max(1.0, Math.abs(beta)));
+            }
+        }
+    }
+    
+    @Test
+    void drawdownIgnoresPeaksBeforeTheWindow() {
+        // A crash followed by a flat recovery: once the crash has left the window there is no drawdown
+        double[] returns = {0.5, -0.4, 0.01, 0.01, 0.01, 0.01};
+        RollingWindow.Series series = RollingWindow.compute(returns, null, 3);
+        
+        assertEquals(0.4, series.maxDrawdown()[2], TOLERANCE);
+        assertEquals(0.0, series.maxDrawdown()[4], TOLERANCE);
+        assertEquals(0.0, series.maxDrawdown()[5], TOLERANCE);
+    }
+    
+    @Test
+    void shortSeriesIsAllNaN() {
+        RollingWindow.Series series = RollingWindow.compute(new double[]{0.01, 0.02}, null, 5);
+        
+        for (double value : series.maxDrawdown()) {
+            assertTrue(Double.isNaN(value));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.portfoliotracker.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+    
+    private static final int KEYS = 20_000;
+    
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(HashRing.of(List.of()).owner("outbox-relay"));
+    }
+    
+    @Test
+    void ownershipDoesNotDependOnMemberOrder() {
+        HashRing ring = HashRing.of(List.of("a", "b", "c"));
+        HashRing shuffled = HashRing.of(List.of("c", "a", "b", "a"));
+        
+        assertEquals(List.of("a", "b", "c"), shuffled.nodes());
+        for (int k = 0; k < 1000; k++) {
+            assertEquals(ring.owner("key-" + k), shuffled.owner("key-" + k));
+        }
+    }
+    
+    @Test
+    void keysSpreadEvenlyOverNodes() {
+        HashRing ring = HashRing.of(List.of("node-1", "node-2", "node-3", "node-4"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (int k = 0; k < KEYS; k++) {
+            counts.merge(ring.owner("ticker-" + k), 1, Integer::sum);
+        }
+        
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(KEYS / 4.0, count, KEYS / 4.0 * 0.25);
+        }
+    }
+    
+    @Test
+    void removingANodeOnlyMovesItsOwnKeys() {
+        HashRing before = HashRing.of(List.of("node-1", "node-2", "node-3"));
+        HashRing after = HashRing.of(List.of("node-1", "node-3"));
+        
+        for (int k = 0; k < KEYS; k++) {
+            String key = "ticker-" + k;
+            String owner = before.owner(key);
+            if (!owner.equals("node-2")) {
+                assertEquals(owner, after.owner(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.portfoliotracker.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+    
+    private static final String NODE = "node-1";
+    
+    @Test
+    void nothingToSendPacksNoPayload() {
+        assertEquals(List.of(), CacheInvalidationBus.pack(NODE, List.of()));
+    }
+    
+    @Test
+    void smallBatchFitsOnePayload() {
+        List<String> payloads = CacheInvalidationBus.pack(NODE, List.of("quotes AAPL", "price-bars MSFT|2024-01-02"));
+        
+        assertEquals(List.of(NODE + "\nquotes AAPL\nprice-bars MSFT|2024-01-02"), payloads);
+    }
+    
+    @Test
+    void largeBatchIsSplitWithoutLosingOrReorderingMessages() {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            messages.add("quotes TICKER" + i);
+        }
+        List<String> payloads = CacheInvalidationBus.pack(NODE, messages);
+        
+        assertTrue(payloads.size() > 1);
+        List<String> unpacked = new ArrayList<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= CacheInvalidationBus.MAX_PAYLOAD_CHARS);
+            String[] lines = payload.split("\n");
+            assertEquals(NODE, lines[0]);
+            assertTrue(lines.length > 1);
+            unpacked.addAll(Arrays.asList(lines).subList(1, lines.length));
+        }
+        assertEquals(messages, unpacked);
+    }
+    
+    @Test
+    void oversizedMessageStillGoesOutOnItsOwn() {
+        String huge = "quotes " + "X".repeat(CacheInvalidationBus.MAX_PAYLOAD_CHARS);
+        List<String> payloads = CacheInvalidationBus.pack(NODE, List.of("quotes A", huge, "quotes B"));
+        
+        assertEquals(List.of(NODE + "\nquotes A", NODE + "\n" + huge, NODE + "\nquotes B"), payloads);
+    }
+}
@@ -0,0 +1,37 @@
+package com.portfoliotracker.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the current thread while {@link #capture} is running. Registered
+ * through {@code hibernate.session_factory.statement_inspector}; statements from other threads (scheduled
+ * jobs, the outbox relay) pass through unrecorded.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+    
+    @Override
+    public String inspect(String sql) {
+        List<String> recording = RECORDING.get();
+        if (recording != null) {
+            recording.add(sql);
+        }
+        return sql;
+    }
+    
+    /** Runs the action and returns the statements it prepared, in order. */
+    static List<String> capture(Runnable action) {
+        List<String> recording = new ArrayList<>();
+        RECORDING.set(recording);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return recording;
+    }
+}
@@ -0,0 +1,325 @@
+package com.portfoliotracker.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Exercises every declared repository method against PostgreSQL, captures the SQL Hibernate generates for
+ * it ({@link CapturingStatementInspector}) and EXPLAINs each statement as a generic plan with
+ * {@code enable_seqscan} off. With seq scans discouraged one only remains when no index can serve the
+ * query, so any "Seq Scan" node fails the test. Inserts are not planned.
+ * <p>
+ * Runs in the verify phase against a Testcontainers PostgreSQL, or against an existing, disposable database
+ * given by {@code -Dqueryplan.jdbc-url} (with {@code -Dqueryplan.username} / {@code -Dqueryplan.password});
+ * skipped when neither is available. Calls run in a transaction that is rolled back.
+ * {@code TickerClassificationRepository.findAll} reads the whole table by design and is not exercised.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.portfoliotracker.repository.CapturingStatementInspector",
+        "alpha.vantage.base.url=http://127.0.0.1:9"
+})
+class RepositoryQueryPlanIT {
+    
+    private static final String JDBC_URL = System.getProperty("queryplan.jdbc-url");
+    private static final String TICKER = "QPLAN";
+    
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            AlertTriggerRepository.class, ClusterNodeRepository.class, OutboxEventRepository.class,
+            PortfolioAssetRepository.class, PortfolioInsightRepository.class, PortfolioRepository.class,
+            PriceAlertRepository.class, PriceBarRepository.class, TickerQuoteRepository.class,
+            TickerSubscriptionRepository.class, UserRepository.class, WatchlistItemRepository.class,
+            WatchlistRepository.class);
+    
+    private static PostgreSQLContainer<?> postgres;
+    
+    private record Call(String name, Runnable action) {}
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    
+    @Autowired
+    private PortfolioAssetRepository portfolioAssetRepository;
+    
+    @Autowired
+    private PortfolioInsightRepository portfolioInsightRepository;
+    
+    @Autowired
+    private PriceBarRepository priceBarRepository;
+    
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+    
+    @Autowired
+    private AlertTriggerRepository alertTriggerRepository;
+    
+    @Autowired
+    private TickerQuoteRepository tickerQuoteRepository;
+    
+    @Autowired
+    private TickerSubscriptionRepository tickerSubscriptionRepository;
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    @Autowired
+    private WatchlistItemRepository watchlistItemRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @BeforeAll
+    static void startDatabase() {
+        if (JDBC_URL != null) {
+            return;
+        }
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                "Needs Docker or an existing database via -Dqueryplan.jdbc-url");
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+    }
+    
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres != null ? postgres.getJdbcUrl() : JDBC_URL);
+        registry.add("spring.datasource.username", () -> postgres != null
+                ? postgres.getUsername() : System.getProperty("queryplan.username", "postgres"));
+        registry.add("spring.datasource.password", () -> postgres != null
+                ? postgres.getPassword() : System.getProperty("queryplan.password", ""));
+    }
+    
+    @Test
+    void everyRepositoryMethodIsExercised() {
+        Set<String> exercised = new TreeSet<>();
+        for (Call call : calls()) {
+            exercised.add(call.name().replaceFirst("\\(.*", ""));
+        }
+        Set<String> missing = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = repository.getSimpleName() + "." + method.getName();
+                if (!exercised.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        assertTrue(missing.isEmpty(), () -> "Add these repository methods to the query plan check: " + missing);
+    }
+    
+    @Test
+    void generatedQueriesUseIndexes() throws SQLException {
+        Map<String, List<String>> statements = new LinkedHashMap<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            for (Call call : calls()) {
+                statements.put(call.name(), CapturingStatementInspector.capture(call.action()));
+            }
+            status.setRollbackOnly();
+        });
+        
+        List<String> seqScans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("analyze");
+                statement.execute("set local enable_seqscan = off");
+                statement.execute("set local plan_cache_mode = force_generic_plan");
+                int prepared = 0;
+                for (Map.Entry<String, List<String>> entry : statements.entrySet()) {
+                    assertFalse(entry.getValue().isEmpty(), () -> entry.getKey() + " prepared no SQL");
+                    for (String sql : entry.getValue()) {
+                        if (sql.trim().toLowerCase(Locale.ROOT).startsWith("insert")) {
+                            continue;
+                        }
+                        List<String> plan = explain(statement, "qplan_" + prepared++, sql);
+                        if (plan.stream().anyMatch(line -> line.contains("Seq Scan"))) {
+                            seqScans.add(entry.getKey() + ": " + sql + "\n  " + String.join("\n  ", plan));
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        assertTrue(seqScans.isEmpty(), () -> "Queries planned to a sequential scan:\n" + String.join("\n", seqScans));
+    }
+    
+    /**
+     * Prepares the statement with its JDBC placeholders numbered and EXPLAINs the generic plan, so no
+     * representative parameter values are needed.
+     */
+    private static List<String> explain(Statement statement, String name, String sql) throws SQLException {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameters = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        statement.execute("prepare " + name + " as " + numbered);
+        StringBuilder execute = new StringBuilder("explain execute ").append(name);
+        if (parameters > 0) {
+            execute.append('(').append(String.join(", ", Collections.nCopies(parameters, "null"))).append(')');
+        }
+        List<String> plan = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(execute.toString())) {
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+        }
+        statement.execute("deallocate " + name);
+        return plan;
+    }
+    
+    private List<Call> calls() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime longAgo = now.minusYears(10);
+        List<Long> ids = List.of(-1L, -2L);
+        return List.of(
+                new Call("UserRepository.findByUsername", () -> userRepository.findByUsername("qplan")),
+                new Call("UserRepository.findByEmail", () -> userRepository.findByEmail("qplan@example.com")),
+                new Call("UserRepository.existsByUsername", () -> userRepository.existsByUsername("qplan")),
+                new Call("UserRepository.existsByEmail", () -> userRepository.existsByEmail("qplan@example.com")),
+                
+                new Call("PortfolioRepository.findByUser",
+                        () -> portfolioRepository.findByUser(userRepository.getReferenceById(-1L))),
+                new Call("PortfolioRepository.findByUserId", () -> portfolioRepository.findByUserId(-1L)),
+                new Call("PortfolioRepository.findByIdAndUserId", () -> portfolioRepository.findByIdAndUserId(-1L, -1L)),
+                new Call("PortfolioRepository.findWithAssetsByIdAndUserId",
+                        () -> portfolioRepository.findWithAssetsByIdAndUserId(-1L, -1L)),
+                new Call("PortfolioRepository.findIdAndRevisionAfter",
+                        () -> portfolioRepository.findIdAndRevisionAfter(0L, PageRequest.of(0, 200))),
+                new Call("PortfolioRepository.bumpRevision", () -> portfolioRepository.bumpRevision(-1L, now)),
+                
+                new Call("PortfolioAssetRepository.findByPortfolio",
+                        () -> portfolioAssetRepository.findByPortfolio(portfolioRepository.getReferenceById(-1L))),
+                new Call("PortfolioAssetRepository.findByPortfolioId", () -> portfolioAssetRepository.findByPortfolioId(-1L)),
+                new Call("PortfolioAssetRepository.findByPortfolioIdIn", () -> portfolioAssetRepository.findByPortfolioIdIn(ids)),
+                new Call("PortfolioAssetRepository.findByPortfolioAndTickerSymbol",
+                        () -> portfolioAssetRepository.findByPortfolioAndTickerSymbol(
+                                portfolioRepository.getReferenceById(-1L), TICKER)),
+                new Call("PortfolioAssetRepository.findByIdAndPortfolioId",
+                        () -> portfolioAssetRepository.findByIdAndPortfolioId(-1L, -1L)),
+                new Call("PortfolioAssetRepository.findByPortfolioIdAndTickerSymbol",
+                        () -> portfolioAssetRepository.findByPortfolioIdAndTickerSymbol(-1L, TICKER)),
+                new Call("PortfolioAssetRepository.findDistinctTickerSymbols",
+                        () -> portfolioAssetRepository.findDistinctTickerSymbols()),
+                new Call("PortfolioAssetRepository.countByNormalizedTicker()",
+                        () -> portfolioAssetRepository.countByNormalizedTicker()),
+                new Call("PortfolioAssetRepository.countByNormalizedTicker(ticker)",
+                        () -> portfolioAssetRepository.countByNormalizedTicker(TICKER)),
+                
+                new Call("PortfolioInsightRepository.findByPortfolioId", () -> portfolioInsightRepository.findByPortfolioId(-1L)),
+                new Call("PortfolioInsightRepository.findByPortfolioIdIn", () -> portfolioInsightRepository.findByPortfolioIdIn(ids)),
+                new Call("PortfolioInsightRepository.findCurrentForOwner",
+                        () -> portfolioInsightRepository.findCurrentForOwner(-1L, -1L)),
+                
+                new Call("PriceBarRepository.findClosesSince",
+                        () -> priceBarRepository.findClosesSince(List.of(TICKER, "SPY"), LocalDate.now().minusYears(1))),
+                new Call("PriceBarRepository.findLatestTradeDate", () -> priceBarRepository.findLatestTradeDate(TICKER)),
+                
+                new Call("ClusterNodeRepository.heartbeat", () -> clusterNodeRepository.heartbeat("qplan", now)),
+                new Call("ClusterNodeRepository.deleteExpired", () -> clusterNodeRepository.deleteExpired(longAgo)),
+                new Call("ClusterNodeRepository.findLiveNodeIds", () -> clusterNodeRepository.findLiveNodeIds(now)),
+                
+                new Call("OutboxEventRepository.findByPublishedAtIsNullOrderByIdAsc",
+                        () -> outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, 200))),
+                new Call("OutboxEventRepository.markPublished", () -> outboxEventRepository.markPublished(ids, now)),
+                new Call("OutboxEventRepository.deletePublishedBefore",
+                        () -> outboxEventRepository.deletePublishedBefore(longAgo)),
+                
+                new Call("PriceAlertRepository.findByUserId", () -> priceAlertRepository.findByUserId(-1L)),
+                new Call("PriceAlertRepository.findByIdAndUserId", () -> priceAlertRepository.findByIdAndUserId(-1L, -1L)),
+                new Call("PriceAlertRepository.findByTriggeredAtIsNull", () -> priceAlertRepository.findByTriggeredAtIsNull()),
+                new Call("PriceAlertRepository.countByUserIdAndTriggeredAtIsNull",
+                        () -> priceAlertRepository.countByUserIdAndTriggeredAtIsNull(-1L)),
+                new Call("PriceAlertRepository.countByTickerSymbolAndTriggeredAtIsNull",
+                        () -> priceAlertRepository.countByTickerSymbolAndTriggeredAtIsNull(TICKER)),
+                new Call("PriceAlertRepository.countActiveByTicker", () -> priceAlertRepository.countActiveByTicker()),
+                new Call("PriceAlertRepository.markTriggered", () -> priceAlertRepository.markTriggered(-1L, now)),
+                
+                new Call("AlertTriggerRepository.findTop100ByUserIdAndIdGreaterThanOrderByIdAsc",
+                        () -> alertTriggerRepository.findTop100ByUserIdAndIdGreaterThanOrderByIdAsc(-1L, 0L)),
+                new Call("AlertTriggerRepository.findTopByUserIdOrderByIdDesc",
+                        () -> alertTriggerRepository.findTopByUserIdOrderByIdDesc(-1L)),
+                
+                new Call("TickerQuoteRepository.claim",
+                        () -> tickerQuoteRepository.claim(TICKER, "qplan", now, now.minusSeconds(45))),
+                new Call("TickerQuoteRepository.insertClaim", () -> tickerQuoteRepository.insertClaim(TICKER, "qplan", now)),
+                new Call("TickerQuoteRepository.updateQuote", () -> tickerQuoteRepository.updateQuote(TICKER, "{}", now)),
+                
+                new Call("TickerSubscriptionRepository.findSubscribedTickerSymbols",
+                        () -> tickerSubscriptionRepository.findSubscribedTickerSymbols()),
+                new Call("TickerSubscriptionRepository.insert", () -> tickerSubscriptionRepository.insert(TICKER)),
+                new Call("TickerSubscriptionRepository.adjust", () -> tickerSubscriptionRepository.adjust(TICKER, 1)),
+                new Call("TickerSubscriptionRepository.setSubscribers",
+                        () -> tickerSubscriptionRepository.setSubscribers(TICKER, 0)),
+                
+                new Call("WatchlistRepository.findByUserId", () -> watchlistRepository.findByUserId(-1L)),
+                new Call("WatchlistRepository.findByIdAndUserId", () -> watchlistRepository.findByIdAndUserId(-1L, -1L)),
+                new Call("WatchlistRepository.countByUserId", () -> watchlistRepository.countByUserId(-1L)),
+                new Call("WatchlistRepository.findForUpdateByIdAndUserId",
+                        () -> watchlistRepository.findForUpdateByIdAndUserId(-1L, -1L)),
+                
+                new Call("WatchlistItemRepository.findByWatchlistIdOrderByIdAsc",
+                        () -> watchlistItemRepository.findByWatchlistIdOrderByIdAsc(-1L)),
+                new Call("WatchlistItemRepository.findByWatchlistIdAndTickerSymbol",
+                        () -> watchlistItemRepository.findByWatchlistIdAndTickerSymbol(-1L, TICKER)),
+                new Call("WatchlistItemRepository.countByWatchlistId", () -> watchlistItemRepository.countByWatchlistId(-1L)),
+                new Call("WatchlistItemRepository.countByTickerSymbol", () -> watchlistItemRepository.countByTickerSymbol(TICKER)),
+                new Call("WatchlistItemRepository.countByTicker", () -> watchlistItemRepository.countByTicker()),
+                new Call("WatchlistItemRepository.deleteByWatchlistId", () -> watchlistItemRepository.deleteByWatchlistId(-1L)));
+    }
+}
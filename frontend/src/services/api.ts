@@ -16,6 +16,11 @@ api.interceptors.request.use(
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    // Lets any backend instance keep our reads off replicas that have not replayed our last write
+    const readAfter = sessionStorage.getItem('readAfter');
+    if (readAfter) {
+      config.headers['X-Read-After'] = readAfter;
+    }
     return config;
   },
   (error) => {
@@ -23,9 +28,15 @@ api.interceptors.request.use(
   }
 );
 
-// Handle token expiration
+// Remember our last write position; handle token expiration
 api.interceptors.response.use(
-  (response) => response,
+  (response) => {
+    const readAfter = response.headers['x-read-after'];
+    if (readAfter) {
+      sessionStorage.setItem('readAfter', readAfter);
+    }
+    return response;
+  },
   (error) => {
     if (error.response?.status === 401) {
       localStorage.removeItem('token');